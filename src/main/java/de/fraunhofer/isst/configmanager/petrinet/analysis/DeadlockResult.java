@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.analysis;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.ExplorationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Result of a deadlock freedom check by {@link StructuralAnalysis#checkDeadlockFreedom}.
+ */
+@Getter
+@AllArgsConstructor
+public class DeadlockResult {
+
+    /**
+     * True if no marking without enabled transitions was found.
+     */
+    private boolean deadlockFree;
+
+    /**
+     * True if the result follows from the siphons and traps, without exploring the state space.
+     */
+    private boolean structural;
+
+    /**
+     * Minimal siphons (as places) which contain no initially marked trap, so they may run empty.
+     */
+    private List<List<Place>> offendingSiphons;
+
+    /**
+     * True if the PetriNet is ordinary and free choice, then it is live exactly if there are no offending siphons
+     * (Commoner's theorem).
+     */
+    private boolean freeChoice;
+
+    /**
+     * COMPLETE if the state space was not needed or completely explored, otherwise the limit stopping the exploration.
+     */
+    private ExplorationStatus status;
+
+    /**
+     * A reachable marking without enabled transitions, as copy of the PetriNet (null if none was found).
+     */
+    private PetriNet deadlock;
+
+    /**
+     * @return true if the PetriNet is live (only known for free choice PetriNets, false otherwise)
+     */
+    public boolean isLive() {
+        return freeChoice && offendingSiphons.isEmpty();
+    }
+
+    /**
+     * @return true if deadlock freedom was decided (a deadlock was found, or no limit stopped the search)
+     */
+    public boolean isDecided() {
+        return deadlock != null || status == ExplorationStatus.COMPLETE;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.analysis;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.CompiledPetriNet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Sparse incidence matrix C of a PetriNet: C[p][t] is the number of markers transition t puts on place p, minus the
+ * number of markers it takes from p.
+ *
+ * Only the nonzero entries are stored, both per transition (columns) and per place (rows). Places and transitions are
+ * numbered like in the {@link CompiledPetriNet}.
+ */
+public class IncidenceMatrix {
+
+    private final CompiledPetriNet net;
+
+    private final int[][] columnPlaces;
+
+    private final int[][] columnValues;
+
+    private final int[][] rowTransitions;
+
+    private final int[][] rowValues;
+
+    /**
+     * @param net the compiled PetriNet
+     */
+    public IncidenceMatrix(final CompiledPetriNet net) {
+        this.net = net;
+
+        final var placeCount = net.getPlaceCount();
+        final var transitionCount = net.getTransitionCount();
+        final var change = new int[placeCount];
+        final List<List<int[]>> rows = new ArrayList<>();
+
+        for (var place = 0; place < placeCount; place++) {
+            rows.add(new ArrayList<>());
+        }
+
+        this.columnPlaces = new int[transitionCount][];
+        this.columnValues = new int[transitionCount][];
+
+        for (var transition = 0; transition < transitionCount; transition++) {
+            final var preSet = net.getPreSet(transition);
+            final var postSet = net.getPostSet(transition);
+
+            for (var i = 0; i < preSet.length; i++) {
+                change[preSet[i]] -= net.getPreWeights(transition)[i];
+            }
+
+            for (var i = 0; i < postSet.length; i++) {
+                change[postSet[i]] += net.getPostWeights(transition)[i];
+            }
+
+            //places on a self loop (taken and given back) cancel out
+            final var changed = IntStream.concat(Arrays.stream(preSet), Arrays.stream(postSet))
+                    .distinct()
+                    .filter(place -> change[place] != 0)
+                    .sorted()
+                    .toArray();
+
+            columnPlaces[transition] = changed;
+            columnValues[transition] = new int[changed.length];
+
+            for (var i = 0; i < changed.length; i++) {
+                columnValues[transition][i] = change[changed[i]];
+                rows.get(changed[i]).add(new int[]{transition, change[changed[i]]});
+            }
+
+            Arrays.stream(preSet).forEach(place -> change[place] = 0);
+            Arrays.stream(postSet).forEach(place -> change[place] = 0);
+        }
+
+        this.rowTransitions = new int[placeCount][];
+        this.rowValues = new int[placeCount][];
+
+        for (var place = 0; place < placeCount; place++) {
+            rowTransitions[place] = rows.get(place).stream().mapToInt(entry -> entry[0]).toArray();
+            rowValues[place] = rows.get(place).stream().mapToInt(entry -> entry[1]).toArray();
+        }
+    }
+
+    /**
+     * @param petriNet a PetriNet
+     * @return the incidence matrix of the PetriNet
+     */
+    public static IncidenceMatrix of(final PetriNet petriNet) {
+        return new IncidenceMatrix(new CompiledPetriNet(petriNet));
+    }
+
+    /**
+     * @return the compiled PetriNet, defining the indices of places and transitions
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int getPlaceCount() {
+        return rowTransitions.length;
+    }
+
+    /**
+     * @return number of columns
+     */
+    public int getTransitionCount() {
+        return columnPlaces.length;
+    }
+
+    /**
+     * @param place index of a place
+     * @param transition index of a transition
+     * @return the entry C[place][transition]
+     */
+    public int get(final int place, final int transition) {
+        final var i = Arrays.binarySearch(columnPlaces[transition], place);
+        return i < 0 ? 0 : columnValues[transition][i];
+    }
+
+    /**
+     * @param transition index of a transition
+     * @return indices of the places changed by the transition, ascending (must not be modified)
+     */
+    public int[] getColumnPlaces(final int transition) {
+        return columnPlaces[transition];
+    }
+
+    /**
+     * @param transition index of a transition
+     * @return change of the markers of every place, in the order of {@link #getColumnPlaces(int)}
+     *         (must not be modified)
+     */
+    public int[] getColumnValues(final int transition) {
+        return columnValues[transition];
+    }
+
+    /**
+     * @param place index of a place
+     * @return indices of the transitions changing the place, ascending (must not be modified)
+     */
+    public int[] getRowTransitions(final int place) {
+        return rowTransitions[place];
+    }
+
+    /**
+     * @param place index of a place
+     * @return change of the markers of the place by every transition, in the order of
+     *         {@link #getRowTransitions(int)} (must not be modified)
+     */
+    public int[] getRowValues(final int place) {
+        return rowValues[place];
+    }
+}
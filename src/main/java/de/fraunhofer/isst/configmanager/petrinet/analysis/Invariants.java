@@ -0,0 +1,297 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.analysis;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Computation of the minimal semi-positive invariants of a PetriNet with the Farkas algorithm (integer
+ * Fourier-Motzkin elimination).
+ *
+ * A P-invariant y (one weight per place) fulfills y * C = 0: the weighted sum of the markers is the same in every
+ * reachable marking. A T-invariant x (one count per transition) fulfills C * x = 0: firing every transition x times
+ * leads back to the same marking. The number of minimal invariants can grow exponentially, so the number of
+ * intermediate candidates is limited.
+ */
+@UtilityClass
+public class Invariants {
+    /**
+     * Default maximum number of candidate vectors kept during the elimination.
+     */
+    public static final int MAX_CANDIDATES = 10_000;
+
+    /**
+     * @param matrix incidence matrix of a PetriNet
+     * @return the minimal semi-positive P-invariants (indexed by place)
+     * @throws IllegalStateException if the elimination needs more than {@link #MAX_CANDIDATES} candidates
+     * @throws ArithmeticException if a weight does not fit into an int
+     */
+    public static List<int[]> placeInvariants(final IncidenceMatrix matrix) {
+        return placeInvariants(matrix, MAX_CANDIDATES);
+    }
+
+    /**
+     * @param matrix incidence matrix of a PetriNet
+     * @param maxCandidates maximum number of candidate vectors kept during the elimination
+     * @return the minimal semi-positive P-invariants (indexed by place)
+     * @throws IllegalStateException if the elimination needs more candidates
+     * @throws ArithmeticException if a weight does not fit into an int
+     */
+    public static List<int[]> placeInvariants(final IncidenceMatrix matrix, final int maxCandidates) {
+        return eliminate(matrix.getPlaceCount(), matrix.getTransitionCount(), matrix::getRowTransitions,
+                matrix::getRowValues, maxCandidates);
+    }
+
+    /**
+     * @param matrix incidence matrix of a PetriNet
+     * @return the minimal semi-positive T-invariants (indexed by transition)
+     * @throws IllegalStateException if the elimination needs more than {@link #MAX_CANDIDATES} candidates
+     * @throws ArithmeticException if a count does not fit into an int
+     */
+    public static List<int[]> transitionInvariants(final IncidenceMatrix matrix) {
+        return transitionInvariants(matrix, MAX_CANDIDATES);
+    }
+
+    /**
+     * @param matrix incidence matrix of a PetriNet
+     * @param maxCandidates maximum number of candidate vectors kept during the elimination
+     * @return the minimal semi-positive T-invariants (indexed by transition)
+     * @throws IllegalStateException if the elimination needs more candidates
+     * @throws ArithmeticException if a count does not fit into an int
+     */
+    public static List<int[]> transitionInvariants(final IncidenceMatrix matrix, final int maxCandidates) {
+        return eliminate(matrix.getTransitionCount(), matrix.getPlaceCount(), matrix::getColumnPlaces,
+                matrix::getColumnValues, maxCandidates);
+    }
+
+    /**
+     * @param invariants invariants of a PetriNet
+     * @param size number of places (or transitions) of the PetriNet
+     * @return indices not contained in the support of any invariant
+     */
+    public static BitSet uncovered(final List<int[]> invariants, final int size) {
+        final var uncovered = new BitSet(size);
+        uncovered.set(0, size);
+
+        for (final var invariant : invariants) {
+            for (var i = 0; i < invariant.length; i++) {
+                if (invariant[i] > 0) {
+                    uncovered.clear(i);
+                }
+            }
+        }
+
+        return uncovered;
+    }
+
+    /**
+     * Find all minimal semi-positive vectors y with y * A = 0 for a sparse matrix A.
+     *
+     * @param rowCount number of rows of A (length of the result vectors)
+     * @param columnCount number of columns of A
+     * @param indices column indices of the nonzero entries of every row
+     * @param values nonzero entries of every row
+     * @param maxCandidates maximum number of candidates
+     * @return the minimal semi-positive solutions
+     */
+    private static List<int[]> eliminate(final int rowCount,
+                                         final int columnCount,
+                                         final IntFunction<int[]> indices,
+                                         final IntFunction<int[]> values,
+                                         final int maxCandidates) {
+        List<Candidate> candidates = new ArrayList<>();
+
+        for (var row = 0; row < rowCount; row++) {
+            final var candidate = new Candidate(new long[columnCount], new long[rowCount]);
+            final var columns = indices.apply(row);
+
+            for (var i = 0; i < columns.length; i++) {
+                candidate.matrix[columns[i]] = values.apply(row)[i];
+            }
+
+            candidate.weights[row] = 1;
+            candidate.support.set(row);
+            candidates.add(candidate);
+        }
+
+        final var remaining = new BitSet(columnCount);
+        remaining.set(0, columnCount);
+
+        while (!remaining.isEmpty()) {
+            final var column = cheapestColumn(candidates, remaining);
+            final var next = new ArrayList<Candidate>();
+            final var positive = new ArrayList<Candidate>();
+            final var negative = new ArrayList<Candidate>();
+
+            for (final var candidate : candidates) {
+                final var value = candidate.matrix[column];
+
+                if (value == 0) {
+                    next.add(candidate);
+                } else {
+                    (value > 0 ? positive : negative).add(candidate);
+                }
+            }
+
+            //every pair of a positive and a negative entry is combined to a zero entry
+            for (final var plus : positive) {
+                for (final var minus : negative) {
+                    next.add(plus.combine(minus, column));
+                }
+            }
+
+            candidates = minimal(next);
+
+            if (candidates.size() > maxCandidates) {
+                throw new IllegalStateException(String.format("More than %d candidate invariants!", maxCandidates));
+            }
+
+            remaining.clear(column);
+        }
+
+        return candidates.stream().map(Candidate::toInvariant).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the remaining column whose elimination adds the fewest candidates
+     */
+    private static int cheapestColumn(final List<Candidate> candidates, final BitSet remaining) {
+        var best = -1;
+        var bestCost = Long.MAX_VALUE;
+
+        for (var column = remaining.nextSetBit(0); column >= 0; column = remaining.nextSetBit(column + 1)) {
+            long positive = 0;
+            long negative = 0;
+
+            for (final var candidate : candidates) {
+                if (candidate.matrix[column] > 0) {
+                    positive++;
+                } else if (candidate.matrix[column] < 0) {
+                    negative++;
+                }
+            }
+
+            final var cost = positive * negative - positive - negative;
+
+            if (cost < bestCost) {
+                best = column;
+                bestCost = cost;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @param candidates candidate vectors
+     * @return the candidates without those whose support contains the support of another one (or duplicates)
+     */
+    private static List<Candidate> minimal(final List<Candidate> candidates) {
+        candidates.sort(Comparator.comparingInt(candidate -> candidate.support.cardinality()));
+        final var kept = new ArrayList<Candidate>();
+
+        check: for (final var candidate : candidates) {
+            for (final var other : kept) {
+                final var difference = (BitSet) other.support.clone();
+                difference.andNot(candidate.support);
+
+                if (difference.isEmpty() && (!other.support.equals(candidate.support) || other.equalTo(candidate))) {
+                    continue check;
+                }
+            }
+
+            kept.add(candidate);
+        }
+
+        return kept;
+    }
+
+    /**
+     * Row of the extended matrix [A | I] during the elimination.
+     */
+    private static final class Candidate {
+        /**
+         * Remaining entries of y * A.
+         */
+        private final long[] matrix;
+
+        /**
+         * The vector y.
+         */
+        private final long[] weights;
+
+        private final BitSet support = new BitSet();
+
+        private Candidate(final long[] matrix, final long[] weights) {
+            this.matrix = matrix;
+            this.weights = weights;
+        }
+
+        /**
+         * @param other candidate with an entry of the opposite sign in the column
+         * @param column the eliminated column
+         * @return positive combination of both candidates with a zero entry in the column, divided by the gcd
+         */
+        private Candidate combine(final Candidate other, final int column) {
+            final var factor = Math.abs(other.matrix[column]);
+            final var otherFactor = Math.abs(matrix[column]);
+            final var combined = new Candidate(new long[matrix.length], new long[weights.length]);
+            var gcd = 0L;
+
+            for (var i = 0; i < matrix.length; i++) {
+                combined.matrix[i] = Math.addExact(Math.multiplyExact(factor, matrix[i]),
+                        Math.multiplyExact(otherFactor, other.matrix[i]));
+                gcd = gcd(gcd, combined.matrix[i]);
+            }
+
+            for (var i = 0; i < weights.length; i++) {
+                combined.weights[i] = Math.addExact(Math.multiplyExact(factor, weights[i]),
+                        Math.multiplyExact(otherFactor, other.weights[i]));
+                gcd = gcd(gcd, combined.weights[i]);
+            }
+
+            for (var i = 0; i < matrix.length; i++) {
+                combined.matrix[i] /= gcd;
+            }
+
+            for (var i = 0; i < weights.length; i++) {
+                combined.weights[i] /= gcd;
+            }
+
+            combined.support.or(support);
+            combined.support.or(other.support);
+            return combined;
+        }
+
+        private boolean equalTo(final Candidate other) {
+            return Arrays.equals(weights, other.weights) && Arrays.equals(matrix, other.matrix);
+        }
+
+        private int[] toInvariant() {
+            return Arrays.stream(weights).mapToInt(Math::toIntExact).toArray();
+        }
+
+        private static long gcd(final long a, final long b) {
+            return b == 0 ? Math.abs(a) : gcd(b, a % b);
+        }
+    }
+}
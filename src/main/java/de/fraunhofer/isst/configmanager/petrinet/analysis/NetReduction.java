@@ -0,0 +1,436 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.analysis;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.ArcImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.HasId;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNetImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.CompiledPetriNet;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reduction of a PetriNet by the classical fusion rules, applied before exploring its state space.
+ *
+ * The rules only remove nodes which are not visible (not observed by the checked formulas), and only where the removed
+ * steps happen inevitably and without competition:
+ * <ul>
+ *     <li>series transitions: a place with a single producer t1 and a single consumer t2 (whose only input is the
+ *     place) is removed, t1 takes over the outputs of t2</li>
+ *     <li>series places: a transition with a single input p1 (consumed by no other transition) and a single output
+ *     p2 is removed, p2 takes over the producers and markers of p1</li>
+ *     <li>redundant places: places without consumers, and marked places every transition gives back what it takes,
+ *     never restrict firing and are removed</li>
+ *     <li>parallel places: of two places with the same producers, consumers and markers, one is removed</li>
+ * </ul>
+ * The reduced PetriNet preserves the behaviour observable on the visible nodes: its firing sequences of visible
+ * transitions, each with the markers of the visible places afterwards, and its deadlocks are the same as in the
+ * original PetriNet (the removed steps only add stuttering). The removed transitions fire inevitably, so the
+ * transitions fired in the original PetriNet follow from those fired in the reduced one, see
+ * {@link ReducedNet#getFiredIds}. This is all the
+ * {@link de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker} needs from the state space,
+ * its formulas follow paths through the nodes of the original PetriNet (see
+ * {@link de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker#forReducedNet}). Boundedness of
+ * removed places is not preserved.
+ */
+@Slf4j
+@UtilityClass
+public class NetReduction {
+    /**
+     * @param petriNet a PetriNet
+     * @return the PetriNet reduced as far as possible, with every node invisible (preserving deadlocks and fired
+     *         transitions, as used by {@link StructuralAnalysis#checkDeadlockFreedom} and the CTLModelChecker)
+     */
+    public static ReducedNet reduce(final PetriNet petriNet) {
+        return reduce(petriNet, Set.of());
+    }
+
+    /**
+     * @param petriNet a PetriNet
+     * @param visible IDs of the places and transitions observed by the checked formulas, they are kept unchanged
+     * @return the reduced PetriNet, with the mapping of its nodes to the original ones
+     */
+    public static ReducedNet reduce(final PetriNet petriNet, final Set<URI> visible) {
+        final var reducer = new Reducer(new CompiledPetriNet(petriNet), visible);
+        reducer.run();
+        final var reduced = reducer.build(petriNet instanceof HasId ? ((HasId) petriNet).getID() : null);
+
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Reduced PetriNet from %d to %d nodes", petriNet.getNodes().size(),
+                    reduced.getPetriNet().getNodes().size()));
+        }
+
+        return reduced;
+    }
+
+    /**
+     * Mutable copy of the structure of a compiled PetriNet, reduced in place.
+     */
+    private static final class Reducer {
+        private final CompiledPetriNet net;
+
+        /**
+         * Input places of every transition, with their arc weights.
+         */
+        private final List<Map<Integer, Integer>> pre = new ArrayList<>();
+
+        /**
+         * Output places of every transition, with their arc weights.
+         */
+        private final List<Map<Integer, Integer>> post = new ArrayList<>();
+
+        private final List<Set<Integer>> producers = new ArrayList<>();
+
+        private final List<Set<Integer>> consumers = new ArrayList<>();
+
+        /**
+         * Producers of every place in the original PetriNet.
+         */
+        private final List<Set<Integer>> originalProducers = new ArrayList<>();
+
+        private final int[] marking;
+
+        private final BitSet visiblePlaces = new BitSet();
+
+        private final BitSet visibleTransitions = new BitSet();
+
+        private final BitSet removedPlaces = new BitSet();
+
+        private final BitSet removedTransitions = new BitSet();
+
+        /**
+         * Original IDs represented by every place and transition (starting with its own).
+         */
+        private final List<List<URI>> placeOrigins = new ArrayList<>();
+
+        private final List<List<URI>> transitionOrigins = new ArrayList<>();
+
+        /**
+         * Original transitions firing with every transition (starting with itself), fused into it as series
+         * transitions.
+         */
+        private final List<List<URI>> firingWith = new ArrayList<>();
+
+        private final List<URI> dropped = new ArrayList<>();
+
+        /**
+         * Original transitions firing inevitably after every original transition.
+         */
+        private final Map<URI, Set<URI>> impliedFirings = new HashMap<>();
+
+        /**
+         * Original transitions firing inevitably from the initial marking.
+         */
+        private final Set<URI> initialFirings = new HashSet<>();
+
+        private Reducer(final CompiledPetriNet net, final Set<URI> visible) {
+            this.net = net;
+            this.marking = net.getInitialMarking().clone();
+
+            for (var place = 0; place < net.getPlaceCount(); place++) {
+                producers.add(new TreeSet<>());
+                consumers.add(new TreeSet<>());
+                placeOrigins.add(new ArrayList<>(List.of(net.getPlace(place).getID())));
+
+                if (visible.contains(net.getPlace(place).getID())) {
+                    visiblePlaces.set(place);
+                }
+            }
+
+            for (var transition = 0; transition < net.getTransitionCount(); transition++) {
+                pre.add(toMap(net.getPreSet(transition), net.getPreWeights(transition)));
+                post.add(toMap(net.getPostSet(transition), net.getPostWeights(transition)));
+                transitionOrigins.add(new ArrayList<>(List.of(net.getTransition(transition).getID())));
+                firingWith.add(new ArrayList<>(List.of(net.getTransition(transition).getID())));
+
+                for (final var place : net.getPreSet(transition)) {
+                    consumers.get(place).add(transition);
+                }
+
+                for (final var place : net.getPostSet(transition)) {
+                    producers.get(place).add(transition);
+                }
+
+                if (visible.contains(net.getTransition(transition).getID())) {
+                    visibleTransitions.set(transition);
+                }
+            }
+
+            producers.forEach(place -> originalProducers.add(Set.copyOf(place)));
+        }
+
+        /**
+         * Apply the rules until none of them matches anymore.
+         */
+        private void run() {
+            var changed = true;
+
+            while (changed) {
+                changed = false;
+
+                for (var place = 0; place < marking.length; place++) {
+                    if (!removedPlaces.get(place) && (fuseSeriesTransitions(place) || removeRedundantPlace(place)
+                            || fuseParallelPlace(place))) {
+                        changed = true;
+                    }
+                }
+
+                for (var transition = 0; transition < pre.size(); transition++) {
+                    if (!removedTransitions.get(transition) && fuseSeriesPlaces(transition)) {
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * t1 -> place -> t2 becomes t1 with the outputs of t2, if t2 fires inevitably once the place is marked.
+         */
+        private boolean fuseSeriesTransitions(final int place) {
+            if (visiblePlaces.get(place) || marking[place] != 0
+                    || producers.get(place).size() != 1 || consumers.get(place).size() != 1) {
+                return false;
+            }
+
+            final int first = producers.get(place).iterator().next();
+            final int second = consumers.get(place).iterator().next();
+
+            if (first == second || visibleTransitions.get(second)
+                    || !pre.get(second).equals(Map.of(place, 1)) || post.get(first).get(place) != 1
+                    || post.get(second).keySet().stream().anyMatch(output -> visiblePlaces.get(output)
+                            || post.get(first).containsKey(output))) {
+                return false;
+            }
+
+            post.get(first).remove(place);
+            post.get(second).forEach((output, weight) -> {
+                post.get(first).put(output, weight);
+                producers.get(output).remove(second);
+                producers.get(output).add(first);
+            });
+
+            transitionOrigins.get(first).addAll(placeOrigins.get(place));
+            transitionOrigins.get(first).addAll(transitionOrigins.get(second));
+            firingWith.get(first).addAll(firingWith.get(second));
+            removePlace(place);
+            removeTransition(second);
+            return true;
+        }
+
+        /**
+         * p1 -> transition -> p2 becomes p2 with the producers and markers of p1, if the transition fires inevitably
+         * once p1 is marked.
+         */
+        private boolean fuseSeriesPlaces(final int transition) {
+            if (visibleTransitions.get(transition) || pre.get(transition).size() != 1
+                    || post.get(transition).size() != 1) {
+                return false;
+            }
+
+            final var input = pre.get(transition).entrySet().iterator().next();
+            final var output = post.get(transition).entrySet().iterator().next();
+            final int first = input.getKey();
+            final int second = output.getKey();
+
+            if (first == second || input.getValue() != 1 || output.getValue() != 1
+                    || visiblePlaces.get(first) || visiblePlaces.get(second)
+                    || !consumers.get(first).equals(Set.of(transition))
+                    || producers.get(first).stream().anyMatch(producer -> producers.get(second).contains(producer))) {
+                return false;
+            }
+
+            for (final var producer : producers.get(first)) {
+                post.get(producer).put(second, post.get(producer).remove(first));
+                producers.get(second).add(producer);
+            }
+
+            //the transition fires once the first place gets markers, initially or from one of its producers
+            final var fired = firingWith.get(transition);
+
+            if (net.getInitialMarking()[first] > 0) {
+                initialFirings.addAll(fired);
+            }
+
+            for (final var producer : originalProducers.get(first)) {
+                impliedFirings.computeIfAbsent(net.getTransition(producer).getID(), key -> new HashSet<>())
+                        .addAll(fired);
+            }
+
+            marking[second] = Math.addExact(marking[second], marking[first]);
+            placeOrigins.get(second).addAll(placeOrigins.get(first));
+            placeOrigins.get(second).addAll(transitionOrigins.get(transition));
+            removePlace(first);
+            removeTransition(transition);
+            return true;
+        }
+
+        /**
+         * Remove the place if it never prevents a transition from firing.
+         */
+        private boolean removeRedundantPlace(final int place) {
+            if (visiblePlaces.get(place)) {
+                return false;
+            }
+
+            if (!consumers.get(place).isEmpty()) {
+                //a self loop place with enough markers for every transition
+                for (final var consumer : consumers.get(place)) {
+                    if (!pre.get(consumer).get(place).equals(post.get(consumer).get(place))
+                            || pre.get(consumer).get(place) > marking[place]) {
+                        return false;
+                    }
+                }
+
+                if (!consumers.get(place).containsAll(producers.get(place))) {
+                    return false;
+                }
+            }
+
+            dropped.addAll(placeOrigins.get(place));
+            removePlace(place);
+            return true;
+        }
+
+        /**
+         * Remove another place with the same producers, consumers and markers as the given one (keeping the visible).
+         */
+        private boolean fuseParallelPlace(final int place) {
+            final var neighbours = consumers.get(place).isEmpty() ? producers.get(place) : consumers.get(place);
+
+            if (neighbours.isEmpty()) {
+                return false;
+            }
+
+            final int neighbour = neighbours.iterator().next();
+            final var candidates = new TreeSet<>(pre.get(neighbour).keySet());
+            candidates.addAll(post.get(neighbour).keySet());
+
+            for (final var other : candidates) {
+                if (other != place && isParallel(place, other)
+                        && !(visiblePlaces.get(place) && visiblePlaces.get(other))) {
+                    final var kept = visiblePlaces.get(other) ? other : place;
+                    final var removed = kept == place ? other : place;
+                    placeOrigins.get(kept).addAll(placeOrigins.get(removed));
+                    removePlace(removed);
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private boolean isParallel(final int place, final int other) {
+            if (marking[place] != marking[other] || !producers.get(place).equals(producers.get(other))
+                    || !consumers.get(place).equals(consumers.get(other))) {
+                return false;
+            }
+
+            return producers.get(place).stream()
+                    .allMatch(producer -> post.get(producer).get(place).equals(post.get(producer).get(other)))
+                    && consumers.get(place).stream()
+                    .allMatch(consumer -> pre.get(consumer).get(place).equals(pre.get(consumer).get(other)));
+        }
+
+        private void removePlace(final int place) {
+            for (final var producer : producers.get(place)) {
+                post.get(producer).remove(place);
+            }
+
+            for (final var consumer : consumers.get(place)) {
+                pre.get(consumer).remove(place);
+            }
+
+            producers.get(place).clear();
+            consumers.get(place).clear();
+            removedPlaces.set(place);
+        }
+
+        private void removeTransition(final int transition) {
+            pre.get(transition).keySet().forEach(place -> consumers.get(place).remove(transition));
+            post.get(transition).keySet().forEach(place -> producers.get(place).remove(transition));
+            pre.get(transition).clear();
+            post.get(transition).clear();
+            removedTransitions.set(transition);
+        }
+
+        /**
+         * @param id ID of the reduced PetriNet
+         * @return the remaining places and transitions as new PetriNet, with the mapping to the original nodes
+         */
+        private ReducedNet build(final URI id) {
+            final Set<Node> nodes = new HashSet<>();
+            final Set<Arc> arcs = new HashSet<>();
+            final Map<URI, List<URI>> origins = new HashMap<>();
+            final Node[] places = new Node[marking.length];
+
+            for (var place = removedPlaces.nextClearBit(0); place < marking.length;
+                 place = removedPlaces.nextClearBit(place + 1)) {
+                places[place] = net.getPlace(place).deepCopy();
+                ((Place) places[place]).setMarkers(marking[place]);
+                nodes.add(places[place]);
+                origins.put(places[place].getID(), List.copyOf(placeOrigins.get(place)));
+            }
+
+            for (var transition = removedTransitions.nextClearBit(0); transition < pre.size();
+                 transition = removedTransitions.nextClearBit(transition + 1)) {
+                final var copy = net.getTransition(transition).deepCopy();
+                nodes.add(copy);
+                origins.put(copy.getID(), List.copyOf(transitionOrigins.get(transition)));
+                //the transitions fused into it fire with it
+                impliedFirings.computeIfAbsent(copy.getID(), key -> new HashSet<>())
+                        .addAll(firingWith.get(transition));
+
+                //arcs have no hashCode, so parallel arcs stay in the set and give the weight
+                pre.get(transition).forEach((place, weight) -> {
+                    for (var i = 0; i < weight; i++) {
+                        arcs.add(new ArcImpl(places[place], copy));
+                    }
+                });
+                post.get(transition).forEach((place, weight) -> {
+                    for (var i = 0; i < weight; i++) {
+                        arcs.add(new ArcImpl(copy, places[place]));
+                    }
+                });
+            }
+
+            return new ReducedNet(new PetriNetImpl(id, nodes, arcs), origins, List.copyOf(dropped), impliedFirings,
+                    initialFirings);
+        }
+
+        private static Map<Integer, Integer> toMap(final int[] places, final int[] weights) {
+            final Map<Integer, Integer> map = new TreeMap<>();
+
+            for (var i = 0; i < places.length; i++) {
+                map.put(places[i], weights[i]);
+            }
+
+            return map;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.analysis;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Result of a {@link NetReduction}: the reduced PetriNet and the mapping of its nodes to the nodes of the original
+ * PetriNet, so results computed on the reduced PetriNet can be reported for the original nodes.
+ */
+@Getter
+public class ReducedNet {
+
+    /**
+     * The reduced PetriNet.
+     */
+    private final PetriNet petriNet;
+
+    /**
+     * Original IDs represented by every node of the reduced PetriNet.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<URI, List<URI>> originalIds;
+
+    /**
+     * Node of the reduced PetriNet representing every original ID.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<URI, URI> reducedIds = new HashMap<>();
+
+    /**
+     * Original IDs of the redundant places, which are represented by no node of the reduced PetriNet.
+     */
+    private final List<URI> removedIds;
+
+    /**
+     * Original transitions firing inevitably after every transition (of the original or reduced PetriNet).
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<URI, Set<URI>> impliedFirings;
+
+    /**
+     * Original transitions firing inevitably from the initial marking.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Set<URI> initialFirings;
+
+    /**
+     * @param petriNet the reduced PetriNet
+     * @param originalIds original IDs represented by every node of the reduced PetriNet
+     * @param removedIds original IDs of the places which were removed without replacement
+     * @param impliedFirings original transitions firing inevitably after every transition
+     * @param initialFirings original transitions firing inevitably from the initial marking
+     */
+    public ReducedNet(final PetriNet petriNet, final Map<URI, List<URI>> originalIds, final List<URI> removedIds,
+                      final Map<URI, Set<URI>> impliedFirings, final Set<URI> initialFirings) {
+        this.petriNet = petriNet;
+        this.originalIds = originalIds;
+        this.removedIds = removedIds;
+        this.impliedFirings = impliedFirings;
+        this.initialFirings = initialFirings;
+        originalIds.forEach((reduced, originals) -> originals.forEach(original -> reducedIds.put(original, reduced)));
+    }
+
+    /**
+     * @param reducedId ID of a node of the reduced PetriNet
+     * @return IDs of the original nodes fused into it (starting with its own), empty if it is no node of the
+     *         reduced PetriNet
+     */
+    public List<URI> getOriginalIds(final URI reducedId) {
+        return originalIds.getOrDefault(reducedId, List.of());
+    }
+
+    /**
+     * @param originalId ID of a node of the original PetriNet
+     * @return ID of the node of the reduced PetriNet it was fused into, or null if it was removed
+     */
+    public URI getReducedId(final URI originalId) {
+        return reducedIds.get(originalId);
+    }
+
+    /**
+     * @param isFired whether a transition of the reduced PetriNet (by its ID) is fired in its StepGraph
+     * @return IDs of the transitions fired in the StepGraph of the original PetriNet
+     */
+    public Set<URI> getFiredIds(final Predicate<URI> isFired) {
+        final Set<URI> fired = new HashSet<>(initialFirings);
+        originalIds.keySet().stream().filter(isFired).forEach(fired::add);
+        final Deque<URI> pending = new ArrayDeque<>(fired);
+
+        while (!pending.isEmpty()) {
+            for (final var implied : impliedFirings.getOrDefault(pending.pop(), Set.of())) {
+                if (fired.add(implied)) {
+                    pending.push(implied);
+                }
+            }
+        }
+
+        return fired;
+    }
+}
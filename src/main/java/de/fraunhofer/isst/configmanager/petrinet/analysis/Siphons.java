@@ -0,0 +1,203 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.analysis;
+
+import de.fraunhofer.isst.configmanager.petrinet.simulator.CompiledPetriNet;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Siphons and traps of a PetriNet, as sets of place indices of the {@link CompiledPetriNet}.
+ *
+ * A siphon D is a set of places where every transition putting markers on D also takes markers from D: once empty,
+ * it stays empty. A trap Q is a set of places where every transition taking markers from Q also puts markers on Q:
+ * once marked, it stays marked.
+ */
+@UtilityClass
+public class Siphons {
+    /**
+     * Default maximum number of search steps for the enumeration of the minimal siphons.
+     */
+    public static final int MAX_STEPS = 100_000;
+
+    /**
+     * Enumerate the minimal (nonempty) siphons. Starting from every place p, places are added as long as a
+     * transition puts markers on the set without taking any from it, by branching over the input places of that
+     * transition (only places with a higher index than p, so every siphon is found from its first place).
+     *
+     * @param net the compiled PetriNet
+     * @param maxSteps maximum number of search steps
+     * @return the minimal siphons
+     * @throws IllegalStateException if the search needs more steps
+     */
+    public static List<BitSet> minimalSiphons(final CompiledPetriNet net, final int maxSteps) {
+        final var producers = producers(net);
+        final List<BitSet> found = new ArrayList<>();
+        final var steps = new int[1];
+
+        for (var place = 0; place < net.getPlaceCount(); place++) {
+            final var siphon = new BitSet(net.getPlaceCount());
+            siphon.set(place);
+            search(net, producers, siphon, place, found, steps, maxSteps);
+        }
+
+        //the search only finds siphons not containing an earlier one, later ones may still contain each other
+        final List<BitSet> minimal = new ArrayList<>();
+
+        for (final var siphon : found) {
+            if (found.stream().noneMatch(other -> other != siphon && isSubset(other, siphon)
+                    && (!other.equals(siphon) || found.indexOf(other) < found.indexOf(siphon)))) {
+                minimal.add(siphon);
+            }
+        }
+
+        return minimal;
+    }
+
+    /**
+     * @param net the compiled PetriNet
+     * @param places a set of places
+     * @return the largest trap contained in the set of places (may be empty)
+     */
+    public static BitSet maximalTrap(final CompiledPetriNet net, final BitSet places) {
+        final var trap = (BitSet) places.clone();
+        var changed = true;
+
+        while (changed) {
+            changed = false;
+
+            for (var place = trap.nextSetBit(0); place >= 0; place = trap.nextSetBit(place + 1)) {
+                for (final var consumer : net.getConsumers(place)) {
+                    if (Arrays.stream(net.getPostSet(consumer)).noneMatch(trap::get)) {
+                        //the consumer can empty the place without marking the trap
+                        trap.clear(place);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        return trap;
+    }
+
+    /**
+     * @param net the compiled PetriNet
+     * @param places a set of places
+     * @return true if a place of the set has markers in the initial marking
+     */
+    public static boolean isMarked(final CompiledPetriNet net, final BitSet places) {
+        final var marking = net.getInitialMarking();
+        return places.stream().anyMatch(place -> marking[place] > 0);
+    }
+
+    /**
+     * Check if the PetriNet is (extended) free choice: transitions sharing an input place have the same input places,
+     * so a choice between them never depends on other places.
+     *
+     * @param net the compiled PetriNet
+     * @return true if the input places of every transition have the same output transitions
+     */
+    public static boolean isFreeChoice(final CompiledPetriNet net) {
+        for (var transition = 0; transition < net.getTransitionCount(); transition++) {
+            final var preSet = net.getPreSet(transition);
+
+            for (var i = 1; i < preSet.length; i++) {
+                if (!Arrays.equals(net.getConsumers(preSet[0]), net.getConsumers(preSet[i]))) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static void search(final CompiledPetriNet net,
+                               final int[][] producers,
+                               final BitSet siphon,
+                               final int first,
+                               final List<BitSet> found,
+                               final int[] steps,
+                               final int maxSteps) {
+        if (++steps[0] > maxSteps) {
+            throw new IllegalStateException(String.format("More than %d steps to find the minimal siphons!", maxSteps));
+        }
+
+        if (found.stream().anyMatch(other -> isSubset(other, siphon))) {
+            //not minimal, the contained siphon was already found
+            return;
+        }
+
+        final var producer = unbalancedProducer(net, producers, siphon);
+
+        if (producer < 0) {
+            found.add((BitSet) siphon.clone());
+            return;
+        }
+
+        for (final var input : net.getPreSet(producer)) {
+            if (input > first && !siphon.get(input)) {
+                siphon.set(input);
+                search(net, producers, siphon, first, found, steps, maxSteps);
+                siphon.clear(input);
+            }
+        }
+    }
+
+    /**
+     * @return a transition putting markers on the set of places without taking any from it, or -1 if there is none
+     */
+    private static int unbalancedProducer(final CompiledPetriNet net, final int[][] producers, final BitSet places) {
+        for (var place = places.nextSetBit(0); place >= 0; place = places.nextSetBit(place + 1)) {
+            for (final var producer : producers[place]) {
+                if (Arrays.stream(net.getPreSet(producer)).noneMatch(places::get)) {
+                    return producer;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return transitions putting markers on every place
+     */
+    private static int[][] producers(final CompiledPetriNet net) {
+        final List<List<Integer>> producers = new ArrayList<>();
+
+        for (var place = 0; place < net.getPlaceCount(); place++) {
+            producers.add(new ArrayList<>());
+        }
+
+        for (var transition = 0; transition < net.getTransitionCount(); transition++) {
+            for (final var place : net.getPostSet(transition)) {
+                producers.get(place).add(transition);
+            }
+        }
+
+        return producers.stream()
+                .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+    }
+
+    private static boolean isSubset(final BitSet subset, final BitSet set) {
+        final var difference = (BitSet) subset.clone();
+        difference.andNot(set);
+        return difference.isEmpty();
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.analysis;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.CompiledPetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.ExplorationLimits;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.ExplorationResult;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.ExplorationStatus;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.PackedStateStore;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.PetriNetSimulator;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.SearchOrder;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.StateSpaceExplorer;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.StepGraph;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.StubbornSetReduction;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Structural checks of PetriNets, based on the incidence matrix and its invariants instead of the state space.
+ *
+ * Conservativeness is decided structurally. Boundedness and the possibility to fire a transition are answered
+ * structurally when the invariants suffice, otherwise the coverability graph of the PetriNet is built. Deadlock
+ * freedom is answered by the siphons and traps when possible, otherwise the state space is searched for deadlocks.
+ */
+@Slf4j
+@UtilityClass
+public class StructuralAnalysis {
+    /**
+     * @param petriNet a PetriNet
+     * @return true if a weighted sum of the markers (with positive weight for every place) never changes
+     * @throws IllegalStateException if the PetriNet has too many P-invariants to compute
+     */
+    public static boolean isConservative(final PetriNet petriNet) {
+        return isConservative(IncidenceMatrix.of(petriNet));
+    }
+
+    /**
+     * The PetriNet is conservative, if its places are covered by positive P-invariants (the sum of those invariants
+     * is a positive invariant).
+     *
+     * @param matrix incidence matrix of a PetriNet
+     * @return true if a weighted sum of the markers (with positive weight for every place) never changes
+     * @throws IllegalStateException if the PetriNet has too many P-invariants to compute
+     */
+    public static boolean isConservative(final IncidenceMatrix matrix) {
+        //every transition takes as many markers as it puts: weight 1 for every place is an invariant
+        final var strict = IntStream.range(0, matrix.getTransitionCount())
+                .allMatch(transition -> Arrays.stream(matrix.getColumnValues(transition)).sum() == 0);
+
+        return strict || Invariants.uncovered(Invariants.placeInvariants(matrix), matrix.getPlaceCount()).isEmpty();
+    }
+
+    /**
+     * @param matrix incidence matrix of a PetriNet
+     * @return true if the transitions are covered by positive T-invariants (necessary for a live and bounded PetriNet)
+     * @throws IllegalStateException if the PetriNet has too many T-invariants to compute
+     */
+    public static boolean isConsistent(final IncidenceMatrix matrix) {
+        return Invariants.uncovered(Invariants.transitionInvariants(matrix), matrix.getTransitionCount()).isEmpty();
+    }
+
+    /**
+     * Check if the PetriNet has finitely many reachable markings: conservative PetriNets are bounded for every
+     * initial marking, for all others the coverability graph is built.
+     *
+     * @param petriNet a PetriNet
+     * @return true if the number of markers on every place is bounded
+     */
+    public static boolean isBounded(final PetriNet petriNet) {
+        try {
+            if (isConservative(petriNet)) {
+                return true;
+            }
+        } catch (IllegalStateException | ArithmeticException e) {
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Invariants not computable (%s), building coverability graph", e.getMessage()));
+            }
+        }
+
+        return PetriNetSimulator.buildCoverabilityGraph(petriNet).isBounded();
+    }
+
+    /**
+     * Check if a transition is used in any reachable marking. A P-invariant y gives the same weighted sum of markers
+     * y * M for every reachable marking M. A transition is enabled with one marker in each of its input places
+     * (regardless of the arc weights, see {@link CompiledPetriNet#isEnabled(int[], int)}), so it can never fire if this
+     * sum is smaller than the sum of y over its input places. This only holds in ordinary PetriNets, with weighted arcs
+     * firing may take more markers than needed to enable a transition, so the coverability graph is built for them
+     * and if the invariants do not rule the transition out.
+     *
+     * @param petriNet a PetriNet
+     * @param transitionId ID of a transition of the PetriNet
+     * @return true if the transition is enabled in a reachable marking
+     * @throws IllegalArgumentException if the PetriNet has no transition with the given ID
+     */
+    public static boolean canFire(final PetriNet petriNet, final URI transitionId) {
+        final var matrix = IncidenceMatrix.of(petriNet);
+        final var net = matrix.getNet();
+        final var transition = net.getTransitionIndex(transitionId);
+
+        if (transition < 0) {
+            throw new IllegalArgumentException(String.format("Transition %s is not part of the PetriNet!", transitionId));
+        }
+
+        if (!net.isOrdinary()) {
+            return PetriNetSimulator.buildCoverabilityGraph(petriNet).getStepGraph().isFired(transitionId);
+        }
+
+        try {
+            final List<int[]> invariants = Invariants.placeInvariants(matrix);
+            final var marking = net.getInitialMarking();
+            final var preSet = net.getPreSet(transition);
+
+            for (final var invariant : invariants) {
+                long markers = 0;
+                long needed = 0;
+
+                for (var place = 0; place < marking.length; place++) {
+                    markers += (long) invariant[place] * marking[place];
+                }
+
+                for (final var place : preSet) {
+                    needed += invariant[place];
+                }
+
+                if (markers < needed) {
+                    return false;
+                }
+            }
+        } catch (IllegalStateException | ArithmeticException e) {
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Invariants not computable (%s), building coverability graph", e.getMessage()));
+            }
+        }
+
+        return PetriNetSimulator.buildCoverabilityGraph(petriNet).getStepGraph().isFired(transitionId);
+    }
+
+    /**
+     * Check if every reachable marking enables a transition.
+     *
+     * In an ordinary PetriNet, the places without markers in a deadlock form an empty siphon, but a siphon containing
+     * an initially marked trap never runs empty. So if every minimal siphon contains a marked trap, the PetriNet is
+     * deadlock free, and for free choice PetriNets even live (Commoner's theorem). Otherwise, or if the PetriNet is
+     * not ordinary, the state space is searched for deadlocks, preserving only the deadlocks by stubborn sets. The
+     * search runs on the PetriNet reduced by {@link NetReduction}, which has the same deadlocks, only if it finds one
+     * the original PetriNet is searched again for a deadlock marking of its own nodes.
+     *
+     * @param petriNet a PetriNet
+     * @param limits budgets for the search of the state space, if the siphons and traps do not suffice
+     * @return the result of the check, with the siphons which could run empty
+     */
+    public static DeadlockResult checkDeadlockFreedom(final PetriNet petriNet, final ExplorationLimits limits) {
+        final var net = new CompiledPetriNet(petriNet);
+
+        //without transitions there are no siphons, but the initial marking is already a deadlock
+        if (net.getTransitionCount() == 0) {
+            return new DeadlockResult(false, false, List.of(), false, ExplorationStatus.COMPLETE,
+                    net.toPetriNet(net.getInitialMarking()));
+        }
+
+        final var freeChoice = net.isOrdinary() && Siphons.isFreeChoice(net);
+        List<List<Place>> offending = List.of();
+
+        if (net.isOrdinary()) {
+            try {
+                offending = Siphons.minimalSiphons(net, Siphons.MAX_STEPS).stream()
+                        .filter(siphon -> !Siphons.isMarked(net, Siphons.maximalTrap(net, siphon)))
+                        .map(siphon -> siphon.stream().mapToObj(net::getPlace).collect(Collectors.toList()))
+                        .collect(Collectors.toList());
+
+                if (offending.isEmpty()) {
+                    return new DeadlockResult(true, true, offending, freeChoice, ExplorationStatus.COMPLETE, null);
+                }
+            } catch (IllegalStateException e) {
+                if (log.isInfoEnabled()) {
+                    log.info(String.format("Siphons not computable (%s), exploring state space", e.getMessage()));
+                }
+            }
+        }
+
+        final var reduced = new CompiledPetriNet(NetReduction.reduce(petriNet).getPetriNet());
+        final var reducedResult = searchDeadlocks(reduced, limits);
+
+        if (findDeadlock(reduced, reducedResult.getStepGraph()) < 0) {
+            return new DeadlockResult(true, false, offending, freeChoice, reducedResult.getStatus(), null);
+        }
+
+        final var result = searchDeadlocks(net, limits);
+        final var stepGraph = result.getStepGraph();
+        final var deadlock = findDeadlock(net, stepGraph);
+
+        return new DeadlockResult(false, false, offending, freeChoice, result.getStatus(),
+                deadlock < 0 ? null : stepGraph.getStepAsPetriNet(deadlock));
+    }
+
+    /**
+     * @param net a compiled PetriNet
+     * @param limits budgets for the search
+     * @return the state space explored depth first, preserving only the deadlocks by stubborn sets
+     */
+    private static ExplorationResult searchDeadlocks(final CompiledPetriNet net, final ExplorationLimits limits) {
+        return StateSpaceExplorer.explore(net, new PackedStateStore(net), SearchOrder.DEPTH_FIRST, limits,
+                StubbornSetReduction.forDeadlocks(net));
+    }
+
+    /**
+     * @param net a compiled PetriNet
+     * @param stepGraph a StepGraph of the PetriNet
+     * @return index of the first step without enabled transitions, or -1 if there is none
+     */
+    private static int findDeadlock(final CompiledPetriNet net, final StepGraph stepGraph) {
+        for (var step = 0; step < stepGraph.getSteps().size(); step++) {
+            if (net.getEnabledTransitions(stepGraph.getSteps().get(step)).length == 0) {
+                return step;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -20,7 +20,6 @@ import de.fraunhofer.isst.configmanager.petrinet.simulator.StepGraph;
 import lombok.experimental.UtilityClass;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 /**
  * Generator for GraphViz representations as DOT Strings.
@@ -71,20 +70,18 @@ public class GraphVizGenerator {
      * @return a DOT String, used for visualizing the StepGraph with GraphViz.
      */
     public static String generateGraphViz(final StepGraph stepGraph) {
-        final var someId = String.valueOf(stepGraph.getSteps().stream().findAny().get().getNodes().stream().findAny().get().getID().hashCode());
+        final var someId = String.valueOf(stepGraph.getInitial().getNodes().stream().findAny().get().getID().hashCode());
         final var graphArcs = new ArrayList<GraphvizArc>();
         final var s = new StringBuilder();
-        final var idMap = new HashMap<PetriNet, Integer>();
-
-        var i = 0;
 
         s.append("digraph graphname {");
         //the StepGraph will be a compound graph from all PetriNet subgraphs it contains
         s.append("compound=true;");
 
 
-        for (var petriNet : stepGraph.getSteps()) {
-            //generate the graph for every PetriNet in the StepGraph
+        for (var i = 0; i < stepGraph.getSteps().size(); i++) {
+            //generate the graph for every step in the StepGraph
+            final var petriNet = stepGraph.getStepAsPetriNet(i);
             var petriString = generateGraphViz(petriNet);
             //the PetriNet Graphs will be subgraphs and have different names
             petriString = petriString.replace("digraph", "subgraph");
@@ -96,13 +93,11 @@ public class GraphVizGenerator {
             }
 
             s.append(petriString);
-            idMap.put(petriNet, i);
-            i++;
         }
 
         for (final var arc : stepGraph.getArcs()) {
-            //build a GraphvizArc for each NetArc in the StepGraph
-            graphArcs.add(new GraphvizArc(idMap.get(arc.getSource()), idMap.get(arc.getTarget())));
+            //build a GraphvizArc for each NetArc in the StepGraph (steps are identified by their index)
+            graphArcs.add(new GraphvizArc(arc.getSource(), arc.getTarget()));
         }
 
         for (final var arc : graphArcs) {
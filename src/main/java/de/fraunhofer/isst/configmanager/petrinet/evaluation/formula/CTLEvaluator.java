@@ -16,14 +16,17 @@ package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.StateFormula;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFormula;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
 import de.fraunhofer.isst.configmanager.petrinet.model.Place;
 import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.StepGraph;
 import lombok.experimental.UtilityClass;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
- * Evaluate a {@link Formula} on a given {@link Node} for a set of Paths
+ * Evaluate a {@link Formula} on a given {@link Node} for a set of Paths, or by model checking the StepGraph
  */
 @UtilityClass
 public class CTLEvaluator {
@@ -31,14 +34,15 @@ public class CTLEvaluator {
     /**
      * @param ctlExpression a {@link StateFormula} to evaluate
      * @param place a {@link Place} of a {@link de.fraunhofer.isst.configmanager.petrinet.model.PetriNet}
-     * @param paths possible pathes through the PetriNet
+     * @param paths possible pathes through the PetriNet (wrap them with {@link EvaluationCache#of(List)} to share
+     *              the results of subformulas between multiple evaluations)
      * @return result of the evaluation of the ctlExpression
      */
     public static boolean evaluateNode(final StateFormula ctlExpression,
                                        final Place place,
                                        final List<List<Node>> paths) {
         //base evaluation on place
-        return ctlExpression.evaluate(place, paths);
+        return ctlExpression.evaluate(place, EvaluationCache.of(paths));
     }
 
     /**
@@ -51,7 +55,7 @@ public class CTLEvaluator {
                                              final Transition transition,
                                              final List<List<Node>> paths) {
         //base evaluation on transition
-        return ctlExpression.evaluate(transition, paths);
+        return ctlExpression.evaluate(transition, EvaluationCache.of(paths));
     }
 
     /**
@@ -74,4 +78,77 @@ public class CTLEvaluator {
             }
     }
 
+    /**
+     * Evaluate by labelling instead of enumerating paths, use a {@link CTLModelChecker} directly to evaluate
+     * multiple formulas or nodes on the same StepGraph.
+     *
+     * @param ctlExpression a {@link Formula} to evaluate
+     * @param node a {@link Node} of a {@link de.fraunhofer.isst.configmanager.petrinet.model.PetriNet}
+     * @param stepGraph StepGraph of the PetriNet
+     * @return result of the evaluation of the ctlExpression (or false, if formula and node types don't match)
+     */
+    public static boolean evaluate(final Formula ctlExpression,
+                                   final Node node,
+                                   final StepGraph stepGraph) {
+        return new CTLModelChecker(stepGraph).check(ctlExpression, node);
+    }
+
+    /**
+     * Evaluate on the fly, exploring only as much of the state space as needed, use a {@link LocalModelChecker}
+     * directly to evaluate multiple formulas or nodes on the same PetriNet.
+     *
+     * @param ctlExpression a {@link Formula} to evaluate
+     * @param node a {@link Node} of the PetriNet
+     * @param petriNet the PetriNet, its current markers are used as initial marking
+     * @return result of the evaluation of the ctlExpression (or false, if formula and node types don't match)
+     */
+    public static boolean evaluate(final Formula ctlExpression,
+                                   final Node node,
+                                   final PetriNet petriNet) {
+        return new LocalModelChecker(petriNet).check(ctlExpression, node);
+    }
+
+    /**
+     * Evaluate multiple formulas on multiple nodes of a PetriNet, exploring the state space only once and only for the
+     * PetriNet reduced by {@link de.fraunhofer.isst.configmanager.petrinet.analysis.NetReduction}, see
+     * {@link CTLModelChecker#forReducedNet}.
+     *
+     * @param petriNet the PetriNet, its current markers are used as initial marking
+     * @param ctlExpressions the {@link Formula}s to evaluate
+     * @param nodes {@link Node}s of the PetriNet
+     * @return result matrix, the entry [i][j] is the result of the i-th formula on the j-th node
+     */
+    public static boolean[][] evaluateAll(final PetriNet petriNet,
+                                          final List<? extends Formula> ctlExpressions,
+                                          final List<? extends Node> nodes) {
+        return evaluateAll(CTLModelChecker.forReducedNet(petriNet), ctlExpressions, nodes);
+    }
+
+    /**
+     * Evaluate multiple formulas on multiple nodes in parallel, sharing the labels of common subformulas.
+     *
+     * @param stepGraph StepGraph of the PetriNet
+     * @param ctlExpressions the {@link Formula}s to evaluate
+     * @param nodes {@link Node}s of the PetriNet
+     * @return result matrix, the entry [i][j] is the result of the i-th formula on the j-th node
+     */
+    public static boolean[][] evaluateAll(final StepGraph stepGraph,
+                                          final List<? extends Formula> ctlExpressions,
+                                          final List<? extends Node> nodes) {
+        return evaluateAll(new CTLModelChecker(stepGraph), ctlExpressions, nodes);
+    }
+
+    private static boolean[][] evaluateAll(final CTLModelChecker checker,
+                                           final List<? extends Formula> ctlExpressions,
+                                           final List<? extends Node> nodes) {
+        final var results = new boolean[ctlExpressions.size()][nodes.size()];
+
+        IntStream.range(0, ctlExpressions.size()).parallel().forEach(i -> {
+            for (var j = 0; j < nodes.size(); j++) {
+                results[i][j] = checker.check(ctlExpressions.get(i), nodes.get(j));
+            }
+        });
+
+        return results;
+    }
 }
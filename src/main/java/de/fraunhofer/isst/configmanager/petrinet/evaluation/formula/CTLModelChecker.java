@@ -0,0 +1,677 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula;
+
+import de.fraunhofer.isst.configmanager.petrinet.analysis.NetReduction;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.StateFormula;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFormula;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.CompiledPetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.PetriNetSimulator;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.StepGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Labelling model checker for {@link Formula}s, an alternative to the evaluation over enumerated paths.
+ *
+ * Every subformula is labelled once with the set of nodes (places and transitions of the PetriNet) fulfilling it,
+ * bottom up. The paths the formulas talk about are walks through the PetriNet, where a place is followed by its
+ * output transitions used in the {@link StepGraph} and a transition by all its output places. The until operators
+ * are fixpoints over this graph, computed by backward searches, so the costs are linear in the size of the formula
+ * times the size of the PetriNet, instead of exponential in the size of the PetriNet.
+ *
+ * Nodes are numbered like in the {@link CompiledPetriNet}: places first, followed by the transitions. The checker can
+ * be used by multiple threads, which share the labels of common subformulas.
+ */
+public class CTLModelChecker {
+
+    private final CompiledPetriNet net;
+
+    private final int placeCount;
+
+    private final int nodeCount;
+
+    /**
+     * Successors of every node on a path.
+     */
+    private final int[][] successors;
+
+    /**
+     * Predecessors of every node on a path.
+     */
+    private final int[][] predecessors;
+
+    /**
+     * Successors of every node in the PetriNet (following arcs, independent of the StepGraph).
+     */
+    private final int[][] structuralSuccessors;
+
+    private final BitSet places;
+
+    private final BitSet transitions;
+
+    /**
+     * Nodes after which some path ends within one step (the node itself or one of its successors has no successors).
+     */
+    private final BitSet pathEnds;
+
+    /**
+     * Nodes with a successor which has no successors.
+     */
+    private final BitSet endsAfterStep;
+
+    /**
+     * Labels of all already checked subformulas (structurally equal subformulas share their label).
+     */
+    private final Map<Formula, BitSet> labels = new ConcurrentHashMap<>();
+
+    /**
+     * @param stepGraph StepGraph of the PetriNet, transitions never used in it are not part of any path
+     */
+    public CTLModelChecker(final StepGraph stepGraph) {
+        this(stepGraph.getNet(), stepGraph::isFired);
+    }
+
+    /**
+     * @param net the compiled PetriNet
+     * @param isFired whether a transition (by its index) is used in the StepGraph of the PetriNet, transitions never
+     *                used are not part of any path
+     */
+    public CTLModelChecker(final CompiledPetriNet net, final IntPredicate isFired) {
+        this.net = net;
+        this.placeCount = net.getPlaceCount();
+        this.nodeCount = placeCount + net.getTransitionCount();
+        this.successors = new int[nodeCount][];
+        this.structuralSuccessors = new int[nodeCount][];
+        this.places = new BitSet(nodeCount);
+        this.transitions = new BitSet(nodeCount);
+        this.pathEnds = new BitSet(nodeCount);
+        this.endsAfterStep = new BitSet(nodeCount);
+
+        places.set(0, placeCount);
+        transitions.set(placeCount, nodeCount);
+
+        final var predecessorLists = new ArrayList<List<Integer>>();
+
+        for (var node = 0; node < nodeCount; node++) {
+            predecessorLists.add(new ArrayList<>());
+        }
+
+        for (var place = 0; place < placeCount; place++) {
+            final var consumers = net.getConsumers(place);
+            structuralSuccessors[place] = new int[consumers.length];
+            final var fired = new ArrayList<Integer>();
+
+            for (var i = 0; i < consumers.length; i++) {
+                structuralSuccessors[place][i] = placeCount + consumers[i];
+
+                if (isFired.test(consumers[i])) {
+                    fired.add(placeCount + consumers[i]);
+                }
+            }
+
+            successors[place] = fired.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        for (var transition = 0; transition < net.getTransitionCount(); transition++) {
+            final var node = placeCount + transition;
+            structuralSuccessors[node] = net.getPostSet(transition).clone();
+            successors[node] = structuralSuccessors[node];
+        }
+
+        for (var node = 0; node < nodeCount; node++) {
+            for (final var successor : successors[node]) {
+                predecessorLists.get(successor).add(node);
+            }
+        }
+
+        this.predecessors = predecessorLists.stream()
+                .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+
+        for (var node = 0; node < nodeCount; node++) {
+            for (final var successor : successors[node]) {
+                if (successors[successor].length == 0) {
+                    endsAfterStep.set(node);
+                }
+            }
+
+            if (successors[node].length == 0 || endsAfterStep.get(node)) {
+                pathEnds.set(node);
+            }
+        }
+    }
+
+    /**
+     * Build a checker exploring only the state space of the PetriNet reduced by {@link NetReduction}, the transitions
+     * fired in the original PetriNet are recovered from the reduced one.
+     *
+     * @param petriNet the PetriNet, its current markers are used as initial marking
+     * @return checker for the nodes of the original PetriNet
+     */
+    public static CTLModelChecker forReducedNet(final PetriNet petriNet) {
+        final var reduced = NetReduction.reduce(petriNet);
+        final var fired = reduced.getFiredIds(PetriNetSimulator.buildStepGraph(reduced.getPetriNet())::isFired);
+        final var net = new CompiledPetriNet(petriNet);
+        return new CTLModelChecker(net, transition -> fired.contains(net.getTransition(transition).getID()));
+    }
+
+    /**
+     * @param formula a {@link Formula} to check
+     * @param node a {@link Node} of the PetriNet
+     * @return result of the evaluation of the formula (or false, if formula and node types don't match)
+     */
+    public boolean check(final Formula formula, final Node node) {
+        final var index = indexOf(node);
+
+        if (index < 0
+                || !(formula instanceof StateFormula && node instanceof Place
+                || formula instanceof TransitionFormula && node instanceof Transition)) {
+            return false;
+        }
+
+        return label(formula).get(index);
+    }
+
+    /**
+     * @param formula a {@link Formula}
+     * @return indices of all nodes fulfilling the formula (must not be modified)
+     */
+    public BitSet label(final Formula formula) {
+        final var label = labels.get(formula);
+
+        if (label != null) {
+            return label;
+        }
+
+        //labelled outside of the map, subformulas are labelled recursively (concurrent callers may label twice)
+        final var computed = formula.label(this);
+        final var existing = labels.putIfAbsent(formula, computed);
+        return existing == null ? computed : existing;
+    }
+
+    /**
+     * @param node a {@link Node} of the PetriNet
+     * @return index of the node, -1 if it is not part of the PetriNet
+     */
+    public int indexOf(final Node node) {
+        if (node instanceof Place) {
+            return net.getPlaceIndex(node.getID());
+        }
+
+        if (node instanceof Transition) {
+            final var transition = net.getTransitionIndex(node.getID());
+            return transition < 0 ? -1 : placeCount + transition;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return indices of all places
+     */
+    public BitSet places() {
+        return (BitSet) places.clone();
+    }
+
+    /**
+     * @return indices of all transitions
+     */
+    public BitSet transitions() {
+        return (BitSet) transitions.clone();
+    }
+
+    /**
+     * @return indices of all nodes
+     */
+    public BitSet nodes() {
+        final var nodes = new BitSet(nodeCount);
+        nodes.set(0, nodeCount);
+        return nodes;
+    }
+
+    /**
+     * @param condition a condition for places
+     * @return indices of all places fulfilling the condition
+     */
+    public BitSet placesMatching(final Predicate<Place> condition) {
+        final var result = new BitSet(nodeCount);
+
+        for (var place = 0; place < placeCount; place++) {
+            result.set(place, condition.test(net.getPlace(place)));
+        }
+
+        return result;
+    }
+
+    /**
+     * @param condition a condition for transitions
+     * @return indices of all transitions fulfilling the condition
+     */
+    public BitSet transitionsMatching(final Predicate<Transition> condition) {
+        final var result = new BitSet(nodeCount);
+
+        for (var transition = 0; transition < net.getTransitionCount(); transition++) {
+            result.set(placeCount + transition, condition.test(net.getTransition(transition)));
+        }
+
+        return result;
+    }
+
+    /**
+     * @param label a label
+     * @return all nodes which are not part of the label
+     */
+    public BitSet not(final BitSet label) {
+        final var result = (BitSet) label.clone();
+        result.flip(0, nodeCount);
+        return result;
+    }
+
+    /**
+     * @param label1 a label
+     * @param label2 another label
+     * @return all nodes which are part of both labels
+     */
+    public BitSet and(final BitSet label1, final BitSet label2) {
+        final var result = (BitSet) label1.clone();
+        result.and(label2);
+        return result;
+    }
+
+    /**
+     * @param label1 a label
+     * @param label2 another label
+     * @return all nodes which are part of one of the labels
+     */
+    public BitSet or(final BitSet label1, final BitSet label2) {
+        final var result = (BitSet) label1.clone();
+        result.or(label2);
+        return result;
+    }
+
+    /**
+     * @param type the nodes to label (places or transitions)
+     * @param targets a label
+     * @return all nodes of the given type, with an arc to a node of the target label
+     */
+    public BitSet modal(final BitSet type, final BitSet targets) {
+        final var result = new BitSet(nodeCount);
+
+        for (var node = type.nextSetBit(0); node >= 0; node = type.nextSetBit(node + 1)) {
+            for (final var successor : structuralSuccessors[node]) {
+                if (targets.get(successor)) {
+                    result.set(node);
+                    break;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param type the nodes to label (places or transitions)
+     * @param following label every following node of the same type must be part of
+     * @param between label every node between the node and its following nodes must be part of
+     * @return all nodes of the given type, whose successors are part of between and whose successors' successors
+     *         are part of following
+     */
+    public BitSet forallModal(final BitSet type, final BitSet following, final BitSet between) {
+        final var result = new BitSet(nodeCount);
+
+        check: for (var node = type.nextSetBit(0); node >= 0; node = type.nextSetBit(node + 1)) {
+            for (final var successor : successors[node]) {
+                if (!between.get(successor)) {
+                    continue check;
+                }
+
+                for (final var next : successors[successor]) {
+                    if (!following.get(next)) {
+                        continue check;
+                    }
+                }
+            }
+
+            result.set(node);
+        }
+
+        return result;
+    }
+
+    /**
+     * Existential until: some path reaches a node of the same type fulfilling label2, and label1 holds for all nodes
+     * of the same type before. The node itself is not checked, unless the path ends after the next node.
+     *
+     * @param type the nodes to label (places or transitions)
+     * @param label1 label of the nodes on the path
+     * @param label2 label of the reached node
+     * @return all nodes of the given type fulfilling the until condition
+     */
+    public BitSet existUntil(final BitSet type, final BitSet label1, final BitSet label2) {
+        //least fixpoint: nodes from which some path continues with label1 nodes until a label2 node
+        final var reach = and(type, label2);
+        final var candidates = and(type, label1);
+        backwardClosure(reach, candidates);
+
+        final var result = and(predecessorsOf(reach), type);
+        result.or(and(and(endsAfterStep, label2), type));
+        return result;
+    }
+
+    /**
+     * Universal until: every path reaches a node of the same type fulfilling label2, and label1 holds for all nodes
+     * of the same type before. Paths staying on label1 nodes forever are accepted. The node itself is not checked,
+     * unless a path ends after the next node, and neither when a path returns to it without closing a circle over
+     * other nodes first (like in the path evaluation).
+     *
+     * @param type the nodes to label (places or transitions)
+     * @param label1 label of the nodes on the paths
+     * @param label2 label of the reached nodes
+     * @return all nodes of the given type fulfilling the until condition
+     */
+    public BitSet forallUntil(final BitSet type, final BitSet label1, final BitSet label2) {
+        //the complement is a least fixpoint: nodes from which some path violates label1 or ends before label2
+        final var violating = and(not(label1), type);
+        violating.or(and(pathEnds, type));
+        violating.andNot(label2);
+
+        final var candidates = and(type, not(label2));
+        final var violations = (BitSet) violating.clone();
+        backwardClosure(violations, candidates);
+
+        final var result = and(type, not(predecessorsOf(violations)));
+
+        //the fixpoint counts every return to a violating node, the path evaluation only some of them
+        result.or(withoutViolatingReturn(type, violating, candidates));
+        result.andNot(and(endsAfterStep, not(label2)));
+        return result;
+    }
+
+    /**
+     * Violating nodes for {@link #forallUntil}, whose violation is not counted when a path returns to them. Like in
+     * the path evaluation, the start node is not checked again when a path simply returns to it. It is only checked
+     * when the path closes a circle over other nodes of the same type before returning (the path evaluation continues
+     * circular paths from the node closing the circle, and from there the start is an ordinary node of the path).
+     *
+     * All violating nodes are handled in one pass over the strongly connected components of the paths over nodes not
+     * fulfilling label2: a violating node reaches another violation if its component contains one, or leads to a
+     * component reaching one. Otherwise, it only returns to itself after a circle if its component still contains a
+     * circle without it.
+     *
+     * @param type the nodes to label (places or transitions)
+     * @param violating nodes of the type violating label1 or ending the paths, without label2
+     * @param candidates nodes of the type without label2
+     * @return violating nodes from which no path reaches a violation, if returns to the node itself are not counted
+     */
+    private BitSet withoutViolatingReturn(final BitSet type, final BitSet violating, final BitSet candidates) {
+        final var allowed = not(type);
+        allowed.or(candidates);
+        final var component = components(allowed);
+        final var componentCount = Arrays.stream(component).max().orElse(-1) + 1;
+
+        //members of every component, in a single array
+        final var offsets = new int[componentCount + 1];
+
+        for (final var id : component) {
+            if (id >= 0) {
+                offsets[id + 1]++;
+            }
+        }
+
+        for (var id = 0; id < componentCount; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+
+        final var members = new int[offsets[componentCount]];
+        final var fill = Arrays.copyOf(offsets, componentCount);
+
+        for (var node = 0; node < nodeCount; node++) {
+            if (component[node] >= 0) {
+                members[fill[component[node]]++] = node;
+            }
+        }
+
+        //components are numbered in the order they are completed, so successor components have lower numbers
+        final var violationCount = new int[componentCount];
+        final var reaching = new BitSet(componentCount);
+        final var leading = new BitSet(componentCount);
+
+        for (var node = violating.nextSetBit(0); node >= 0; node = violating.nextSetBit(node + 1)) {
+            violationCount[component[node]]++;
+        }
+
+        for (var id = 0; id < componentCount; id++) {
+            for (var i = offsets[id]; i < offsets[id + 1] && !leading.get(id); i++) {
+                for (final var successor : successors[members[i]]) {
+                    if (component[successor] >= 0 && component[successor] != id && reaching.get(component[successor])) {
+                        leading.set(id);
+                        break;
+                    }
+                }
+            }
+
+            reaching.set(id, violationCount[id] > 0 || leading.get(id));
+        }
+
+        final var result = new BitSet(nodeCount);
+        final var outgoing = new int[nodeCount];
+
+        for (var node = violating.nextSetBit(0); node >= 0; node = violating.nextSetBit(node + 1)) {
+            final var id = component[node];
+
+            if (violationCount[id] == 1 && !leading.get(id)
+                    && !hasCircle(members, offsets[id], offsets[id + 1], component, node, outgoing)) {
+                result.set(node);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Check a component for circles which do not contain one of its nodes, by removing nodes without successors among
+     * the remaining ones, until only circles (and nodes leading to them) remain.
+     *
+     * @param members nodes of all components
+     * @param from first index of the component in members
+     * @param to end index (exclusive) of the component in members
+     * @param component component of every node
+     * @param excluded the node to leave out
+     * @param outgoing buffer for the number of remaining successors of every node
+     * @return true if the component contains a circle without the excluded node
+     */
+    private boolean hasCircle(final int[] members, final int from, final int to, final int[] component,
+                              final int excluded, final int[] outgoing) {
+        final var id = component[excluded];
+        final var removable = new int[to - from];
+        var remaining = to - from - 1;
+        var size = 0;
+
+        for (var i = from; i < to; i++) {
+            final var node = members[i];
+            outgoing[node] = 0;
+
+            if (node == excluded) {
+                continue;
+            }
+
+            for (final var successor : successors[node]) {
+                if (successor != excluded && component[successor] == id) {
+                    outgoing[node]++;
+                }
+            }
+
+            if (outgoing[node] == 0) {
+                removable[size++] = node;
+            }
+        }
+
+        while (size > 0) {
+            final var node = removable[--size];
+            remaining--;
+
+            for (final var predecessor : predecessors[node]) {
+                if (predecessor != excluded && component[predecessor] == id && --outgoing[predecessor] == 0) {
+                    removable[size++] = predecessor;
+                }
+            }
+        }
+
+        return remaining > 0;
+    }
+
+    /**
+     * Find the strongly connected components of the paths over the allowed nodes (iterative version of Tarjan's
+     * algorithm).
+     *
+     * @param allowed the nodes the paths may use
+     * @return the component of every allowed node (numbered in the order they are completed), -1 for other nodes
+     */
+    private int[] components(final BitSet allowed) {
+        final var component = new int[nodeCount];
+        final var order = new int[nodeCount];
+        final var lowLink = new int[nodeCount];
+        final var cursor = new int[nodeCount];
+        final var stack = new int[nodeCount];
+        final var callStack = new int[nodeCount];
+        final var onStack = new BitSet(nodeCount);
+        Arrays.fill(component, -1);
+        Arrays.fill(order, -1);
+        var counter = 0;
+        var stackSize = 0;
+        var componentCount = 0;
+
+        for (var root = allowed.nextSetBit(0); root >= 0 && root < nodeCount; root = allowed.nextSetBit(root + 1)) {
+            if (order[root] >= 0) {
+                continue;
+            }
+
+            var depth = 0;
+            callStack[depth++] = root;
+            order[root] = counter;
+            lowLink[root] = counter++;
+            stack[stackSize++] = root;
+            onStack.set(root);
+
+            while (depth > 0) {
+                final var node = callStack[depth - 1];
+
+                if (cursor[node] < successors[node].length) {
+                    final var successor = successors[node][cursor[node]++];
+
+                    if (!allowed.get(successor)) {
+                        continue;
+                    }
+
+                    if (order[successor] < 0) {
+                        order[successor] = counter;
+                        lowLink[successor] = counter++;
+                        stack[stackSize++] = successor;
+                        onStack.set(successor);
+                        callStack[depth++] = successor;
+                    } else if (onStack.get(successor)) {
+                        lowLink[node] = Math.min(lowLink[node], order[successor]);
+                    }
+
+                    continue;
+                }
+
+                depth--;
+
+                if (depth > 0) {
+                    final var parent = callStack[depth - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+
+                if (lowLink[node] == order[node]) {
+                    do {
+                        onStack.clear(stack[--stackSize]);
+                        component[stack[stackSize]] = componentCount;
+                    } while (stack[stackSize] != node);
+
+                    componentCount++;
+                }
+            }
+        }
+
+        return component;
+    }
+
+    /**
+     * Extend a label by all candidates from which a node of the label is reached in two steps, until nothing changes.
+     *
+     * @param label the label to extend
+     * @param candidates nodes which may be added to the label
+     */
+    private void backwardClosure(final BitSet label, final BitSet candidates) {
+        final var visited = new BitSet(nodeCount);
+        var queue = label.stream().toArray();
+        var size = queue.length;
+
+        for (var head = 0; head < size; head++) {
+            for (final var between : predecessors[queue[head]]) {
+                if (visited.get(between)) {
+                    continue;
+                }
+                visited.set(between);
+
+                for (final var node : predecessors[between]) {
+                    if (candidates.get(node) && !label.get(node)) {
+                        label.set(node);
+
+                        if (size == queue.length) {
+                            queue = Arrays.copyOf(queue, Math.max(size * 2, 16));
+                        }
+                        queue[size++] = node;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param label a label
+     * @return all nodes from which a node of the label is reached in two steps
+     */
+    private BitSet predecessorsOf(final BitSet label) {
+        final var result = new BitSet(nodeCount);
+        final var visited = new BitSet(nodeCount);
+
+        for (var node = label.nextSetBit(0); node >= 0; node = label.nextSetBit(node + 1)) {
+            for (final var between : predecessors[node]) {
+                if (!visited.get(between)) {
+                    visited.set(between);
+
+                    for (final var predecessor : predecessors[between]) {
+                        result.set(predecessor);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+}
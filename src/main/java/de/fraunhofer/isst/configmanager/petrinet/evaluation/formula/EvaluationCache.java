@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.PathTrie;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Memo table for the evaluation of {@link Formula}s over a list of paths.
+ *
+ * The cache wraps the paths, so it is handed down to every subformula together with them. Formulas evaluate their
+ * subformulas with {@link #evaluate(Formula, Node, List)}, which stores the result per (subformula, node).
+ * Structurally equal subformulas are equal objects, so they share their results (e.g. the subformulas built by
+ * derived operators like ALONG on every call). A cache can be reused for multiple formulas and nodes, as long as the
+ * paths don't change.
+ */
+public final class EvaluationCache extends AbstractList<List<Node>> {
+
+    private final List<List<Node>> paths;
+
+    /**
+     * Dense index of every node results were stored for.
+     */
+    private final Map<Node, Integer> nodeIndex = new IdentityHashMap<>();
+
+    /**
+     * Nodes every formula was evaluated on.
+     */
+    private final Map<Formula, BitSet> evaluated = new HashMap<>();
+
+    /**
+     * Nodes every formula evaluated to true on.
+     */
+    private final Map<Formula, BitSet> fulfilled = new HashMap<>();
+
+    private EvaluationCache(final List<List<Node>> paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * @param paths possible paths through the PetriNet
+     * @return the paths with an empty cache (or the given paths, if they already have a cache)
+     */
+    public static List<List<Node>> of(final List<List<Node>> paths) {
+        return paths instanceof EvaluationCache ? paths : new EvaluationCache(paths);
+    }
+
+    /**
+     * Evaluate a formula, using the cache of the paths (if they have one).
+     *
+     * @param formula the {@link Formula} to evaluate
+     * @param node the {@link Node} to evaluate the formula on
+     * @param paths possible paths through the PetriNet
+     * @return result of the evaluation of the formula
+     */
+    public static boolean evaluate(final Formula formula, final Node node, final List<List<Node>> paths) {
+        if (!(paths instanceof EvaluationCache)) {
+            return formula.evaluate(node, paths);
+        }
+
+        return ((EvaluationCache) paths).lookup(formula, node);
+    }
+
+    /**
+     * Find the paths starting at a node, using the index of the paths (if they have one).
+     *
+     * @param node the first {@link Node} of the paths
+     * @param paths possible paths through the PetriNet
+     * @return all paths starting at the given node, in the order of the given paths
+     */
+    public static List<List<Node>> startingAt(final Node node, final List<List<Node>> paths) {
+        final var unwrapped = paths instanceof EvaluationCache ? ((EvaluationCache) paths).paths : paths;
+
+        if (unwrapped instanceof PathTrie) {
+            return ((PathTrie) unwrapped).startingAt(node);
+        }
+
+        return unwrapped.stream().filter(path -> path.get(0).equals(node)).collect(Collectors.toList());
+    }
+
+    private boolean lookup(final Formula formula, final Node node) {
+        final int index = nodeIndex.computeIfAbsent(node, key -> nodeIndex.size());
+        final var known = evaluated.computeIfAbsent(formula, key -> new BitSet());
+        final var results = fulfilled.computeIfAbsent(formula, key -> new BitSet());
+
+        if (known.get(index)) {
+            return results.get(index);
+        }
+
+        final var result = formula.evaluate(node, this);
+        known.set(index);
+        results.set(index, result);
+        return result;
+    }
+
+    @Override
+    public List<Node> get(final int index) {
+        return paths.get(index);
+    }
+
+    @Override
+    public int size() {
+        return paths.size();
+    }
+}
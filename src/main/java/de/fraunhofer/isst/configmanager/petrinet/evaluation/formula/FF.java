@@ -16,12 +16,15 @@ package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.StateFormula;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFormula;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * FF operator evaluates to False everytime
  */
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class FF implements StateFormula, TransitionFormula {
 
     public static FF FF() {
@@ -33,6 +36,16 @@ public class FF implements StateFormula, TransitionFormula {
         return false;
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return new BitSet();
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return false;
+    }
+
     @Override
     public String symbol() {
         return "FF";
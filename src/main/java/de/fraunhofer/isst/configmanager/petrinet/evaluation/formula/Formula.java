@@ -15,6 +15,7 @@ package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula;
 
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -25,6 +26,19 @@ public interface Formula {
 
     boolean evaluate(Node node, List<List<Node>> paths);
 
+    /**
+     * @param checker the {@link CTLModelChecker} labelling the nodes
+     * @return indices of all nodes fulfilling the formula
+     */
+    BitSet label(CTLModelChecker checker);
+
+    /**
+     * @param node the {@link Node} to check the formula on
+     * @param checker the {@link LocalModelChecker} exploring the PetriNet on demand
+     * @return result of the evaluation of the formula
+     */
+    boolean check(Node node, LocalModelChecker checker);
+
     String symbol();
 
     String writeFormula();
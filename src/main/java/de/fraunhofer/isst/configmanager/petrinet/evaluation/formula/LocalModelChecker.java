@@ -0,0 +1,445 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula;
+
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.StateFormula;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFormula;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.CompiledPetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.ExplorationLimits;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.LazyStateSpace;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.SearchOrder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-the-fly model checker for {@link Formula}s, checking single nodes without building the StepGraph or any paths.
+ *
+ * Formulas are evaluated top down from the queried node, with the same results as the {@link CTLModelChecker}. The
+ * searches for the until operators stop as soon as a witness (EXIST_UNTIL, POS) or a counterexample (FORALL_UNTIL,
+ * EV, INV) is found, and the state space is only explored as far as needed to find out if a transition on the
+ * searched paths is used ({@link LazyStateSpace}): paths over transitions known to be used are searched first, only
+ * the remaining ones may need a complete exploration.
+ *
+ * Results of subformulas are cached per (subformula, node), so the checker can be reused for multiple queries.
+ */
+public class LocalModelChecker {
+
+    private final LazyStateSpace stateSpace;
+
+    private final CompiledPetriNet net;
+
+    private final int placeCount;
+
+    private final Map<Formula, BitSet> evaluated = new HashMap<>();
+
+    private final Map<Formula, BitSet> fulfilled = new HashMap<>();
+
+    /**
+     * Check a PetriNet, exploring its state space depth first (so transitions deep in the state space are found
+     * early).
+     *
+     * @param petriNet the PetriNet to check, its current markers are used as initial marking
+     */
+    public LocalModelChecker(final PetriNet petriNet) {
+        this(petriNet, SearchOrder.DEPTH_FIRST, ExplorationLimits.unlimited());
+    }
+
+    /**
+     * @param petriNet the PetriNet to check, its current markers are used as initial marking
+     * @param order order in which the state space is explored
+     * @param limits budgets for the exploration of the state space
+     */
+    public LocalModelChecker(final PetriNet petriNet, final SearchOrder order, final ExplorationLimits limits) {
+        this.net = new CompiledPetriNet(petriNet);
+        this.stateSpace = new LazyStateSpace(net, order, limits);
+        this.placeCount = net.getPlaceCount();
+    }
+
+    /**
+     * @return the state space explored so far
+     */
+    public LazyStateSpace getStateSpace() {
+        return stateSpace;
+    }
+
+    /**
+     * @param formula a {@link Formula} to check
+     * @param node a {@link Node} of the PetriNet
+     * @return result of the evaluation of the formula (or false, if formula and node types don't match)
+     */
+    public boolean check(final Formula formula, final Node node) {
+        if (!(formula instanceof StateFormula && node instanceof Place
+                || formula instanceof TransitionFormula && node instanceof Transition)) {
+            return false;
+        }
+
+        return evaluate(formula, node);
+    }
+
+    /**
+     * Evaluate a subformula, the result is cached.
+     *
+     * @param formula a {@link Formula}
+     * @param node a {@link Node} of the PetriNet
+     * @return result of the evaluation of the formula
+     */
+    public boolean evaluate(final Formula formula, final Node node) {
+        return evaluate(formula, indexOf(node));
+    }
+
+    /**
+     * @param node a {@link Node} of the PetriNet
+     * @param parameter a {@link Formula}
+     * @return true if the parameter holds for a node following the given one (following the arcs of the PetriNet)
+     */
+    public boolean modal(final Node node, final Formula parameter) {
+        final var index = indexOf(node);
+
+        if (index < placeCount) {
+            for (final var consumer : net.getConsumers(index)) {
+                if (evaluate(parameter, placeCount + consumer)) {
+                    return true;
+                }
+            }
+        } else {
+            for (final var place : net.getPostSet(index - placeCount)) {
+                if (evaluate(parameter, place)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param node a {@link Node} of the PetriNet
+     * @param following a {@link Formula} every following node of the same type must fulfill
+     * @param between a {@link Formula} every node between the node and its following nodes must fulfill
+     * @return true if both formulas hold for all successors, see {@link CTLModelChecker#forallModal}
+     */
+    public boolean forallModal(final Node node, final Formula following, final Formula between) {
+        final var index = indexOf(node);
+
+        for (final var successor : successors(index)) {
+            if (!evaluate(between, successor)) {
+                return false;
+            }
+
+            for (final var next : successors(successor)) {
+                if (!evaluate(following, next)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Search a path to a node of the same type fulfilling parameter2, over nodes fulfilling parameter1, see
+     * {@link CTLModelChecker#existUntil}.
+     *
+     * @param node a {@link Node} of the PetriNet
+     * @param parameter1 a {@link Formula} for the nodes on the path
+     * @param parameter2 a {@link Formula} for the reached node
+     * @return true if such a path was found
+     */
+    public boolean existUntil(final Node node, final Formula parameter1, final Formula parameter2) {
+        final var start = indexOf(node);
+        final var search = new Search(start, true);
+
+        while (search.hasNext()) {
+            final var current = search.next();
+
+            if (isPlace(current) == isPlace(start)) {
+                if (evaluate(parameter2, current)) {
+                    return true;
+                }
+
+                if (!evaluate(parameter1, current)) {
+                    continue;
+                }
+            }
+
+            search.expand(current);
+        }
+
+        //the path ends after one step, only the node itself is checked
+        return evaluate(parameter2, start) && endsAfterStep(start);
+    }
+
+    /**
+     * Search a path which leaves the nodes fulfilling parameter1 or ends, before reaching a node of the same type
+     * fulfilling parameter2, see {@link CTLModelChecker#forallUntil}. Like there, the node itself is only checked
+     * again when a path returns to it after a circle over other nodes of the same type.
+     *
+     * @param node a {@link Node} of the PetriNet
+     * @param parameter1 a {@link Formula} for the nodes on the paths
+     * @param parameter2 a {@link Formula} for the reached nodes
+     * @return true if no such path was found
+     */
+    public boolean forallUntil(final Node node, final Formula parameter1, final Formula parameter2) {
+        final var start = indexOf(node);
+        final var search = new Search(start, false);
+        final var ends = new BitSet();
+
+        while (search.hasNext()) {
+            final var current = search.next();
+
+            if (isPlace(current) == isPlace(start)) {
+                if (evaluate(parameter2, current)) {
+                    continue;
+                }
+
+                if (!evaluate(parameter1, current)) {
+                    return false;
+                }
+
+                //checking for ends may need the complete state space, so it is done after the search
+                ends.set(current);
+            }
+
+            search.expand(current);
+        }
+
+        for (var current = ends.nextSetBit(0); current >= 0; current = ends.nextSetBit(current + 1)) {
+            if (successors(current).length == 0 || endsAfterStep(current)) {
+                return false;
+            }
+        }
+
+        if (evaluate(parameter2, start)) {
+            return true;
+        }
+
+        return !endsAfterStep(start) && (evaluate(parameter1, start) || !circleBefore(start, ends));
+    }
+
+    /**
+     * @param start index of the start node
+     * @param searched indices of the nodes reached from the start node, without the start node
+     * @return true if the searched nodes leading back to the start node contain a circle
+     */
+    private boolean circleBefore(final int start, final BitSet searched) {
+        final var following = new HashMap<Integer, int[]>();
+        final var preceding = new HashMap<Integer, List<Integer>>();
+        final var remaining = new BitSet();
+
+        for (var node = searched.nextSetBit(0); node >= 0; node = searched.nextSetBit(node + 1)) {
+            final var next = Arrays.stream(successors(node))
+                    .flatMap(between -> Arrays.stream(successors(between)))
+                    .distinct()
+                    .toArray();
+            following.put(node, next);
+
+            for (final var successor : next) {
+                if (successor == start) {
+                    remaining.set(node);
+                } else if (searched.get(successor)) {
+                    preceding.computeIfAbsent(successor, key -> new ArrayList<>()).add(node);
+                }
+            }
+        }
+
+        //nodes leading back to the start
+        final var queue = new ArrayDeque<Integer>();
+        remaining.stream().forEach(queue::add);
+
+        while (!queue.isEmpty()) {
+            for (final var previous : preceding.getOrDefault(queue.poll(), List.of())) {
+                if (!remaining.get(previous)) {
+                    remaining.set(previous);
+                    queue.add(previous);
+                }
+            }
+        }
+
+        //remove nodes without successors among the remaining ones, until only circles (and nodes leading to them) remain
+        final var outgoing = new HashMap<Integer, Integer>();
+
+        for (var node = remaining.nextSetBit(0); node >= 0; node = remaining.nextSetBit(node + 1)) {
+            final var count = (int) Arrays.stream(following.get(node)).filter(remaining::get).count();
+            outgoing.put(node, count);
+
+            if (count == 0) {
+                queue.add(node);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            final int node = queue.poll();
+            remaining.clear(node);
+
+            for (final var previous : preceding.getOrDefault(node, List.of())) {
+                if (remaining.get(previous) && outgoing.merge(previous, -1, Integer::sum) == 0) {
+                    queue.add(previous);
+                }
+            }
+        }
+
+        return !remaining.isEmpty();
+    }
+
+    private boolean evaluate(final Formula formula, final int index) {
+        final var known = evaluated.computeIfAbsent(formula, key -> new BitSet());
+        final var results = fulfilled.computeIfAbsent(formula, key -> new BitSet());
+
+        if (known.get(index)) {
+            return results.get(index);
+        }
+
+        final var result = formula.check(nodeOf(index), this);
+        known.set(index);
+        results.set(index, result);
+        return result;
+    }
+
+    /**
+     * @param index index of a node
+     * @return true if a successor of the node has no successors
+     */
+    private boolean endsAfterStep(final int index) {
+        for (final var successor : successors(index)) {
+            if (successors(successor).length == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param index index of a node
+     * @return indices of the successors of the node on a path (explores the state space as far as needed)
+     */
+    private int[] successors(final int index) {
+        if (!isPlace(index)) {
+            return net.getPostSet(index - placeCount);
+        }
+
+        return Arrays.stream(net.getConsumers(index))
+                .filter(stateSpace::isFired)
+                .map(consumer -> placeCount + consumer)
+                .toArray();
+    }
+
+    private boolean isPlace(final int index) {
+        return index < placeCount;
+    }
+
+    private int indexOf(final Node node) {
+        if (node instanceof Place) {
+            final var place = net.getPlaceIndex(node.getID());
+
+            if (place >= 0) {
+                return place;
+            }
+        } else if (node instanceof Transition) {
+            final var transition = net.getTransitionIndex(node.getID());
+
+            if (transition >= 0) {
+                return placeCount + transition;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Node %s is not part of the PetriNet!", node.getID()));
+    }
+
+    private Node nodeOf(final int index) {
+        return isPlace(index) ? net.getPlace(index) : net.getTransition(index - placeCount);
+    }
+
+    /**
+     * Breadth first search over the nodes following a start node. Transitions which are not known to be used yet are
+     * postponed, until no other nodes are left.
+     */
+    private final class Search {
+        private final ArrayDeque<Integer> queue = new ArrayDeque<>();
+        private final ArrayDeque<Integer> postponed = new ArrayDeque<>();
+        private final BitSet visited = new BitSet();
+
+        /**
+         * @param start index of the start node
+         * @param returns true if the start node is visited again when a path returns to it
+         */
+        private Search(final int start, final boolean returns) {
+            if (!returns) {
+                visited.set(start);
+            }
+            expand(start);
+        }
+
+        private boolean hasNext() {
+            while (queue.isEmpty() && !postponed.isEmpty()) {
+                final int transition = postponed.poll();
+
+                if (stateSpace.isFired(transition - placeCount)) {
+                    queue.add(transition);
+                }
+            }
+
+            return !queue.isEmpty();
+        }
+
+        private int next() {
+            return queue.poll();
+        }
+
+        /**
+         * Add the successors of a node to the search.
+         *
+         * @param index index of a node
+         */
+        private void expand(final int index) {
+            if (!isPlace(index)) {
+                for (final var place : net.getPostSet(index - placeCount)) {
+                    visit(place);
+                }
+                return;
+            }
+
+            for (final var consumer : net.getConsumers(index)) {
+                final var transition = placeCount + consumer;
+
+                if (!visited.get(transition)) {
+                    visited.set(transition);
+
+                    if (stateSpace.isKnownFired(consumer)) {
+                        queue.add(transition);
+                    } else {
+                        postponed.add(transition);
+                    }
+                }
+            }
+        }
+
+        private void visit(final int index) {
+            if (!visited.get(index)) {
+                visited.set(index);
+                queue.add(index);
+            }
+        }
+    }
+}
@@ -16,12 +16,15 @@ package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.StateFormula;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFormula;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * TT operator evaluates to True everytime
  */
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class TT implements StateFormula, TransitionFormula {
 
     public static TT TT() {
@@ -33,6 +36,16 @@ public class TT implements StateFormula, TransitionFormula {
         return true;
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.nodes();
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return true;
+    }
+
     @Override
     public String symbol() {
         return "TT";
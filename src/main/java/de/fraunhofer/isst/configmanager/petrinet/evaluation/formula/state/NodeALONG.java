@@ -13,9 +13,14 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeEV.nodeEV;
@@ -25,6 +30,7 @@ import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state
  * evaluates to true, if there exists a path, where parameter holds for every place
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeALONG implements StateFormula {
     private StateFormula parameter;
 
@@ -34,7 +40,17 @@ public class NodeALONG implements StateFormula {
 
     @Override
     public boolean evaluate(final Node node, final List<List<Node>> paths) {
-        return nodeNOT(nodeEV(nodeNOT(parameter))).evaluate(node, paths);
+        return EvaluationCache.evaluate(nodeNOT(nodeEV(nodeNOT(parameter))), node, paths);
+    }
+
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.label(nodeNOT(nodeEV(nodeNOT(parameter))));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return checker.evaluate(nodeNOT(nodeEV(nodeNOT(parameter))), node);
     }
 
     @Override
@@ -13,9 +13,14 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.TT.TT;
@@ -25,6 +30,7 @@ import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state
  * evaluates to true, if a place fulfilling the given parameter is eventually reached on every path
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeEV implements StateFormula {
     private StateFormula parameter;
 
@@ -34,7 +40,17 @@ public class NodeEV implements StateFormula {
 
     @Override
     public boolean evaluate(final Node node, final List<List<Node>> paths) {
-        return nodeFORALL_UNTIL(TT(), parameter).evaluate(node, paths);
+        return EvaluationCache.evaluate(nodeFORALL_UNTIL(TT(), parameter), node, paths);
+    }
+
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.label(nodeFORALL_UNTIL(TT(), parameter));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return checker.evaluate(nodeFORALL_UNTIL(TT(), parameter), node);
     }
 
     @Override
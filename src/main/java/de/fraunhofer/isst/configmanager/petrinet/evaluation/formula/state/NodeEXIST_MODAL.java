@@ -13,10 +13,15 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFormula;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeAND.nodeAND;
@@ -28,6 +33,7 @@ import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.trans
  * transition in between.
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeEXIST_MODAL implements StateFormula {
     private StateFormula parameter1;
     private TransitionFormula parameter2;
@@ -39,7 +45,17 @@ public class NodeEXIST_MODAL implements StateFormula {
 
     @Override
     public boolean evaluate(final Node node, final List<List<Node>> paths) {
-        return transitionMODAL(nodeAND(parameter1, nodeMODAL(parameter2))).evaluate(node, paths);
+        return EvaluationCache.evaluate(transitionMODAL(nodeAND(parameter1, nodeMODAL(parameter2))), node, paths);
+    }
+
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.label(transitionMODAL(nodeAND(parameter1, nodeMODAL(parameter2))));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return checker.evaluate(transitionMODAL(nodeAND(parameter1, nodeMODAL(parameter2))), node);
     }
 
     @Override
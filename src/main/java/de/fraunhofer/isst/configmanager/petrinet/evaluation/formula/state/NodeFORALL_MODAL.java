@@ -13,12 +13,17 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFormula;
 import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import de.fraunhofer.isst.configmanager.petrinet.model.Place;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,6 +33,7 @@ import java.util.stream.Collectors;
  * for every transition in between.
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeFORALL_MODAL implements StateFormula {
     private StateFormula parameter1;
     private TransitionFormula parameter2;
@@ -45,23 +51,33 @@ public class NodeFORALL_MODAL implements StateFormula {
             return false;
         }
 
-        final var followingTransitions = paths.stream().filter(path -> path.size() == 2 && path.get(0) == node).map(path -> path.get(1)).collect(Collectors.toSet());
+        final var followingTransitions = EvaluationCache.startingAt(node, paths).stream().filter(path -> path.size() >= 2).map(path -> path.get(1)).collect(Collectors.toSet());
         final var followingPlaces = followingTransitions.stream().map(Node::getSourceArcs).flatMap(Collection::stream).map(Arc::getTarget).collect(Collectors.toSet());
 
         for (final var place : followingPlaces) {
-            if (!parameter1.evaluate(place, paths)) {
+            if (!EvaluationCache.evaluate(parameter1, place, paths)) {
                 return false;
             }
         }
 
         for (final var transition : followingTransitions){
-            if (!parameter2.evaluate(transition, paths)) {
+            if (!EvaluationCache.evaluate(parameter2, transition, paths)) {
                 return false;
             }
         }
         return true;
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.forallModal(checker.places(), checker.label(parameter1), checker.label(parameter2));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return node instanceof Place && checker.forallModal(node, parameter1, parameter2);
+    }
+
     @Override
     public String symbol() {
         return "FORALL_MODAL";
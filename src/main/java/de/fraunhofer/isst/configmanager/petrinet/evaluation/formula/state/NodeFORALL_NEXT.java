@@ -13,9 +13,14 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeEXIST_NEXT.nodeEXIST_NEXT;
@@ -25,6 +30,7 @@ import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state
  * evaluates to true, if all following places satisfy the given formula
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeFORALL_NEXT implements StateFormula {
     private StateFormula parameter;
 
@@ -34,7 +40,17 @@ public class NodeFORALL_NEXT implements StateFormula {
 
     @Override
     public boolean evaluate(final Node node, final List<List<Node>> paths) {
-        return nodeNOT(nodeEXIST_NEXT(nodeNOT(parameter))).evaluate(node, paths);
+        return EvaluationCache.evaluate(nodeNOT(nodeEXIST_NEXT(nodeNOT(parameter))), node, paths);
+    }
+
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.label(nodeNOT(nodeEXIST_NEXT(nodeNOT(parameter))));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return checker.evaluate(nodeNOT(nodeEXIST_NEXT(nodeNOT(parameter))), node);
     }
 
     @Override
@@ -13,13 +13,18 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import de.fraunhofer.isst.configmanager.petrinet.model.Place;
 import de.fraunhofer.isst.configmanager.petrinet.simulator.PetriNetSimulator;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -27,6 +32,7 @@ import java.util.List;
  */
 @AllArgsConstructor
 @Slf4j
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeFORALL_UNTIL implements StateFormula {
     private StateFormula parameter1;
     private StateFormula parameter2;
@@ -44,8 +50,7 @@ public class NodeFORALL_UNTIL implements StateFormula {
             return false;
         }
 
-        check: for (final var path: paths) {
-            if(!path.get(0).equals(node)) continue;
+        check: for (final var path: EvaluationCache.startingAt(node, paths)) {
             int offset;
             if(PetriNetSimulator.circleFree(path)){
                 if (path.size() % 2 == 1) {
@@ -54,20 +59,20 @@ public class NodeFORALL_UNTIL implements StateFormula {
                     offset = 2;
                 }
                 for (var i = 2; i < path.size() - offset; i += 2) {
-                    var res1 = parameter1.evaluate(path.get(i), paths);
-                    var res2 = parameter2.evaluate(path.get(i), paths);
+                    var res1 = EvaluationCache.evaluate(parameter1, path.get(i), paths);
+                    var res2 = EvaluationCache.evaluate(parameter2, path.get(i), paths);
                     if(res2) continue check;
                     if(!res1) return false;
                 }
-                if (!parameter2.evaluate(path.get(path.size() - offset), paths)) {
+                if (!EvaluationCache.evaluate(parameter2, path.get(path.size() - offset), paths)) {
                     return false;
                 }
             }else{
                 //TODO path contains circle
                 //if something on the circle fulfills param2 accept, if something does not fulfill param1 reject
                 for (var i = 2; i<path.size() - 1; i+=2){
-                    var res1 = parameter1.evaluate(path.get(i), paths);
-                    var res2 = parameter2.evaluate(path.get(i), paths);
+                    var res1 = EvaluationCache.evaluate(parameter1, path.get(i), paths);
+                    var res2 = EvaluationCache.evaluate(parameter2, path.get(i), paths);
                     if(res2) continue check;
                     if(!res1) return false;
                 }
@@ -75,12 +80,22 @@ public class NodeFORALL_UNTIL implements StateFormula {
                 var lastPlace = path.get(path.size()-1) instanceof Place ? path.get(path.size()-1) : path.get(path.size()-2);
                 var newPaths = new ArrayList<>(paths);
                 newPaths.remove(path);
-                if(!this.evaluate(lastPlace, newPaths)) return false;
+                if(!this.evaluate(lastPlace, EvaluationCache.of(newPaths))) return false;
             }
         }
         return true;
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.forallUntil(checker.places(), checker.label(parameter1), checker.label(parameter2));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return node instanceof Place && checker.forallUntil(node, parameter1, parameter2);
+    }
+
     @Override
     public String symbol() {
         return "FORALL_UNTIL";
@@ -13,9 +13,14 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeNOT.nodeNOT;
@@ -24,6 +29,7 @@ import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state
  * evaluates to true, if parameter evaluates to true for all reachable places
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeINV implements StateFormula {
     private StateFormula parameter;
 
@@ -33,7 +39,17 @@ public class NodeINV implements StateFormula {
 
     @Override
     public boolean evaluate(final Node node, final List<List<Node>> paths) {
-        return nodeNOT(nodePOS(nodeNOT(parameter))).evaluate(node, paths);
+        return EvaluationCache.evaluate(nodeNOT(nodePOS(nodeNOT(parameter))), node, paths);
+    }
+
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.label(nodeNOT(nodePOS(nodeNOT(parameter))));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return checker.evaluate(nodeNOT(nodePOS(nodeNOT(parameter))), node);
     }
 
     @Override
@@ -13,18 +13,24 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFormula;
 import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import de.fraunhofer.isst.configmanager.petrinet.model.Place;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * evaluates to true, if parameter evaluates to true for a transition directly following the current place
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeMODAL implements StateFormula {
     private TransitionFormula parameter;
 
@@ -38,10 +44,20 @@ public class NodeMODAL implements StateFormula {
         return node instanceof Place &&
                 node.getSourceArcs().stream()
                         .map(Arc::getTarget)
-                        .map(transition -> parameter.evaluate(transition, paths))
+                        .map(transition -> EvaluationCache.evaluate(parameter, transition, paths))
                         .reduce(false, (a, b) -> a || b);
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.modal(checker.places(), checker.label(parameter));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return node instanceof Place && checker.modal(node, parameter);
+    }
+
     @Override
     public String symbol() {
         return "MODAL";
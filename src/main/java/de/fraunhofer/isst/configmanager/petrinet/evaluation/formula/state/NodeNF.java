@@ -13,17 +13,22 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.ArcExpression;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import de.fraunhofer.isst.configmanager.petrinet.model.Place;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * evaluates to true, if given {@link NodeExpression} evaluates to true
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeNF implements StateFormula {
     private NodeExpression parameter;
 
@@ -36,6 +41,16 @@ public class NodeNF implements StateFormula {
         return node instanceof Place && parameter.getSubExpression().evaluate((Place) node);
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.placesMatching(parameter.getSubExpression()::evaluate);
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return node instanceof Place && parameter.getSubExpression().evaluate((Place) node);
+    }
+
     @Override
     public String symbol() {
         return "NF";
@@ -13,15 +13,21 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * evaluates to true, if given subformula evaluates to false
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeNOT implements StateFormula {
     private StateFormula parameter;
 
@@ -31,7 +37,17 @@ public class NodeNOT implements StateFormula {
 
     @Override
     public boolean evaluate(final Node node, final List<List<Node>> paths) {
-        return !parameter.evaluate(node, paths);
+        return !EvaluationCache.evaluate(parameter, node, paths);
+    }
+
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.not(checker.label(parameter));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return !checker.evaluate(parameter, node);
     }
 
     @Override
@@ -13,15 +13,21 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * evaluates to true, if at least one of the two subformulas evaluates to true
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class NodeOR implements StateFormula {
     private StateFormula parameter1;
     private StateFormula parameter2;
@@ -33,7 +39,17 @@ public class NodeOR implements StateFormula {
 
     @Override
     public boolean evaluate(final Node node, final List<List<Node>> paths) {
-        return parameter1.evaluate(node, paths) || parameter2.evaluate(node, paths);
+        return EvaluationCache.evaluate(parameter1, node, paths) || EvaluationCache.evaluate(parameter2, node, paths);
+    }
+
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.or(checker.label(parameter1), checker.label(parameter2));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return checker.evaluate(parameter1, node) || checker.evaluate(parameter2, node);
     }
 
     @Override
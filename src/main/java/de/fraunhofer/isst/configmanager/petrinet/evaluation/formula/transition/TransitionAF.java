@@ -13,16 +13,21 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * evaluates to true, if given {@link ArcExpression} evaluates to true
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class TransitionAF implements TransitionFormula {
     private ArcExpression parameter;
 
@@ -35,6 +40,16 @@ public class TransitionAF implements TransitionFormula {
         return node instanceof Transition && parameter.getSubExpression().evaluate((Transition) node);
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.transitionsMatching(parameter.getSubExpression()::evaluate);
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return node instanceof Transition && parameter.getSubExpression().evaluate((Transition) node);
+    }
+
     @Override
     public String symbol() {
         return "AF";
@@ -13,9 +13,14 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionEV.transitionEV;
@@ -25,6 +30,7 @@ import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.trans
  * evaluates to true, if there exists a path, where parameter holds for every transition
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class TransitionALONG implements TransitionFormula {
     private TransitionFormula parameter;
 
@@ -34,7 +40,17 @@ public class TransitionALONG implements TransitionFormula {
     
     @Override
     public boolean evaluate(final Node node, final List<List<Node>> paths) {
-        return transitionNOT(transitionEV(transitionNOT(parameter))).evaluate(node, paths);
+        return EvaluationCache.evaluate(transitionNOT(transitionEV(transitionNOT(parameter))), node, paths);
+    }
+
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.label(transitionNOT(transitionEV(transitionNOT(parameter))));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return checker.evaluate(transitionNOT(transitionEV(transitionNOT(parameter))), node);
     }
 
     @Override
@@ -13,10 +13,15 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.StateFormula;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeMODAL.nodeMODAL;
@@ -28,6 +33,7 @@ import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.trans
  * place in between.
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class TransitionEXIST_MODAL implements TransitionFormula {
     private TransitionFormula parameter1;
     private StateFormula parameter2;
@@ -39,7 +45,17 @@ public class TransitionEXIST_MODAL implements TransitionFormula {
 
     @Override
     public boolean evaluate(final Node node, final List<List<Node>> paths) {
-        return nodeMODAL(transitionAND(parameter1,transitionMODAL(parameter2))).evaluate(node, paths);
+        return EvaluationCache.evaluate(nodeMODAL(transitionAND(parameter1,transitionMODAL(parameter2))), node, paths);
+    }
+
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.label(nodeMODAL(transitionAND(parameter1,transitionMODAL(parameter2))));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return checker.evaluate(nodeMODAL(transitionAND(parameter1,transitionMODAL(parameter2))), node);
     }
 
     @Override
@@ -13,10 +13,15 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -24,6 +29,7 @@ import java.util.List;
  * evaluates to true
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class TransitionEXIST_UNTIL implements TransitionFormula {
     private TransitionFormula parameter1;
     private TransitionFormula parameter2;
@@ -42,27 +48,36 @@ public class TransitionEXIST_UNTIL implements TransitionFormula {
             return false;
         }
 
-        check: for (final var path: paths) {
+        check: for (final var path: EvaluationCache.startingAt(node, paths)) {
             int offset;
-            if(!path.get(0).equals(node)) continue;
             if (path.size() % 2 == 1) {
                 offset = 1;
             }else {
                 offset = 2;
             }
             for (var i = 2; i < path.size() - offset; i += 2) {
-                var res1 = parameter1.evaluate(path.get(i), paths);
-                var res2 = parameter2.evaluate(path.get(i), paths);
+                var res1 = EvaluationCache.evaluate(parameter1, path.get(i), paths);
+                var res2 = EvaluationCache.evaluate(parameter2, path.get(i), paths);
                 if(res2) return true;
                 if(!res1) continue check;
             }
-            if (parameter2.evaluate(path.get(path.size() - offset), paths)) {
+            if (EvaluationCache.evaluate(parameter2, path.get(path.size() - offset), paths)) {
                 return true;
             }
         }
         return false;
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.existUntil(checker.transitions(), checker.label(parameter1), checker.label(parameter2));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return node instanceof Transition && checker.existUntil(node, parameter1, parameter2);
+    }
+
     @Override
     public String symbol() {
         return "EXIST_UNTIL";
@@ -13,12 +13,17 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.StateFormula;
 import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,6 +32,7 @@ import java.util.stream.Collectors;
  * for every Place in between.
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class TransitionFORALL_MODAL implements TransitionFormula {
     private TransitionFormula parameter1;
     private StateFormula parameter2;
@@ -46,24 +52,32 @@ public class TransitionFORALL_MODAL implements TransitionFormula {
 
         final var followingPlaces = node.getSourceArcs().stream().map(Arc::getTarget).collect(Collectors.toSet());
 
-        followingPlaces.retainAll(paths.stream().filter(path -> paths.size() == 2).map(path -> path.get(0)).collect(Collectors.toSet()));
-
-        final var followingTransitions = paths.stream().filter(path -> path.size() == 2).filter(path -> followingPlaces.contains(path.get(0))).map(path -> path.get(1)).collect(Collectors.toSet());
+        final var followingTransitions = followingPlaces.stream().flatMap(place -> EvaluationCache.startingAt(place, paths).stream()).filter(path -> path.size() >= 2).map(path -> path.get(1)).collect(Collectors.toSet());
 
         for (final var transition : followingTransitions) {
-            if (!parameter1.evaluate(transition, paths)) {
+            if (!EvaluationCache.evaluate(parameter1, transition, paths)) {
                 return false;
             }
         }
 
         for (final var place : followingPlaces) {
-            if (!parameter2.evaluate(place, paths)) {
+            if (!EvaluationCache.evaluate(parameter2, place, paths)) {
                 return false;
             }
         }
         return true;
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.forallModal(checker.transitions(), checker.label(parameter1), checker.label(parameter2));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return node instanceof Transition && checker.forallModal(node, parameter1, parameter2);
+    }
+
     @Override
     public String symbol() {
         return "FORALL_MODAL";
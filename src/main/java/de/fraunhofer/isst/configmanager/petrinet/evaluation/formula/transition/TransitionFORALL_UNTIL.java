@@ -13,13 +13,18 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
 import de.fraunhofer.isst.configmanager.petrinet.simulator.PetriNetSimulator;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -27,6 +32,7 @@ import java.util.List;
  */
 @AllArgsConstructor
 @Slf4j
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class TransitionFORALL_UNTIL implements TransitionFormula {
     private TransitionFormula parameter1;
     private TransitionFormula parameter2;
@@ -44,8 +50,7 @@ public class TransitionFORALL_UNTIL implements TransitionFormula {
             return false;
         }
 
-        check: for (final var path: paths) {
-            if(!path.get(0).equals(node)) continue;
+        check: for (final var path: EvaluationCache.startingAt(node, paths)) {
             int offset;
             if(PetriNetSimulator.circleFree(path)){
                 if (path.size() % 2 == 1) {
@@ -54,23 +59,23 @@ public class TransitionFORALL_UNTIL implements TransitionFormula {
                     offset = 2;
                 }
                 for (var i = 2; i < path.size() - offset; i += 2) {
-                    var res1 = parameter1.evaluate(path.get(i), paths);
-                    var res2 = parameter2.evaluate(path.get(i), paths);
+                    var res1 = EvaluationCache.evaluate(parameter1, path.get(i), paths);
+                    var res2 = EvaluationCache.evaluate(parameter2, path.get(i), paths);
                     if(res2) continue check;
                     if(!res1){
                         log.info(path.get(i).toString());
                         return false;
                     }
                 }
-                if (!parameter2.evaluate(path.get(path.size() - offset), paths)) {
+                if (!EvaluationCache.evaluate(parameter2, path.get(path.size() - offset), paths)) {
                     log.info(path.get(path.size() - offset).toString());
                     return false;
                 }
             }else{
                 //if something on the circle fulfills param2 accept, if something does not fulfill param1 reject
                 for (var i = 2; i<path.size() - 1; i+=2){
-                    var res1 = parameter1.evaluate(path.get(i), paths);
-                    var res2 = parameter2.evaluate(path.get(i), paths);
+                    var res1 = EvaluationCache.evaluate(parameter1, path.get(i), paths);
+                    var res2 = EvaluationCache.evaluate(parameter2, path.get(i), paths);
                     if(res2) continue check;
                     if(!res1){
                         log.info(path.get(i).toString());
@@ -81,12 +86,22 @@ public class TransitionFORALL_UNTIL implements TransitionFormula {
                 var lastTransition = path.get(path.size()-1) instanceof Transition ? path.get(path.size()-1) : path.get(path.size()-2);
                 var newPaths = new ArrayList<>(paths);
                 newPaths.remove(path);
-                if(!this.evaluate(lastTransition, newPaths)) return false;
+                if(!this.evaluate(lastTransition, EvaluationCache.of(newPaths))) return false;
             }
         }
         return true;
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.forallUntil(checker.transitions(), checker.label(parameter1), checker.label(parameter2));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return node instanceof Transition && checker.forallUntil(node, parameter1, parameter2);
+    }
+
     @Override
     public String symbol() {
         return "FORALL_UNTIL";
@@ -13,18 +13,24 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition;
 
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLModelChecker;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.EvaluationCache;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.LocalModelChecker;
 import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.StateFormula;
 import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
 import de.fraunhofer.isst.configmanager.petrinet.model.Node;
 import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * evaluates to true, if parameter evaluates to true for a place directly following the transition
  */
 @AllArgsConstructor
+@EqualsAndHashCode(cacheStrategy = EqualsAndHashCode.CacheStrategy.LAZY)
 public class TransitionMODAL implements TransitionFormula {
     private StateFormula parameter;
 
@@ -38,10 +44,20 @@ public class TransitionMODAL implements TransitionFormula {
         return node instanceof Transition &&
                 node.getSourceArcs().stream()
                         .map(Arc::getTarget)
-                        .map(place -> parameter.evaluate(place, paths))
+                        .map(place -> EvaluationCache.evaluate(parameter, place, paths))
                         .reduce(false, (a, b) -> a || b);
     }
 
+    @Override
+    public BitSet label(final CTLModelChecker checker) {
+        return checker.modal(checker.transitions(), checker.label(parameter));
+    }
+
+    @Override
+    public boolean check(final Node node, final LocalModelChecker checker) {
+        return node instanceof Transition && checker.modal(node, parameter);
+    }
+
     @Override
     public String symbol() {
         return "MODAL";
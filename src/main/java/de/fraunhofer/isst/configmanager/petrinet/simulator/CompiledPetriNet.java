@@ -0,0 +1,678 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable, index based representation of a {@link PetriNet}, compiled once and used for state space exploration.
+ *
+ * Places and Transitions are interned to dense int indices (ordered by their IDs), pre- and post-sets of
+ * transitions are stored as int arrays. A state of the PetriNet is a plain int[] marking vector, holding the
+ * number of markers for every place index.
+ */
+public class CompiledPetriNet {
+
+    private final PetriNet petriNet;
+
+    private final Place[] places;
+    private final Transition[] transitions;
+
+    private final Map<URI, Integer> placeIndex;
+    private final Map<URI, Integer> transitionIndex;
+
+    /**
+     * Input places of every transition (place indices, without duplicates).
+     */
+    private final int[][] preSet;
+
+    /**
+     * Number of arcs between a transition and the input place at the same position in {@link #preSet}.
+     */
+    private final int[][] preWeights;
+
+    /**
+     * Output places of every transition (place indices, without duplicates).
+     */
+    private final int[][] postSet;
+
+    /**
+     * Number of arcs between a transition and the output place at the same position in {@link #postSet}.
+     */
+    private final int[][] postWeights;
+
+    /**
+     * Places whose number of markers is changed by every transition (input/output places with different weights).
+     */
+    private final int[][] changedPlaces;
+
+    /**
+     * Transitions which have every place as input place (transition indices, ascending).
+     */
+    private final int[][] consumers;
+
+    /**
+     * Bit masks of the input places of every transition, for 1-safe markings packed into long words.
+     */
+    private final long[][] preMasks;
+
+    /**
+     * Bit masks of the output places of every transition, for 1-safe markings packed into long words.
+     */
+    private final long[][] postMasks;
+
+    /**
+     * True if all arcs have weight 1 (no parallel arcs), required for bitwise firing.
+     */
+    private final boolean ordinary;
+
+    private final int[] initialMarking;
+
+    /**
+     * Compile the given PetriNet, its current markers are used as initial marking.
+     *
+     * @param petriNet the PetriNet to compile
+     * @throws IllegalArgumentException if an arc of a transition references a place which is not part of the PetriNet
+     */
+    public CompiledPetriNet(final PetriNet petriNet) {
+        this.petriNet = petriNet;
+
+        final var placeList = new ArrayList<Place>();
+        final var transitionList = new ArrayList<Transition>();
+
+        for (final var node : petriNet.getNodes()) {
+            if (node instanceof Place) {
+                placeList.add((Place) node);
+            } else if (node instanceof Transition) {
+                transitionList.add((Transition) node);
+            }
+        }
+
+        //order by ID, so indices are the same for every compilation of the same PetriNet
+        placeList.sort(Comparator.comparing(place -> place.getID().toString()));
+        transitionList.sort(Comparator.comparing(transition -> transition.getID().toString()));
+
+        this.places = placeList.toArray(new Place[0]);
+        this.transitions = transitionList.toArray(new Transition[0]);
+        this.placeIndex = new HashMap<>();
+        this.transitionIndex = new HashMap<>();
+        this.initialMarking = new int[places.length];
+
+        for (var i = 0; i < places.length; i++) {
+            placeIndex.put(places[i].getID(), i);
+            initialMarking[i] = places[i].getMarkers();
+        }
+
+        for (var i = 0; i < transitions.length; i++) {
+            transitionIndex.put(transitions[i].getID(), i);
+        }
+
+        this.preSet = new int[transitions.length][];
+        this.preWeights = new int[transitions.length][];
+        this.postSet = new int[transitions.length][];
+        this.postWeights = new int[transitions.length][];
+        this.changedPlaces = new int[transitions.length][];
+
+        for (var i = 0; i < transitions.length; i++) {
+            //arcs have no hashCode, so parallel arcs between the same nodes are kept and counted as weight
+            final var inputs = countArcs(transitions[i].getTargetArcs(), true);
+            final var outputs = countArcs(transitions[i].getSourceArcs(), false);
+
+            preSet[i] = inputs.keySet().stream().mapToInt(Integer::intValue).toArray();
+            preWeights[i] = inputs.values().stream().mapToInt(Integer::intValue).toArray();
+            postSet[i] = outputs.keySet().stream().mapToInt(Integer::intValue).toArray();
+            postWeights[i] = outputs.values().stream().mapToInt(Integer::intValue).toArray();
+
+            final var effect = new TreeMap<>(outputs);
+            inputs.forEach((place, weight) -> effect.merge(place, -weight, Integer::sum));
+            changedPlaces[i] = effect.entrySet().stream()
+                    .filter(entry -> entry.getValue() != 0)
+                    .mapToInt(Map.Entry::getKey)
+                    .toArray();
+        }
+
+        final var consumerLists = new ArrayList<List<Integer>>();
+
+        for (var i = 0; i < places.length; i++) {
+            consumerLists.add(new ArrayList<>());
+        }
+
+        for (var i = 0; i < transitions.length; i++) {
+            for (final var place : preSet[i]) {
+                consumerLists.get(place).add(i);
+            }
+        }
+
+        this.consumers = consumerLists.stream()
+                .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+
+        this.preMasks = new long[transitions.length][];
+        this.postMasks = new long[transitions.length][];
+
+        for (var i = 0; i < transitions.length; i++) {
+            preMasks[i] = mask(preSet[i]);
+            postMasks[i] = mask(postSet[i]);
+        }
+
+        this.ordinary = Arrays.stream(preWeights).flatMapToInt(Arrays::stream).allMatch(weight -> weight == 1)
+                && Arrays.stream(postWeights).flatMapToInt(Arrays::stream).allMatch(weight -> weight == 1);
+    }
+
+    /**
+     * @param placeIndices indices of places
+     * @return bit mask with the bits of the given places set
+     */
+    private long[] mask(final int[] placeIndices) {
+        final var mask = new long[getWordCount()];
+
+        for (final var place : placeIndices) {
+            mask[place >>> 6] |= 1L << place;
+        }
+
+        return mask;
+    }
+
+    /**
+     * @param arcs arcs of a transition
+     * @param input true if the arcs are input arcs of the transition (place -> transition)
+     * @return number of arcs for every connected place index, ordered by place index
+     */
+    private Map<Integer, Integer> countArcs(final Set<Arc> arcs, final boolean input) {
+        final var counts = new TreeMap<Integer, Integer>();
+
+        for (final var arc : arcs) {
+            final var place = input ? arc.getSource() : arc.getTarget();
+            counts.merge(indexOf(place), 1, Integer::sum);
+        }
+
+        return counts;
+    }
+
+    /**
+     * @param place a place connected to a transition of the PetriNet
+     * @return the index of the place
+     */
+    private int indexOf(final Node place) {
+        final var index = placeIndex.get(place.getID());
+
+        if (index == null) {
+            throw new IllegalArgumentException(
+                    String.format("Place %s is connected to a transition, but not part of the PetriNet!", place.getID())
+            );
+        }
+
+        return index;
+    }
+
+    /**
+     * @return the PetriNet this net was compiled from
+     */
+    public PetriNet getPetriNet() {
+        return petriNet;
+    }
+
+    /**
+     * @return number of places of the PetriNet (length of every marking vector)
+     */
+    public int getPlaceCount() {
+        return places.length;
+    }
+
+    /**
+     * @return number of transitions of the PetriNet
+     */
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    /**
+     * @param index index of a place
+     * @return the place of the original PetriNet with the given index
+     */
+    public Place getPlace(final int index) {
+        return places[index];
+    }
+
+    /**
+     * @param index index of a transition
+     * @return the transition of the original PetriNet with the given index
+     */
+    public Transition getTransition(final int index) {
+        return transitions[index];
+    }
+
+    /**
+     * @param id ID of a place
+     * @return index of the place, or -1 if the PetriNet has no place with the given ID
+     */
+    public int getPlaceIndex(final URI id) {
+        return placeIndex.getOrDefault(id, -1);
+    }
+
+    /**
+     * @param id ID of a transition
+     * @return index of the transition, or -1 if the PetriNet has no transition with the given ID
+     */
+    public int getTransitionIndex(final URI id) {
+        return transitionIndex.getOrDefault(id, -1);
+    }
+
+    /**
+     * @param transition index of a transition
+     * @return indices of the input places of the transition (must not be modified)
+     */
+    public int[] getPreSet(final int transition) {
+        return preSet[transition];
+    }
+
+    /**
+     * @param transition index of a transition
+     * @return indices of the output places of the transition (must not be modified)
+     */
+    public int[] getPostSet(final int transition) {
+        return postSet[transition];
+    }
+
+    /**
+     * @param transition index of a transition
+     * @return number of arcs from every input place of the transition, in the order of {@link #getPreSet(int)}
+     *         (must not be modified)
+     */
+    public int[] getPreWeights(final int transition) {
+        return preWeights[transition];
+    }
+
+    /**
+     * @param transition index of a transition
+     * @return number of arcs to every output place of the transition, in the order of {@link #getPostSet(int)}
+     *         (must not be modified)
+     */
+    public int[] getPostWeights(final int transition) {
+        return postWeights[transition];
+    }
+
+    /**
+     * @param transition index of a transition
+     * @return indices of the places whose number of markers is changed by the transition (must not be modified)
+     */
+    public int[] getChangedPlaces(final int transition) {
+        return changedPlaces[transition];
+    }
+
+    /**
+     * @param place index of a place
+     * @return indices of the transitions having the place as input place, ascending (must not be modified)
+     */
+    public int[] getConsumers(final int place) {
+        return consumers[place];
+    }
+
+    /**
+     * @return a copy of the initial marking vector
+     */
+    public int[] getInitialMarking() {
+        return initialMarking.clone();
+    }
+
+    /**
+     * A transition is enabled, if all of its input places have markers.
+     *
+     * @param marking a marking vector
+     * @param transition index of a transition
+     * @return true if the transition can be used in the given marking
+     */
+    public boolean isEnabled(final int[] marking, final int transition) {
+        for (final var place : preSet[transition]) {
+            if (marking[place] <= 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param marking a marking vector
+     * @return indices of all transitions enabled in the given marking, in ascending order
+     */
+    public int[] getEnabledTransitions(final int[] marking) {
+        final var enabled = new int[transitions.length];
+        var count = 0;
+
+        for (var transition = 0; transition < transitions.length; transition++) {
+            if (isEnabled(marking, transition)) {
+                enabled[count++] = transition;
+            }
+        }
+
+        return Arrays.copyOf(enabled, count);
+    }
+
+    /**
+     * @param marking a marking vector
+     * @return set of the indices of all transitions enabled in the given marking
+     */
+    public BitSet getEnabledSet(final int[] marking) {
+        final var enabled = new BitSet(transitions.length);
+
+        for (var transition = 0; transition < transitions.length; transition++) {
+            if (isEnabled(marking, transition)) {
+                enabled.set(transition);
+            }
+        }
+
+        return enabled;
+    }
+
+    /**
+     * Derive the enabled transitions after using a transition from the ones enabled before. Only consumers of places
+     * which gained their first or lost their last marker can change, so the cost depends on the arcs around the used
+     * transition instead of the size of the PetriNet.
+     *
+     * @param enabled transitions enabled before using the transition (will not be modified)
+     * @param before the marking before using the transition
+     * @param after the marking after using the transition
+     * @param transition index of the used transition
+     * @return transitions enabled after using the transition
+     */
+    public BitSet getEnabledSetAfterFiring(final BitSet enabled,
+                                           final int[] before,
+                                           final int[] after,
+                                           final int transition) {
+        final var updated = (BitSet) enabled.clone();
+
+        for (final var place : changedPlaces[transition]) {
+            if (before[place] > 0 != after[place] > 0) {
+                for (final var consumer : consumers[place]) {
+                    updated.set(consumer, isEnabled(after, consumer));
+                }
+            }
+        }
+
+        return updated;
+    }
+
+    /**
+     * Use a transition, without checking if it is enabled.
+     *
+     * @param marking the current marking vector (will not be modified)
+     * @param transition index of the transition to use
+     * @return the marking vector after using the transition
+     */
+    public int[] fire(final int[] marking, final int transition) {
+        final var next = marking.clone();
+        final var inputs = preSet[transition];
+        final var inputWeights = preWeights[transition];
+        final var outputs = postSet[transition];
+        final var outputWeights = postWeights[transition];
+
+        for (var i = 0; i < inputs.length; i++) {
+            next[inputs[i]] -= inputWeights[i];
+        }
+
+        for (var i = 0; i < outputs.length; i++) {
+            next[outputs[i]] += outputWeights[i];
+        }
+
+        return next;
+    }
+
+    /**
+     * Create a copy of the original PetriNet, with markers set according to the given marking vector.
+     *
+     * @param marking a marking vector
+     * @return a deep copy of the original PetriNet in the given marking
+     */
+    public PetriNet toPetriNet(final int[] marking) {
+        final var copy = petriNet.deepCopy();
+
+        for (final var node : copy.getNodes()) {
+            if (node instanceof Place) {
+                ((Place) node).setMarkers(marking[placeIndex.get(node.getID())]);
+            }
+        }
+
+        return copy;
+    }
+
+    /**
+     * @return true if all arcs have weight 1, so 1-safe markings can be fired bitwise
+     */
+    public boolean isOrdinary() {
+        return ordinary;
+    }
+
+    /**
+     * @return number of long words of a packed 1-safe marking
+     */
+    public int getWordCount() {
+        return (places.length + 63) >>> 6;
+    }
+
+    /**
+     * @param marking a marking vector
+     * @return true if no place has more than one marker
+     */
+    public static boolean isSafe(final int[] marking) {
+        for (final var markers : marking) {
+            if (markers < 0 || markers > 1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param marking a 1-safe marking vector
+     * @return the marking packed into long words, one bit per place
+     */
+    public long[] pack(final int[] marking) {
+        final var words = new long[getWordCount()];
+
+        for (var place = 0; place < marking.length; place++) {
+            if (marking[place] == 1) {
+                words[place >>> 6] |= 1L << place;
+            }
+        }
+
+        return words;
+    }
+
+    /**
+     * @param words a packed 1-safe marking
+     * @return the marking vector
+     */
+    public int[] unpack(final long[] words) {
+        final var marking = new int[places.length];
+
+        for (var place = 0; place < marking.length; place++) {
+            marking[place] = markers(words, place);
+        }
+
+        return marking;
+    }
+
+    /**
+     * @param words a packed 1-safe marking
+     * @param transition index of a transition
+     * @return true if all input places of the transition are marked
+     */
+    public boolean isEnabled(final long[] words, final int transition) {
+        final var mask = preMasks[transition];
+
+        for (var i = 0; i < words.length; i++) {
+            if ((words[i] & mask[i]) != mask[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Use a transition bitwise in a packed 1-safe marking of an ordinary net, without checking if it is enabled.
+     *
+     * @param words a packed 1-safe marking (will not be modified)
+     * @param transition index of the transition to use
+     * @return the packed marking after using the transition, or null if the marking would not be 1-safe anymore
+     */
+    public long[] fire(final long[] words, final int transition) {
+        final var pre = preMasks[transition];
+        final var post = postMasks[transition];
+        final var next = new long[words.length];
+
+        for (var i = 0; i < words.length; i++) {
+            final var remaining = words[i] & ~pre[i];
+
+            if ((remaining & post[i]) != 0) {
+                return null;
+            }
+
+            next[i] = remaining | post[i];
+        }
+
+        return next;
+    }
+
+    /**
+     * Bitwise version of {@link #fingerprintAfterFiring(long, int[], int[], int)} for packed 1-safe markings.
+     *
+     * @param fingerprint fingerprint of the marking before using the transition
+     * @param before the packed marking before using the transition
+     * @param after the packed marking after using the transition
+     * @param transition index of the used transition
+     * @return fingerprint of the marking after using the transition
+     */
+    public long fingerprintAfterFiring(final long fingerprint,
+                                       final long[] before,
+                                       final long[] after,
+                                       final int transition) {
+        var updated = fingerprint;
+
+        for (final var place : changedPlaces[transition]) {
+            updated ^= zobrist(place, markers(before, place)) ^ zobrist(place, markers(after, place));
+        }
+
+        return updated;
+    }
+
+    /**
+     * Bitwise version of {@link #getEnabledSetAfterFiring(BitSet, int[], int[], int)} for packed 1-safe markings.
+     *
+     * @param enabled transitions enabled before using the transition (will not be modified)
+     * @param before the packed marking before using the transition
+     * @param after the packed marking after using the transition
+     * @param transition index of the used transition
+     * @return transitions enabled after using the transition
+     */
+    public BitSet getEnabledSetAfterFiring(final BitSet enabled,
+                                           final long[] before,
+                                           final long[] after,
+                                           final int transition) {
+        final var updated = (BitSet) enabled.clone();
+
+        for (final var place : changedPlaces[transition]) {
+            if (markers(before, place) != markers(after, place)) {
+                for (final var consumer : consumers[place]) {
+                    updated.set(consumer, isEnabled(after, consumer));
+                }
+            }
+        }
+
+        return updated;
+    }
+
+    /**
+     * @param words a packed 1-safe marking
+     * @param place index of a place
+     * @return number of markers on the place (0 or 1)
+     */
+    private static int markers(final long[] words, final int place) {
+        return (int) (words[place >>> 6] >>> place) & 1;
+    }
+
+    /**
+     * Zobrist style fingerprint of a marking: the XOR of a pseudo random value for every (place, markers) pair,
+     * places without markers don't contribute. Can be updated incrementally with
+     * {@link #fingerprintAfterFiring(long, int[], int[], int)}.
+     *
+     * @param marking a marking vector
+     * @return 64 bit fingerprint of the marking
+     */
+    public long fingerprint(final int[] marking) {
+        var fingerprint = 0L;
+
+        for (var place = 0; place < marking.length; place++) {
+            fingerprint ^= zobrist(place, marking[place]);
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Update a fingerprint after a transition was used, only the places changed by the transition are considered.
+     *
+     * @param fingerprint fingerprint of the marking before using the transition
+     * @param before the marking before using the transition
+     * @param after the marking after using the transition
+     * @param transition index of the used transition
+     * @return fingerprint of the marking after using the transition
+     */
+    public long fingerprintAfterFiring(final long fingerprint,
+                                       final int[] before,
+                                       final int[] after,
+                                       final int transition) {
+        var updated = fingerprint;
+
+        for (final var place : changedPlaces[transition]) {
+            updated ^= zobrist(place, before[place]) ^ zobrist(place, after[place]);
+        }
+
+        return updated;
+    }
+
+    /**
+     * @param place index of a place
+     * @param markers number of markers on the place
+     * @return pseudo random value for the pair, 0 if the place has no markers
+     */
+    private static long zobrist(final int place, final int markers) {
+        if (markers == 0) {
+            return 0L;
+        }
+
+        //SplitMix64 finalizer, values are computed instead of tabled, so markers are not bounded
+        var z = ((long) place << 32 | (markers & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free visited-state set for the {@link ParallelStateSpaceExplorer}.
+ *
+ * Open addressing table over marking fingerprints, slots are claimed by compare-and-set, so workers never block
+ * each other. The table has a fixed capacity while workers insert concurrently: an insert into a table which
+ * reached its load limit is refused and the table is resized between two levels of the exploration.
+ */
+class ConcurrentStateTable {
+
+    /**
+     * Maximum load factor of the table in percent.
+     */
+    private static final int MAX_LOAD_PERCENT = 75;
+
+    private AtomicReferenceArray<Entry> slots;
+
+    /**
+     * Number of stored states, including slots currently reserved by inserting workers.
+     */
+    private final AtomicInteger size;
+
+    /**
+     * Maximum number of states to store (independent of the capacity).
+     */
+    private final int maxStates;
+
+    private int threshold;
+
+    /**
+     * @param capacity initial number of slots
+     * @param maxStates maximum number of states to store
+     */
+    ConcurrentStateTable(final int capacity, final int maxStates) {
+        this.slots = new AtomicReferenceArray<>(Integer.highestOneBit(Math.max(capacity, 1024) - 1) << 1);
+        this.size = new AtomicInteger();
+        this.maxStates = maxStates;
+        this.threshold = slots.length() / 100 * MAX_LOAD_PERCENT;
+    }
+
+    /**
+     * @return number of stored states
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * @return true if the maximum number of states is stored
+     */
+    boolean isAtStateLimit() {
+        return size.get() >= maxStates;
+    }
+
+    /**
+     * Add a marking, if no equal marking is stored yet (can be called concurrently).
+     *
+     * @param marking a marking vector
+     * @param fingerprint fingerprint of the marking
+     * @return the stored entry (check {@link Entry#getMarking()} identity to find out if it was added by this call),
+     *         or null if the marking is not stored and the table is full or at the state limit
+     */
+    Entry addIfAbsent(final int[] marking, final long fingerprint) {
+        final var table = slots;
+        final var mask = table.length() - 1;
+        var slot = HashedStateStore.slotOf(fingerprint, mask);
+        Entry added = null;
+
+        while (true) {
+            final var entry = table.get(slot);
+
+            if (entry == null) {
+                //reserve room for the new state before claiming the slot, so limits are never exceeded
+                if (size.incrementAndGet() > Math.min(threshold, maxStates)) {
+                    size.decrementAndGet();
+                    return null;
+                }
+
+                if (added == null) {
+                    added = new Entry(fingerprint, marking);
+                }
+
+                if (table.compareAndSet(slot, null, added)) {
+                    return added;
+                }
+
+                //another worker claimed the slot, check it again (it may hold an equal marking)
+                size.decrementAndGet();
+                continue;
+            }
+
+            if (entry.fingerprint == fingerprint && Arrays.equals(entry.marking, marking)) {
+                return entry;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Double the capacity of the table, must not be called while workers are inserting.
+     */
+    void grow() {
+        final var old = slots;
+        final var table = new AtomicReferenceArray<Entry>(old.length() * 2);
+        final var mask = table.length() - 1;
+
+        for (var i = 0; i < old.length(); i++) {
+            final var entry = old.get(i);
+
+            if (entry != null) {
+                var slot = HashedStateStore.slotOf(entry.fingerprint, mask);
+
+                while (table.get(slot) != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                table.set(slot, entry);
+            }
+        }
+
+        slots = table;
+        threshold = table.length() / 100 * MAX_LOAD_PERCENT;
+    }
+
+    /**
+     * @param expected number of states that may be added
+     * @return true if the table can take the expected number of additional states without reaching its load limit
+     */
+    boolean hasRoomFor(final int expected) {
+        return (long) size.get() + expected < threshold;
+    }
+
+    /**
+     * Assign dense ids to all stored entries.
+     *
+     * @return the stored entries, indexed by their id
+     */
+    Entry[] assignIds() {
+        final var entries = new Entry[size.get()];
+        var next = 0;
+
+        for (var i = 0; i < slots.length(); i++) {
+            final var entry = slots.get(i);
+
+            if (entry != null) {
+                entry.setId(next);
+                entries[next++] = entry;
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * A stored state, the id is assigned after the exploration finished.
+     */
+    static final class Entry {
+        private final long fingerprint;
+        private final int[] marking;
+        private int id;
+
+        /**
+         * Enabled transitions, set by the worker which discovered the state and released after its expansion.
+         */
+        private BitSet enabled;
+
+        private Entry(final long fingerprint, final int[] marking) {
+            this.fingerprint = fingerprint;
+            this.marking = marking;
+        }
+
+        long getFingerprint() {
+            return fingerprint;
+        }
+
+        int[] getMarking() {
+            return marking;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        void setId(final int id) {
+            this.id = id;
+        }
+
+        BitSet getEnabled() {
+            return enabled;
+        }
+
+        void setEnabled(final BitSet enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
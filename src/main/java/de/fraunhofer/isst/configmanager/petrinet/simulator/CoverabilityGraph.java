@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Karp-Miller coverability graph of a PetriNet, built by the {@link CoverabilityGraphBuilder}.
+ *
+ * The nodes are stored as {@link StepGraph}, places whose number of markers can grow without limit are marked with
+ * {@link #OMEGA} in the marking vectors. The graph is finite for every PetriNet, even if the PetriNet has infinitely
+ * many reachable states.
+ */
+@Getter
+@AllArgsConstructor
+public class CoverabilityGraph {
+    /**
+     * Marker count of a place which can hold arbitrarily many markers.
+     */
+    public static final int OMEGA = Integer.MAX_VALUE;
+
+    /**
+     * Nodes (omega markings) and arcs of the coverability graph.
+     */
+    private StepGraph stepGraph;
+
+    /**
+     * Maximum number of markers of every place (index of the compiled net), {@link #OMEGA} if unbounded.
+     */
+    private int[] bounds;
+
+    /**
+     * @return true if every place of the PetriNet is bounded (the PetriNet has finitely many reachable states)
+     */
+    public boolean isBounded() {
+        for (final var bound : bounds) {
+            if (bound == OMEGA) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param placeId ID of a place
+     * @return true if the number of markers on the place is bounded
+     * @throws IllegalArgumentException if the PetriNet has no place with the given ID
+     */
+    public boolean isBounded(final URI placeId) {
+        return getBound(placeId) != OMEGA;
+    }
+
+    /**
+     * @param placeId ID of a place
+     * @return maximum number of markers on the place, or {@link #OMEGA} if unbounded
+     * @throws IllegalArgumentException if the PetriNet has no place with the given ID
+     */
+    public int getBound(final URI placeId) {
+        final var place = stepGraph.getNet().getPlaceIndex(placeId);
+
+        if (place < 0) {
+            throw new IllegalArgumentException(String.format("Place %s is not part of the PetriNet!", placeId));
+        }
+
+        return bounds[place];
+    }
+
+    /**
+     * @return all places which can hold arbitrarily many markers
+     */
+    public List<Place> getUnboundedPlaces() {
+        final var unbounded = new ArrayList<Place>();
+
+        for (var place = 0; place < bounds.length; place++) {
+            if (bounds[place] == OMEGA) {
+                unbounded.add(stepGraph.getNet().getPlace(place));
+            }
+        }
+
+        return unbounded;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static de.fraunhofer.isst.configmanager.petrinet.simulator.CoverabilityGraph.OMEGA;
+
+/**
+ * Builds the Karp-Miller coverability graph of a PetriNet.
+ *
+ * Whenever a new marking strictly covers a marking on its path from the initial marking, the firing sequence in
+ * between can be repeated infinitely often, so the growing places are set to {@link CoverabilityGraph#OMEGA}.
+ * Equal markings are merged. This always terminates, also for PetriNets with marker generating circles.
+ */
+@UtilityClass
+public class CoverabilityGraphBuilder {
+
+    /**
+     * @param petriNet the initial PetriNet
+     * @return the coverability graph of the PetriNet
+     */
+    public static CoverabilityGraph build(final PetriNet petriNet) {
+        return build(new CompiledPetriNet(petriNet));
+    }
+
+    /**
+     * @param net the compiled PetriNet
+     * @return the coverability graph of the PetriNet
+     */
+    public static CoverabilityGraph build(final CompiledPetriNet net) {
+        final var stepGraph = new StepGraph(net, new HashedStateStore());
+        final var nodes = stepGraph.getSteps();
+        final var initial = net.getInitialMarking();
+        final var bounds = initial.clone();
+        final var queue = new ArrayDeque<Integer>();
+        //node from which every node was discovered first, the ancestors are checked for covered markings
+        var parents = new int[64];
+
+        nodes.addIfAbsent(initial, net.fingerprint(initial));
+        parents[0] = -1;
+        queue.add(0);
+
+        while (!queue.isEmpty()) {
+            final int node = queue.poll();
+            final var marking = nodes.get(node);
+
+            for (final var transition : net.getEnabledTransitions(marking)) {
+                final var next = fire(net, marking, transition);
+                accelerate(nodes, parents, node, next);
+
+                final var existing = nodes.addIfAbsent(next, net.fingerprint(next));
+                final var target = existing >= 0 ? existing : -existing - 1;
+
+                stepGraph.getArcs().add(new NetArc(node, target, net.getTransition(transition).getID()));
+
+                if (existing < 0) {
+                    if (target == parents.length) {
+                        parents = Arrays.copyOf(parents, target * 2);
+                    }
+
+                    parents[target] = node;
+                    queue.add(target);
+
+                    for (var place = 0; place < next.length; place++) {
+                        bounds[place] = Math.max(bounds[place], next[place]);
+                    }
+                }
+            }
+        }
+
+        return new CoverabilityGraph(stepGraph, bounds);
+    }
+
+    /**
+     * Use a transition in an omega marking, places with {@link CoverabilityGraph#OMEGA} markers stay unbounded.
+     *
+     * @param net the compiled PetriNet
+     * @param marking the current omega marking (will not be modified)
+     * @param transition index of the transition to use
+     * @return the omega marking after using the transition
+     */
+    private static int[] fire(final CompiledPetriNet net, final int[] marking, final int transition) {
+        final var next = net.fire(marking, transition);
+
+        for (var place = 0; place < marking.length; place++) {
+            if (marking[place] == OMEGA) {
+                next[place] = OMEGA;
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * Set all places to {@link CoverabilityGraph#OMEGA}, which grew compared to a covered marking on the path to the
+     * new marking.
+     *
+     * @param nodes the nodes of the coverability graph
+     * @param parents the parent of every node
+     * @param parent the node the new marking was reached from
+     * @param next the new marking (will be modified)
+     */
+    private static void accelerate(final StateStore nodes, final int[] parents, final int parent, final int[] next) {
+        for (var ancestor = parent; ancestor >= 0; ancestor = parents[ancestor]) {
+            final var covered = nodes.get(ancestor);
+
+            if (isStrictlyCovered(covered, next)) {
+                for (var place = 0; place < next.length; place++) {
+                    if (next[place] > covered[place]) {
+                        next[place] = OMEGA;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param covered an omega marking
+     * @param covering another omega marking
+     * @return true if the covering marking has at least the markers of the covered one on every place and is not equal
+     */
+    private static boolean isStrictlyCovered(final int[] covered, final int[] covering) {
+        var greater = false;
+
+        for (var place = 0; place < covered.length; place++) {
+            if (covering[place] < covered[place]) {
+                return false;
+            }
+
+            greater |= covering[place] > covered[place];
+        }
+
+        return greater;
+    }
+}
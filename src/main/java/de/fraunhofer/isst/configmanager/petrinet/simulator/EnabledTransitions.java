@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import java.util.BitSet;
+
+/**
+ * Mutable marking of a {@link CompiledPetriNet}, which keeps track of the enabled transitions incrementally.
+ *
+ * For every transition the number of input places without markers is counted, a transition is enabled if its
+ * counter is 0. Changing the markers of a place only updates the counters of its consumers, if the place gained
+ * its first or lost its last marker.
+ */
+public class EnabledTransitions {
+
+    private final CompiledPetriNet net;
+
+    private final int[] marking;
+
+    /**
+     * Number of input places without markers, for every transition.
+     */
+    private final int[] unsatisfied;
+
+    private final BitSet enabled;
+
+    /**
+     * @param net the compiled PetriNet
+     * @param marking the initial marking vector (will be copied)
+     */
+    public EnabledTransitions(final CompiledPetriNet net, final int[] marking) {
+        this.net = net;
+        this.marking = marking.clone();
+        this.unsatisfied = new int[net.getTransitionCount()];
+        this.enabled = new BitSet(net.getTransitionCount());
+
+        for (var transition = 0; transition < unsatisfied.length; transition++) {
+            for (final var place : net.getPreSet(transition)) {
+                if (marking[place] <= 0) {
+                    unsatisfied[transition]++;
+                }
+            }
+
+            enabled.set(transition, unsatisfied[transition] == 0);
+        }
+    }
+
+    /**
+     * @return the current marking vector (must not be modified, use {@link #setMarkers(int, int)})
+     */
+    public int[] getMarking() {
+        return marking;
+    }
+
+    /**
+     * @param transition index of a transition
+     * @return true if the transition is enabled in the current marking
+     */
+    public boolean isEnabled(final int transition) {
+        return enabled.get(transition);
+    }
+
+    /**
+     * @return number of enabled transitions
+     */
+    public int size() {
+        return enabled.cardinality();
+    }
+
+    /**
+     * @return true if no transition is enabled in the current marking
+     */
+    public boolean isEmpty() {
+        return enabled.isEmpty();
+    }
+
+    /**
+     * @return indices of all enabled transitions, in ascending order
+     */
+    public int[] toArray() {
+        return enabled.stream().toArray();
+    }
+
+    /**
+     * @param n position of an enabled transition, from 0 to {@link #size()} - 1
+     * @return index of the n-th enabled transition in ascending order
+     */
+    public int get(final int n) {
+        var transition = enabled.nextSetBit(0);
+
+        for (var i = 0; i < n; i++) {
+            transition = enabled.nextSetBit(transition + 1);
+        }
+
+        return transition;
+    }
+
+    /**
+     * @return a copy of the set of enabled transitions
+     */
+    public BitSet toBitSet() {
+        return (BitSet) enabled.clone();
+    }
+
+    /**
+     * Use a transition, without checking if it is enabled.
+     *
+     * @param transition index of the transition to use
+     */
+    public void fire(final int transition) {
+        final var inputs = net.getPreSet(transition);
+        final var inputWeights = net.getPreWeights(transition);
+        final var outputs = net.getPostSet(transition);
+        final var outputWeights = net.getPostWeights(transition);
+
+        for (var i = 0; i < inputs.length; i++) {
+            setMarkers(inputs[i], marking[inputs[i]] - inputWeights[i]);
+        }
+
+        for (var i = 0; i < outputs.length; i++) {
+            setMarkers(outputs[i], marking[outputs[i]] + outputWeights[i]);
+        }
+    }
+
+    /**
+     * Set the markers of a place and update the enabled consumers of the place.
+     *
+     * @param place index of a place
+     * @param markers new number of markers on the place
+     */
+    public void setMarkers(final int place, final int markers) {
+        final var wasMarked = marking[place] > 0;
+        marking[place] = markers;
+
+        if (wasMarked == markers > 0) {
+            return;
+        }
+
+        for (final var consumer : net.getConsumers(place)) {
+            unsatisfied[consumer] += wasMarked ? 1 : -1;
+            enabled.set(consumer, unsatisfied[consumer] == 0);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Budgets for a state space exploration, the {@link StateSpaceExplorer} stops and returns a partial
+ * {@link StepGraph} as soon as one of them is exceeded.
+ */
+@Getter
+@AllArgsConstructor
+public class ExplorationLimits {
+
+    /**
+     * Maximum number of states to discover.
+     */
+    private int maxStates;
+
+    /**
+     * Maximum distance (number of used transitions) from the initial marking, deeper states are not expanded
+     * (a state first found on a longer path is expanded again, when a shorter path to it is found).
+     */
+    private int maxDepth;
+
+    /**
+     * Maximum wall-clock time the exploration may take.
+     */
+    private Duration timeout;
+
+    /**
+     * Ceiling for the used heap memory in bytes, checked periodically during the exploration.
+     */
+    private long maxMemory;
+
+    /**
+     * @return limits which never stop an exploration (it may run indefinitely for unbounded PetriNets)
+     */
+    public static ExplorationLimits unlimited() {
+        return new ExplorationLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxStates maximum number of states to discover
+     * @param timeout maximum wall-clock time the exploration may take
+     * @return limits for the number of states and the exploration time
+     */
+    public static ExplorationLimits of(final int maxStates, final Duration timeout) {
+        return new ExplorationLimits(maxStates, Integer.MAX_VALUE, timeout, Long.MAX_VALUE);
+    }
+}
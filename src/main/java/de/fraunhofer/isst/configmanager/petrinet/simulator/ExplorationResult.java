@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of a state space exploration: the (possibly partial) {@link StepGraph} and the reason the exploration ended.
+ */
+@Getter
+@AllArgsConstructor
+public class ExplorationResult {
+
+    /**
+     * StepGraph containing every state discovered during exploration.
+     */
+    private StepGraph stepGraph;
+
+    private ExplorationStatus status;
+
+    /**
+     * @return true if every reachable state was explored
+     */
+    public boolean isComplete() {
+        return status == ExplorationStatus.COMPLETE;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+/**
+ * Completion status of a state space exploration, returned in the {@link ExplorationResult}.
+ */
+public enum ExplorationStatus {
+    /**
+     * All reachable states were explored.
+     */
+    COMPLETE,
+
+    /**
+     * Exploration stopped, because the maximum number of states was reached.
+     */
+    STATE_LIMIT,
+
+    /**
+     * All states up to the maximum depth were explored, deeper states were not expanded.
+     */
+    DEPTH_LIMIT,
+
+    /**
+     * Exploration stopped, because the deadline passed.
+     */
+    TIMEOUT,
+
+    /**
+     * Exploration stopped, because the used heap exceeded the memory ceiling.
+     */
+    MEMORY_LIMIT
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link StateStore} keeping markings on the heap, indexed by an open addressing hash table over their fingerprints.
+ *
+ * Lookups probe the table linearly, compare the stored fingerprints first and only compare the marking vectors
+ * if the fingerprints are equal, so duplicate detection takes constant time on average.
+ */
+public class HashedStateStore implements StateStore {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final List<int[]> markings;
+
+    private long[] fingerprints;
+
+    /**
+     * Open addressing table, holding (index + 1) of the stored markings, 0 marks an empty slot.
+     */
+    private int[] table;
+
+    public HashedStateStore() {
+        this.markings = new ArrayList<>();
+        this.fingerprints = new long[INITIAL_CAPACITY];
+        this.table = new int[INITIAL_CAPACITY * 2];
+    }
+
+    @Override
+    public int size() {
+        return markings.size();
+    }
+
+    @Override
+    public int[] get(final int index) {
+        return markings.get(index);
+    }
+
+    @Override
+    public long getFingerprint(final int index) {
+        return fingerprints[index];
+    }
+
+    @Override
+    public int indexOf(final int[] marking, final long fingerprint) {
+        return table[findSlot(marking, fingerprint)] - 1;
+    }
+
+    @Override
+    public int addIfAbsent(final int[] marking, final long fingerprint) {
+        final var slot = findSlot(marking, fingerprint);
+
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+
+        final var index = markings.size();
+
+        if (index == fingerprints.length) {
+            fingerprints = Arrays.copyOf(fingerprints, index * 2);
+        }
+
+        markings.add(marking);
+        fingerprints[index] = fingerprint;
+        table[slot] = index + 1;
+
+        //keep the load factor of the table at most 1/2
+        if (markings.size() * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+
+        return -index - 1;
+    }
+
+    /**
+     * @param marking a marking vector
+     * @param fingerprint the fingerprint of the marking
+     * @return the slot holding the equal marking, or the empty slot where it would be inserted
+     */
+    private int findSlot(final int[] marking, final long fingerprint) {
+        final var mask = table.length - 1;
+        var slot = slotOf(fingerprint, mask);
+
+        while (table[slot] != 0) {
+            final var index = table[slot] - 1;
+
+            if (fingerprints[index] == fingerprint && Arrays.equals(markings.get(index), marking)) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * @param capacity the new number of slots (power of 2)
+     */
+    private void rehash(final int capacity) {
+        final var newTable = new int[capacity];
+        final var mask = capacity - 1;
+
+        for (var index = 0; index < markings.size(); index++) {
+            var slot = slotOf(fingerprints[index], mask);
+
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            newTable[slot] = index + 1;
+        }
+
+        table = newTable;
+    }
+
+    /**
+     * @param fingerprint fingerprint of a marking
+     * @param mask table size - 1
+     * @return the first slot to probe for the fingerprint
+     */
+    static int slotOf(final long fingerprint, final int mask) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * State space of a PetriNet, explored on demand.
+ *
+ * Questions about the used transitions are answered as soon as possible: a transition is known to be used when the
+ * first state it is enabled in was discovered, only a negative answer needs the complete exploration. States beyond
+ * the given {@link ExplorationLimits} are never explored, so transitions only enabled there count as unused, and the
+ * status tells which limit cut the exploration short.
+ */
+@Slf4j
+public class LazyStateSpace {
+    /**
+     * Number of expanded states between two checks of the used heap memory.
+     */
+    private static final int MEMORY_CHECK_INTERVAL = 1024;
+
+    private final CompiledPetriNet net;
+
+    private final SearchOrder order;
+
+    private final ExplorationLimits limits;
+
+    private final long deadline;
+
+    private final StateStore steps;
+
+    /**
+     * Transitions enabled in any discovered state.
+     */
+    private final BitSet fired;
+
+    private int[] depths = new int[64];
+
+    /**
+     * States in the frontier, and states with enabled transitions not expanded because of the depth limit.
+     */
+    private final BitSet queued = new BitSet();
+
+    private final BitSet cut = new BitSet();
+
+    private final boolean bounded;
+
+    /**
+     * Discovered states which were not expanded yet, used as FIFO queue for breadth first and as stack for depth
+     * first search.
+     */
+    private int[] frontier = new int[64];
+
+    private int head;
+
+    private int tail;
+
+    private long expanded;
+
+    private ExplorationStatus status = ExplorationStatus.COMPLETE;
+
+    /**
+     * @param net the compiled PetriNet
+     * @param order order in which discovered states are expanded
+     * @param limits budgets for the exploration
+     */
+    public LazyStateSpace(final CompiledPetriNet net, final SearchOrder order, final ExplorationLimits limits) {
+        this.net = net;
+        this.order = order;
+        this.limits = limits;
+        this.deadline = limits.getTimeout() == null ? Long.MAX_VALUE : System.nanoTime() + limits.getTimeout().toNanos();
+        this.steps = new PackedStateStore(net);
+        this.fired = new BitSet(net.getTransitionCount());
+        this.bounded = limits.getMaxDepth() < Integer.MAX_VALUE;
+
+        discover(net.getInitialMarking(), net.fingerprint(net.getInitialMarking()), 0);
+    }
+
+    /**
+     * @return the compiled PetriNet
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * @return number of discovered states
+     */
+    public int getStateCount() {
+        return steps.size();
+    }
+
+    /**
+     * @return true if all reachable states were explored
+     */
+    public boolean isExplored() {
+        return head == tail && status == ExplorationStatus.COMPLETE;
+    }
+
+    /**
+     * @return COMPLETE, or the limit which stopped the exploration
+     */
+    public ExplorationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Explore until the transition is used or no states are left.
+     *
+     * @param transition index of a transition in the compiled net
+     * @return true if the transition is used in a reachable state
+     */
+    public boolean isFired(final int transition) {
+        while (!fired.get(transition) && expandNext()) {
+            //explore further
+        }
+
+        return fired.get(transition);
+    }
+
+    /**
+     * @param transition index of a transition in the compiled net
+     * @return true if the transition is used in the states explored so far (without exploring further)
+     */
+    public boolean isKnownFired(final int transition) {
+        return fired.get(transition);
+    }
+
+    /**
+     * Expand the next discovered state.
+     *
+     * @return false if there was no state left to expand, or a limit was reached
+     */
+    private boolean expandNext() {
+        if (head == tail || status != ExplorationStatus.COMPLETE) {
+            return false;
+        }
+
+        if (System.nanoTime() > deadline) {
+            return stop(ExplorationStatus.TIMEOUT);
+        }
+
+        if (++expanded % MEMORY_CHECK_INTERVAL == 0 && usedMemory() > limits.getMaxMemory()) {
+            return stop(ExplorationStatus.MEMORY_LIMIT);
+        }
+
+        final var state = order == SearchOrder.BREADTH_FIRST ? frontier[head++] : frontier[--tail];
+        final var marking = steps.get(state);
+        queued.clear(state);
+
+        if (depths[state] >= limits.getMaxDepth()) {
+            if (net.getEnabledTransitions(marking).length > 0) {
+                cut.set(state);
+            }
+
+            return head != tail || cut.isEmpty() || stop(ExplorationStatus.DEPTH_LIMIT);
+        }
+
+        cut.clear(state);
+
+        for (final var transition : net.getEnabledTransitions(marking)) {
+            final var successor = net.fire(marking, transition);
+            final var fingerprint = net.fingerprintAfterFiring(steps.getFingerprint(state), marking, successor, transition);
+
+            //only markings which were not discovered before count towards the state limit
+            if (steps.size() >= limits.getMaxStates()) {
+                if (steps.indexOf(successor, fingerprint) < 0) {
+                    return stop(ExplorationStatus.STATE_LIMIT);
+                }
+
+                continue;
+            }
+
+            discover(successor, fingerprint, depths[state] + 1);
+        }
+
+        return head != tail || cut.isEmpty() || stop(ExplorationStatus.DEPTH_LIMIT);
+    }
+
+    /**
+     * Add a marking, if it was not discovered before, its enabled transitions are used when it is expanded. Depth first
+     * search may find a state on a longer path first, with a maximum depth it is queued again with the shorter depth.
+     *
+     * @param marking a reachable marking
+     * @param fingerprint fingerprint of the marking
+     * @param depth distance of the marking from the initial marking
+     */
+    private void discover(final int[] marking, final long fingerprint, final int depth) {
+        final var existing = steps.addIfAbsent(marking, fingerprint);
+
+        if (existing >= 0 && (!bounded || depth >= depths[existing])) {
+            return;
+        }
+
+        final var index = existing >= 0 ? existing : -existing - 1;
+
+        if (index == depths.length) {
+            depths = Arrays.copyOf(depths, index * 2);
+        }
+
+        depths[index] = depth;
+
+        if (depth < limits.getMaxDepth()) {
+            for (final var transition : net.getEnabledTransitions(marking)) {
+                fired.set(transition);
+            }
+        }
+
+        if (queued.get(index)) {
+            return;
+        }
+
+        if (tail == frontier.length) {
+            //drop the already expanded part of the queue before growing
+            final var size = tail - head;
+            final var grown = size * 2 > frontier.length ? new int[frontier.length * 2] : frontier;
+            System.arraycopy(frontier, head, grown, 0, size);
+            frontier = grown;
+            head = 0;
+            tail = size;
+        }
+
+        frontier[tail++] = index;
+        queued.set(index);
+    }
+
+    private boolean stop(final ExplorationStatus reason) {
+        status = reason;
+
+        if (log.isWarnEnabled()) {
+            log.warn(String.format("Lazy state space exploration stopped with status %s after %d states!", reason, steps.size()));
+        }
+
+        return false;
+    }
+
+    /**
+     * @return currently used heap memory in bytes
+     */
+    private static long usedMemory() {
+        final var runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
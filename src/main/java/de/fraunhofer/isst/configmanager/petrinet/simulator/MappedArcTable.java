@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only arc list of a StepGraph loaded by {@link StepGraphFile}, viewing the arc table of the memory-mapped file.
+ *
+ * Every arc is stored as record (source state, target state, transition index), {@link NetArc}s are only created
+ * when single arcs are requested, the adjacency of the {@link StepGraph} is built from the records directly.
+ */
+final class MappedArcTable extends AbstractList<NetArc> implements RandomAccess {
+    /**
+     * Number of ints of an arc record.
+     */
+    private static final int RECORD_INTS = 3;
+
+    private static final int RECORDS_PER_CHUNK = OffHeapStateStore.MAX_CHUNK_BYTES / (RECORD_INTS * Integer.BYTES);
+
+    private final List<IntBuffer> chunks;
+
+    private final int size;
+
+    /**
+     * IDs of the transitions, by their index in the compiled net.
+     */
+    private final URI[] transitions;
+
+    /**
+     * @param channel channel of the file, opened for reading
+     * @param offset offset of the first arc record in the file
+     * @param size number of stored arcs
+     * @param transitions IDs of the transitions, by their index in the compiled net
+     * @throws IOException if the file cannot be mapped
+     */
+    MappedArcTable(final FileChannel channel,
+                   final long offset,
+                   final int size,
+                   final URI[] transitions) throws IOException {
+        this.chunks = new ArrayList<>();
+        this.size = size;
+        this.transitions = transitions;
+
+        final var chunkBytes = (long) RECORDS_PER_CHUNK * RECORD_INTS * Integer.BYTES;
+        final var length = (long) size * RECORD_INTS * Integer.BYTES;
+
+        for (var position = 0L; position < length; position += chunkBytes) {
+            chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, offset + position,
+                    Math.min(chunkBytes, length - position)).asIntBuffer());
+        }
+    }
+
+    /**
+     * @param arc index of an arc record
+     * @return index of the state the arc starts in
+     */
+    int getSource(final int arc) {
+        return field(arc, 0);
+    }
+
+    /**
+     * @param arc index of an arc record
+     * @return index of the state the arc ends in
+     */
+    int getTarget(final int arc) {
+        return field(arc, 1);
+    }
+
+    /**
+     * @param arc index of an arc record
+     * @return index of the used transition in the compiled net
+     */
+    int getTransition(final int arc) {
+        return field(arc, 2);
+    }
+
+    @Override
+    public NetArc get(final int arc) {
+        if (arc < 0 || arc >= size) {
+            throw new IndexOutOfBoundsException(String.format("Arc %d of %d!", arc, size));
+        }
+
+        return new NetArc(getSource(arc), getTarget(arc), transitions[getTransition(arc)]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int field(final int arc, final int field) {
+        return chunks.get(arc / RECORDS_PER_CHUNK).get((arc % RECORDS_PER_CHUNK) * RECORD_INTS + field);
+    }
+}
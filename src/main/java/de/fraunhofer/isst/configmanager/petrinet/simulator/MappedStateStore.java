@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * {@link StateStore} spilling the state records to a memory-mapped file, so state spaces larger than the heap
+ * (and larger than the physical memory) can be explored. Only the hash table over the fingerprints stays in memory.
+ *
+ * Stores loaded from a StepGraph file (see {@link StepGraphFile}) are read-only.
+ */
+public class MappedStateStore extends OffHeapStateStore implements AutoCloseable {
+
+    private final FileChannel channel;
+
+    /**
+     * Offset of the first state record in the file.
+     */
+    private final long offset;
+
+    private final boolean readOnly;
+
+    /**
+     * Create a store writing its state records to the given file (an existing file is overwritten).
+     *
+     * @param net the compiled PetriNet whose markings are stored
+     * @param file the file for the state records
+     * @throws IOException if the file cannot be created
+     */
+    public MappedStateStore(final CompiledPetriNet net, final Path file) throws IOException {
+        super(net.getPlaceCount(), Long.MAX_VALUE, recordsPerChunk(net.getPlaceCount()));
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.offset = 0;
+        this.readOnly = false;
+    }
+
+    /**
+     * Read-only store over state records contained in a file.
+     *
+     * @param placeCount number of places of the stored markings
+     * @param channel channel of the file, opened for reading
+     * @param offset offset of the first state record in the file
+     * @param count number of stored states
+     * @throws IOException if the file cannot be mapped
+     */
+    MappedStateStore(final int placeCount,
+                     final FileChannel channel,
+                     final long offset,
+                     final int count) throws IOException {
+        super(placeCount, Long.MAX_VALUE, recordsPerChunk(placeCount));
+        this.channel = channel;
+        this.offset = offset;
+        this.readOnly = true;
+
+        final var chunks = new ArrayList<ByteBuffer>();
+        final var length = (long) count * recordBytes(placeCount);
+
+        for (var position = 0L; position < length; position += chunkBytes()) {
+            chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, offset + position,
+                    Math.min(chunkBytes(), length - position)));
+        }
+
+        restore(chunks, count);
+    }
+
+    /**
+     * @param placeCount number of places of the stored markings
+     * @return number of state records in a mapped chunk
+     */
+    private static int recordsPerChunk(final int placeCount) {
+        return Math.max(1, MAX_CHUNK_BYTES / recordBytes(placeCount));
+    }
+
+    @Override
+    protected ByteBuffer allocateChunk(final int chunk) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, offset + (long) chunk * chunkBytes(), chunkBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean canAdd() {
+        return !readOnly && super.canAdd();
+    }
+
+    @Override
+    public int addIfAbsent(final int[] marking, final long fingerprint) {
+        if (readOnly) {
+            final var index = indexOf(marking, fingerprint);
+
+            if (index < 0) {
+                throw new UnsupportedOperationException("Markings cannot be added to a loaded StepGraph!");
+            }
+
+            return index;
+        }
+
+        return super.addIfAbsent(marking, fingerprint);
+    }
+
+    /**
+     * Close the file, the mapped state records stay readable.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
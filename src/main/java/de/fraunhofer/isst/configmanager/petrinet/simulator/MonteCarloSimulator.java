@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import lombok.experimental.UtilityClass;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Stochastic simulation of PetriNets, for quick probabilistic answers when the state space is too large to explore.
+ *
+ * Every trace starts in the initial marking and fires one randomly chosen enabled transition per step (all enabled
+ * transitions are equally likely), until no transition is enabled or the maximum number of steps is reached. The
+ * traces are independent and run in parallel on the common ForkJoinPool, the random generator of every trace is
+ * derived from the seed and the number of the trace, so the result only depends on the seed.
+ */
+@UtilityClass
+public class MonteCarloSimulator {
+    /**
+     * @param petriNet the initial PetriNet
+     * @param traces number of traces to simulate
+     * @param maxSteps maximum number of transitions fired in one trace
+     * @param seed seed of the random choices
+     * @return statistics aggregated over all traces
+     * @throws IllegalArgumentException if the number of traces or the maximum number of steps is negative
+     */
+    public static SimulationResult simulate(final PetriNet petriNet,
+                                            final int traces,
+                                            final int maxSteps,
+                                            final long seed) {
+        if (traces < 0 || maxSteps < 0) {
+            throw new IllegalArgumentException("Number of traces and steps must not be negative!");
+        }
+
+        final var net = new CompiledPetriNet(petriNet);
+
+        return IntStream.range(0, traces)
+                .parallel()
+                .collect(() -> new SimulationResult(net),
+                        (result, trace) -> simulateTrace(net, result, maxSteps, traceSeed(seed, trace)),
+                        SimulationResult::merge);
+    }
+
+    /**
+     * Simulate one trace and add it to the statistics.
+     */
+    private static void simulateTrace(final CompiledPetriNet net,
+                                      final SimulationResult result,
+                                      final int maxSteps,
+                                      final long seed) {
+        final var random = new SplittableRandom(seed);
+        final var state = new EnabledTransitions(net, net.getInitialMarking());
+        final var marking = state.getMarking();
+        final var reached = new BitSet(net.getPlaceCount());
+        var length = 0;
+
+        for (var place = 0; place < marking.length; place++) {
+            if (marking[place] > 0) {
+                reached.set(place);
+            }
+        }
+
+        while (length < maxSteps && !state.isEmpty()) {
+            final var transition = state.get(random.nextInt(state.size()));
+            state.fire(transition);
+            result.countFiring(transition);
+
+            for (final var place : net.getPostSet(transition)) {
+                reached.set(place);
+            }
+
+            length++;
+        }
+
+        result.countTrace(reached, length, state.isEmpty());
+    }
+
+    /**
+     * @return a well distributed seed for the trace (SplitMix64 finalizer)
+     */
+    private static long traceSeed(final long seed, final int trace) {
+        var z = seed + (trace + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
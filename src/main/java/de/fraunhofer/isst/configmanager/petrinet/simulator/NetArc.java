@@ -13,7 +13,6 @@
  */
 package de.fraunhofer.isst.configmanager.petrinet.simulator;
 
-import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
 import lombok.Getter;
 
 import java.net.URI;
@@ -24,19 +23,19 @@ import java.net.URI;
 @Getter
 public class NetArc {
     /**
-     * PetriNet from which target is reachable, using a transition.
+     * Index of the step from which target is reachable, using a transition.
      */
-    private PetriNet source;
+    private int source;
 
 
     /**
-     * PetriNet that can be reached from source, using a transition.
+     * Index of the step that can be reached from source, using a transition.
      */
-    private PetriNet target;
+    private int target;
 
     private URI usedTransition;
 
-    public NetArc(final PetriNet source, final PetriNet target, final URI usedTransition) {
+    public NetArc(final int source, final int target, final URI usedTransition) {
         this.source = source;
         this.target = target;
         this.usedTransition = usedTransition;
@@ -0,0 +1,279 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link StateStore} keeping the markings outside of the Java heap, in direct {@link ByteBuffer}s.
+ *
+ * Every state is stored as record (fingerprint, markers of every place) in fixed size chunks, the open addressing
+ * hash table over the fingerprints is a direct buffer as well. The store never allocates more than the given byte
+ * budget, {@link #canAdd()} returns false as soon as the next state would exceed it (the {@link StateSpaceExplorer}
+ * then stops with {@link ExplorationStatus#MEMORY_LIMIT}).
+ */
+public class OffHeapStateStore implements StateStore {
+    /**
+     * Maximum size of a single chunk of state records.
+     */
+    static final int MAX_CHUNK_BYTES = 1 << 26;
+
+    private static final int INITIAL_TABLE_SLOTS = 1 << 10;
+
+    private final int placeCount;
+
+    private final long maxBytes;
+
+    /**
+     * Size of a state record: 8 bytes fingerprint, 4 bytes for every place.
+     */
+    private final int recordBytes;
+
+    private final int recordsPerChunk;
+
+    private final List<ByteBuffer> chunks;
+
+    /**
+     * Open addressing table, holding (index + 1) of the stored markings, 0 marks an empty slot.
+     */
+    private ByteBuffer table;
+
+    private int tableSlots;
+
+    private int size;
+
+    /**
+     * @param net the compiled PetriNet whose markings are stored
+     * @param maxBytes maximum number of off-heap bytes the store may allocate
+     * @throws IllegalArgumentException if the budget is too small for the initial table and a single record
+     */
+    public OffHeapStateStore(final CompiledPetriNet net, final long maxBytes) {
+        this(net.getPlaceCount(), maxBytes,
+                (int) Math.max(1, Math.min(MAX_CHUNK_BYTES, maxBytes / 8) / recordBytes(net.getPlaceCount())));
+    }
+
+    /**
+     * @param placeCount number of places of the stored markings
+     * @param maxBytes maximum number of bytes the store may allocate
+     * @param recordsPerChunk number of state records in a chunk
+     */
+    protected OffHeapStateStore(final int placeCount, final long maxBytes, final int recordsPerChunk) {
+        this.placeCount = placeCount;
+        this.maxBytes = maxBytes;
+        this.recordBytes = recordBytes(placeCount);
+        this.recordsPerChunk = recordsPerChunk;
+        this.chunks = new ArrayList<>();
+        this.tableSlots = INITIAL_TABLE_SLOTS;
+
+        if (allocatedBytes() + chunkBytes() > maxBytes) {
+            throw new IllegalArgumentException(String.format("Off-heap budget of %d bytes is too small!", maxBytes));
+        }
+
+        this.table = ByteBuffer.allocateDirect(tableSlots * Integer.BYTES);
+    }
+
+    /**
+     * @return number of bytes allocated by the store
+     */
+    public long allocatedBytes() {
+        return (long) chunks.size() * chunkBytes() + (long) tableSlots * Integer.BYTES;
+    }
+
+    /**
+     * @param placeCount number of places of the stored markings
+     * @return size of a state record in bytes
+     */
+    static int recordBytes(final int placeCount) {
+        return Long.BYTES + Integer.BYTES * placeCount;
+    }
+
+    /**
+     * @return size of a chunk of state records in bytes
+     */
+    protected final int chunkBytes() {
+        return recordsPerChunk * recordBytes;
+    }
+
+    /**
+     * Allocate the buffer for a new chunk of state records.
+     *
+     * @param chunk index of the chunk
+     * @return a buffer of {@link #chunkBytes()} bytes
+     */
+    protected ByteBuffer allocateChunk(final int chunk) {
+        return ByteBuffer.allocateDirect(chunkBytes());
+    }
+
+    /**
+     * Take over state records which are already contained in the given chunks and index them.
+     *
+     * @param existing chunks holding the records of the states [0, count)
+     * @param count number of stored states
+     */
+    protected void restore(final List<ByteBuffer> existing, final int count) {
+        chunks.addAll(existing);
+        size = count;
+
+        var capacity = tableSlots;
+        while (size * 2 > capacity) {
+            capacity *= 2;
+        }
+
+        rehash(capacity);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int[] get(final int index) {
+        final var chunk = chunks.get(index / recordsPerChunk);
+        final var offset = (index % recordsPerChunk) * recordBytes + Long.BYTES;
+        final var marking = new int[placeCount];
+
+        for (var place = 0; place < placeCount; place++) {
+            marking[place] = chunk.getInt(offset + place * Integer.BYTES);
+        }
+
+        return marking;
+    }
+
+    @Override
+    public long getFingerprint(final int index) {
+        return chunks.get(index / recordsPerChunk).getLong((index % recordsPerChunk) * recordBytes);
+    }
+
+    @Override
+    public boolean canAdd() {
+        var required = allocatedBytes();
+
+        if (size == chunks.size() * recordsPerChunk) {
+            required += chunkBytes();
+        }
+
+        if ((size + 1) * 2 > tableSlots) {
+            //old and new table exist at the same time while rehashing
+            required += (long) tableSlots * 2 * Integer.BYTES;
+        }
+
+        return required <= maxBytes;
+    }
+
+    @Override
+    public int indexOf(final int[] marking, final long fingerprint) {
+        final var index = table.getInt(findSlot(marking, fingerprint) * Integer.BYTES) - 1;
+        return index >= 0 ? index : -1;
+    }
+
+    @Override
+    public int addIfAbsent(final int[] marking, final long fingerprint) {
+        final var slot = findSlot(marking, fingerprint);
+
+        if (table.getInt(slot * Integer.BYTES) != 0) {
+            return table.getInt(slot * Integer.BYTES) - 1;
+        }
+
+        if (!canAdd()) {
+            throw new IllegalStateException(String.format("Off-heap budget of %d bytes is exhausted!", maxBytes));
+        }
+
+        final var index = size++;
+
+        if (index == chunks.size() * recordsPerChunk) {
+            chunks.add(allocateChunk(chunks.size()));
+        }
+
+        final var chunk = chunks.get(index / recordsPerChunk);
+        final var offset = (index % recordsPerChunk) * recordBytes;
+        chunk.putLong(offset, fingerprint);
+
+        for (var place = 0; place < placeCount; place++) {
+            chunk.putInt(offset + Long.BYTES + place * Integer.BYTES, marking[place]);
+        }
+
+        table.putInt(slot * Integer.BYTES, index + 1);
+
+        //keep the load factor of the table at most 1/2
+        if (size * 2 > tableSlots) {
+            rehash(tableSlots * 2);
+        }
+
+        return -index - 1;
+    }
+
+    /**
+     * @param marking a marking vector
+     * @param fingerprint the fingerprint of the marking
+     * @return the slot holding the equal marking, or the empty slot where it would be inserted
+     */
+    private int findSlot(final int[] marking, final long fingerprint) {
+        final var mask = tableSlots - 1;
+        var slot = HashedStateStore.slotOf(fingerprint, mask);
+
+        while (table.getInt(slot * Integer.BYTES) != 0) {
+            final var index = table.getInt(slot * Integer.BYTES) - 1;
+
+            if (getFingerprint(index) == fingerprint && isStored(index, marking)) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * @param index index of a stored marking
+     * @param marking a marking vector
+     * @return true if the stored marking equals the given one
+     */
+    private boolean isStored(final int index, final int[] marking) {
+        final var chunk = chunks.get(index / recordsPerChunk);
+        final var offset = (index % recordsPerChunk) * recordBytes + Long.BYTES;
+
+        for (var place = 0; place < placeCount; place++) {
+            if (chunk.getInt(offset + place * Integer.BYTES) != marking[place]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param capacity the new number of slots (power of 2)
+     */
+    private void rehash(final int capacity) {
+        final var newTable = ByteBuffer.allocateDirect(capacity * Integer.BYTES);
+        final var mask = capacity - 1;
+
+        for (var index = 0; index < size; index++) {
+            var slot = HashedStateStore.slotOf(getFingerprint(index), mask);
+
+            while (newTable.getInt(slot * Integer.BYTES) != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            newTable.putInt(slot * Integer.BYTES, index + 1);
+        }
+
+        table = newTable;
+        tableSlots = capacity;
+    }
+}
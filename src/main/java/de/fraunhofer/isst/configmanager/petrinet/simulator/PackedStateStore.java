@@ -0,0 +1,239 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * {@link StateStore} for 1-safe PetriNets (at most one marker per place), e.g. the nets of AppRoutes.
+ *
+ * Markings are packed into long words (one bit per place) in a single array, so a state needs
+ * (number of places / 8) bytes instead of a full int array, and hashing and comparison work on whole words.
+ * If a marking with more than one marker on a place is added, the net is not 1-safe: all states are moved
+ * to a {@link HashedStateStore} (keeping their indices), which is used for the rest of the exploration.
+ */
+@Slf4j
+public class PackedStateStore implements StateStore {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final CompiledPetriNet net;
+
+    private final int wordCount;
+
+    /**
+     * Packed markings, the marking with index i uses the words [i * wordCount, (i + 1) * wordCount).
+     */
+    private long[] words;
+
+    private long[] fingerprints;
+
+    /**
+     * Open addressing table, holding (index + 1) of the stored markings, 0 marks an empty slot.
+     */
+    private int[] table;
+
+    private int size;
+
+    /**
+     * Store for markings which are not 1-safe, null as long as all markings are 1-safe.
+     */
+    private HashedStateStore fallback;
+
+    /**
+     * @param net the compiled PetriNet whose markings are stored
+     */
+    public PackedStateStore(final CompiledPetriNet net) {
+        this.net = net;
+        this.wordCount = net.getWordCount();
+        this.words = new long[Math.max(wordCount, 1) * INITIAL_CAPACITY];
+        this.fingerprints = new long[INITIAL_CAPACITY];
+        this.table = new int[INITIAL_CAPACITY * 2];
+    }
+
+    /**
+     * @return true as long as all stored markings are 1-safe and stored packed
+     */
+    public boolean isPacked() {
+        return fallback == null;
+    }
+
+    @Override
+    public int size() {
+        return fallback == null ? size : fallback.size();
+    }
+
+    @Override
+    public int[] get(final int index) {
+        return fallback == null ? net.unpack(getWords(index)) : fallback.get(index);
+    }
+
+    /**
+     * @param index index of a stored marking
+     * @return a copy of the packed marking (only while {@link #isPacked()})
+     */
+    public long[] getWords(final int index) {
+        return Arrays.copyOfRange(words, index * wordCount, (index + 1) * wordCount);
+    }
+
+    @Override
+    public long getFingerprint(final int index) {
+        return fallback == null ? fingerprints[index] : fallback.getFingerprint(index);
+    }
+
+    @Override
+    public int addIfAbsent(final int[] marking, final long fingerprint) {
+        if (fallback == null && !CompiledPetriNet.isSafe(marking)) {
+            unpackAll();
+        }
+
+        if (fallback != null) {
+            return fallback.addIfAbsent(marking, fingerprint);
+        }
+
+        return addIfAbsent(net.pack(marking), fingerprint);
+    }
+
+    @Override
+    public int indexOf(final int[] marking, final long fingerprint) {
+        if (fallback != null) {
+            return fallback.indexOf(marking, fingerprint);
+        }
+
+        //while packed, only 1-safe markings are stored
+        return CompiledPetriNet.isSafe(marking) ? indexOf(net.pack(marking), fingerprint) : -1;
+    }
+
+    /**
+     * @param marking a packed marking
+     * @param fingerprint the fingerprint of the marking
+     * @return index of the stored equal marking, or -1 if the marking is not stored (only while {@link #isPacked()})
+     */
+    public int indexOf(final long[] marking, final long fingerprint) {
+        return table[findSlot(marking, fingerprint)] - 1;
+    }
+
+    /**
+     * Add a packed 1-safe marking, if no equal marking is stored yet (only while {@link #isPacked()}).
+     *
+     * @param marking a packed marking
+     * @param fingerprint the fingerprint of the marking
+     * @return the index of the equal marking if it was already stored,
+     *         otherwise (-(index of the added marking) - 1)
+     */
+    public int addIfAbsent(final long[] marking, final long fingerprint) {
+        final var slot = findSlot(marking, fingerprint);
+
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+
+        final var index = size++;
+
+        if (index == fingerprints.length) {
+            fingerprints = Arrays.copyOf(fingerprints, index * 2);
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+
+        System.arraycopy(marking, 0, words, index * wordCount, wordCount);
+        fingerprints[index] = fingerprint;
+        table[slot] = index + 1;
+
+        //keep the load factor of the table at most 1/2
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+
+        return -index - 1;
+    }
+
+    /**
+     * @param marking a packed marking
+     * @param fingerprint the fingerprint of the marking
+     * @return the slot holding the equal marking, or the empty slot where it would be inserted
+     */
+    private int findSlot(final long[] marking, final long fingerprint) {
+        final var mask = table.length - 1;
+        var slot = HashedStateStore.slotOf(fingerprint, mask);
+
+        while (table[slot] != 0) {
+            final var index = table[slot] - 1;
+
+            if (fingerprints[index] == fingerprint && isStored(index, marking)) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * @param index index of a stored marking
+     * @param marking a packed marking
+     * @return true if the stored marking equals the given one
+     */
+    private boolean isStored(final int index, final long[] marking) {
+        final var offset = index * wordCount;
+
+        for (var i = 0; i < wordCount; i++) {
+            if (words[offset + i] != marking[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param capacity the new number of slots (power of 2)
+     */
+    private void rehash(final int capacity) {
+        final var newTable = new int[capacity];
+        final var mask = capacity - 1;
+
+        for (var index = 0; index < size; index++) {
+            var slot = HashedStateStore.slotOf(fingerprints[index], mask);
+
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            newTable[slot] = index + 1;
+        }
+
+        table = newTable;
+    }
+
+    /**
+     * Move all stored markings to a {@link HashedStateStore}, after a marking which is not 1-safe was found.
+     */
+    private void unpackAll() {
+        if (log.isInfoEnabled()) {
+            log.info(String.format("PetriNet is not 1-safe, unpacking %d stored markings!", size));
+        }
+
+        fallback = new HashedStateStore();
+
+        for (var index = 0; index < size; index++) {
+            fallback.addIfAbsent(net.unpack(getWords(index)), fingerprints[index]);
+        }
+
+        words = null;
+        fingerprints = null;
+        table = null;
+    }
+}
@@ -18,7 +18,6 @@ import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Methods to check parallel evaluation of a {@link de.fraunhofer.isst.configmanager.petrinet.model.PetriNet}
@@ -33,10 +32,16 @@ public class ParallelEvaluator {
      * @return true if at least n transitions fulfilling condition are parallely executed at some point
      */
     public static boolean nParallelTransitionsWithCondition(ArcSubExpression condition, int n, List<List<Transition>> parallelSets){
-        var setsWithSizeAtLeastN = parallelSets.stream().filter(transitions -> transitions.size() >= n).collect(Collectors.toSet());
-        for(var set: setsWithSizeAtLeastN){
-            if(set.stream().filter(condition::evaluate).count() >= n) return true;
-        }
-        return false;
+        return nParallelTransitionsWithCondition(condition, n, ParallelSetIndex.of(parallelSets));
+    }
+
+    /**
+     * @param condition a condition to be fulfilled by a transition
+     * @param n number of transitions to fulfill the condition in parallel
+     * @param index index of the parallel sets, reused for checking multiple conditions
+     * @return true if at least n transitions fulfilling condition are parallely executed at some point
+     */
+    public static boolean nParallelTransitionsWithCondition(ArcSubExpression condition, int n, ParallelSetIndex index){
+        return index.nParallelTransitionsWithCondition(condition, n);
     }
 }
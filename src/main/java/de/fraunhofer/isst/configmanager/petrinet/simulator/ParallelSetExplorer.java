@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.ContextObject;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Detection of parallel executions of APP transitions, without unfolding the PetriNet.
+ *
+ * The states of the unfolded PetriNet (see {@link PetriNetSimulator#getUnfoldedPetriNet(PetriNet)}) are the markings
+ * of the original places, extended by the number of running executions of every APP transition (the markers of its
+ * inner place). They are explored directly on the compiled original PetriNet: an APP transition is started by taking
+ * its input markers and ended by putting its output markers. Only the visited states are stored, no StepGraph arcs.
+ *
+ * The states are visited in the same order as in the breadth first StepGraph of the unfolded PetriNet, so the result
+ * equals {@link PetriNetSimulator#getParallelSets(StepGraph)} of that StepGraph.
+ */
+@UtilityClass
+public class ParallelSetExplorer {
+    private static final int FIRE = 0;
+    private static final int START = 1;
+    private static final int END = 2;
+
+    /**
+     * Find the possible parallel executions of APP transitions (runs indefinitely for PetriNets with infinitely many
+     * reachable states, like the exploration of the unfolded PetriNet).
+     *
+     * @param petriNet a PetriNet (transitions without context are handled like CONTROL transitions)
+     * @return for every reachable state with at least 2 running APP transitions, the running transitions
+     */
+    public static List<List<Transition>> findParallelSets(final PetriNet petriNet) {
+        final var net = new CompiledPetriNet(petriNet);
+        final var placeCount = net.getPlaceCount();
+
+        //APP transitions, ordered like the inner places of the unfolded PetriNet
+        final var apps = IntStream.range(0, net.getTransitionCount())
+                .filter(transition -> isApp(net.getTransition(transition)))
+                .boxed()
+                .sorted(Comparator.comparing(transition -> net.getTransition(transition).getID() + "_place"))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        final var slots = new int[net.getTransitionCount()];
+        Arrays.fill(slots, -1);
+
+        for (var i = 0; i < apps.length; i++) {
+            slots[apps[i]] = placeCount + i;
+        }
+
+        final var actions = actions(net, slots);
+        final var store = new HashedStateStore();
+        final var initial = Arrays.copyOf(net.getInitialMarking(), placeCount + apps.length);
+        final List<List<Transition>> parallelSets = new ArrayList<>();
+
+        store.addIfAbsent(initial, net.fingerprint(initial));
+
+        //states are indexed in the order they are found, so visiting them by index is a breadth first search
+        for (var state = 0; state < store.size(); state++) {
+            final var marking = store.get(state);
+            final List<Transition> running = new ArrayList<>();
+
+            for (var i = 0; i < apps.length; i++) {
+                if (marking[placeCount + i] > 0) {
+                    running.add(net.getTransition(apps[i]));
+                }
+            }
+
+            if (running.size() >= 2) {
+                parallelSets.add(running);
+            }
+
+            for (final var action : actions) {
+                final var transition = action[1];
+                final int[] next;
+
+                if (action[0] == END) {
+                    if (marking[slots[transition]] <= 0) {
+                        continue;
+                    }
+
+                    next = marking.clone();
+                    next[slots[transition]]--;
+                    addMarkers(next, net.getPostSet(transition), net.getPostWeights(transition), 1);
+                } else {
+                    if (!net.isEnabled(marking, transition)) {
+                        continue;
+                    }
+
+                    next = marking.clone();
+                    addMarkers(next, net.getPreSet(transition), net.getPreWeights(transition), -1);
+
+                    if (action[0] == START) {
+                        next[slots[transition]]++;
+                    } else {
+                        addMarkers(next, net.getPostSet(transition), net.getPostWeights(transition), 1);
+                    }
+                }
+
+                store.addIfAbsent(next, net.fingerprint(next));
+            }
+        }
+
+        return parallelSets;
+    }
+
+    /**
+     * @return {kind, transition} of the transitions of the unfolded PetriNet, ordered by their IDs
+     */
+    private static List<int[]> actions(final CompiledPetriNet net, final int[] slots) {
+        final List<int[]> actions = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+
+        for (var transition = 0; transition < net.getTransitionCount(); transition++) {
+            final var id = net.getTransition(transition).getID().toString();
+
+            if (slots[transition] < 0) {
+                actions.add(new int[]{FIRE, transition});
+                names.add(id);
+            } else {
+                actions.add(new int[]{START, transition});
+                names.add(id + "_start");
+                actions.add(new int[]{END, transition});
+                names.add(id + "_end");
+            }
+        }
+
+        return IntStream.range(0, actions.size())
+                .boxed()
+                .sorted(Comparator.comparing(names::get))
+                .map(actions::get)
+                .collect(Collectors.toList());
+    }
+
+    private static void addMarkers(final int[] marking, final int[] places, final int[] weights, final int sign) {
+        for (var i = 0; i < places.length; i++) {
+            marking[places[i]] += sign * weights[i];
+        }
+    }
+
+    private static boolean isApp(final Transition transition) {
+        return transition.getContext() != null && transition.getContext().getType() == ContextObject.TransType.APP;
+    }
+}
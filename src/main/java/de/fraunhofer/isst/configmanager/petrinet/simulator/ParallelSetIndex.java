@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.ArcSubExpression;
+import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the parallel sets of a PetriNet (found by the {@link ParallelSetExplorer}), for checking many
+ * conditions against the same sets.
+ *
+ * Every transition gets an index and every distinct parallel set is stored as BitSet, grouped by its number of
+ * transitions. A condition is evaluated once per transition and cached as BitSet of the fulfilling transitions, so
+ * checking a parallel set is an AND of two BitSets and counting the remaining bits.
+ *
+ * The index is thread-safe, conditions are cached by identity (reuse the same ArcSubExpression for repeated checks).
+ */
+public class ParallelSetIndex {
+
+    private final List<Transition> transitions;
+
+    /**
+     * Distinct parallel sets, indexed by their number of transitions.
+     */
+    private final List<List<BitSet>> setsBySize;
+
+    private final Map<ArcSubExpression, BitSet> conditions = new ConcurrentHashMap<>();
+
+    private ParallelSetIndex(final List<Transition> transitions, final List<List<BitSet>> setsBySize) {
+        this.transitions = transitions;
+        this.setsBySize = setsBySize;
+    }
+
+    /**
+     * @param parallelSets sets of parallel transitions
+     * @return index of the given sets
+     */
+    public static ParallelSetIndex of(final List<List<Transition>> parallelSets) {
+        final Map<Transition, Integer> indices = new IdentityHashMap<>();
+        final List<Transition> transitions = new ArrayList<>();
+        final Set<BitSet> distinct = new HashSet<>();
+        final List<List<BitSet>> setsBySize = new ArrayList<>();
+
+        for (final var parallelSet : parallelSets) {
+            final var bits = new BitSet();
+
+            for (final var transition : parallelSet) {
+                bits.set(indices.computeIfAbsent(transition, added -> {
+                    transitions.add(added);
+                    return transitions.size() - 1;
+                }));
+            }
+
+            if (distinct.add(bits)) {
+                final var size = bits.cardinality();
+
+                while (setsBySize.size() <= size) {
+                    setsBySize.add(new ArrayList<>());
+                }
+
+                setsBySize.get(size).add(bits);
+            }
+        }
+
+        return new ParallelSetIndex(transitions, setsBySize);
+    }
+
+    /**
+     * @return number of distinct transitions in the parallel sets
+     */
+    public int getTransitionCount() {
+        return transitions.size();
+    }
+
+    /**
+     * @return number of distinct parallel sets
+     */
+    public int getSetCount() {
+        return setsBySize.stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * @param condition a condition to be fulfilled by a transition
+     * @return indices of the transitions fulfilling the condition (cached, must not be modified)
+     */
+    public BitSet matching(final ArcSubExpression condition) {
+        return conditions.computeIfAbsent(condition, key -> {
+            final var matching = new BitSet(transitions.size());
+
+            for (var i = 0; i < transitions.size(); i++) {
+                if (key.evaluate(transitions.get(i))) {
+                    matching.set(i);
+                }
+            }
+
+            return matching;
+        });
+    }
+
+    /**
+     * @param condition a condition to be fulfilled by a transition
+     * @param n number of transitions to fulfill the condition in parallel
+     * @return true if at least n transitions fulfilling condition are parallely executed at some point
+     */
+    public boolean nParallelTransitionsWithCondition(final ArcSubExpression condition, final int n) {
+        final var matching = matching(condition);
+
+        if (matching.cardinality() < n) {
+            return false;
+        }
+
+        final var common = new BitSet(transitions.size());
+
+        for (var size = Math.max(n, 0); size < setsBySize.size(); size++) {
+            for (final var set : setsBySize.get(size)) {
+                common.clear();
+                common.or(set);
+                common.and(matching);
+
+                if (common.cardinality() >= n) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
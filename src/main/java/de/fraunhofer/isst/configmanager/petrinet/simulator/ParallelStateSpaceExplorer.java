@@ -0,0 +1,359 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.ConcurrentStateTable.Entry;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Breadth first state space exploration on multiple cores.
+ *
+ * Every level of the exploration is split over the workers of a {@link ForkJoinPool} (work stealing), which share a
+ * lock-free {@link ConcurrentStateTable} of visited states and collect the found arcs in per-worker buffers. The
+ * buffers are merged after the exploration and the states are renumbered in sequential breadth first order, so the
+ * resulting {@link StepGraph} is identical to the one of {@link PetriNetSimulator#buildStepGraph(PetriNet)}.
+ */
+@Slf4j
+@UtilityClass
+public class ParallelStateSpaceExplorer {
+    /**
+     * Maximum number of frontier states expanded by a single task without splitting it further.
+     */
+    private static final int SPLIT_THRESHOLD = 64;
+
+    /**
+     * Number of expanded states (per worker) between two checks of the used heap memory.
+     */
+    private static final int MEMORY_CHECK_INTERVAL = 1024;
+
+    /**
+     * Initial number of slots in the table of visited states.
+     */
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /**
+     * Explore the states reachable from the current marking of the given PetriNet, using the common ForkJoinPool.
+     *
+     * @param petriNet the initial PetriNet
+     * @param limits budgets for the exploration
+     * @return the StepGraph with all explored states and the completion status
+     */
+    public static ExplorationResult explore(final PetriNet petriNet, final ExplorationLimits limits) {
+        return explore(new CompiledPetriNet(petriNet), ForkJoinPool.commonPool(), limits);
+    }
+
+    /**
+     * Explore the states reachable from the initial marking of the given compiled PetriNet.
+     *
+     * @param net the compiled PetriNet
+     * @param pool the pool whose workers expand the states
+     * @param limits budgets for the exploration
+     * @return the StepGraph with all explored states and the completion status
+     */
+    public static ExplorationResult explore(final CompiledPetriNet net,
+                                            final ForkJoinPool pool,
+                                            final ExplorationLimits limits) {
+        final var deadline = limits.getTimeout() == null ? Long.MAX_VALUE : System.nanoTime() + limits.getTimeout().toNanos();
+        final var table = new ConcurrentStateTable(INITIAL_CAPACITY, limits.getMaxStates());
+        final var initial = net.getInitialMarking();
+        final var root = table.addIfAbsent(initial, net.fingerprint(initial));
+        root.setEnabled(net.getEnabledSet(initial));
+        final var exploration = new Exploration(net, table, limits.getMaxMemory(), deadline);
+
+        List<Entry> frontier = List.of(root);
+        var depth = 0;
+
+        while (!frontier.isEmpty() && exploration.status == ExplorationStatus.COMPLETE) {
+            if (depth >= limits.getMaxDepth()) {
+                if (frontier.stream().anyMatch(entry -> !entry.getEnabled().isEmpty())) {
+                    exploration.status = ExplorationStatus.DEPTH_LIMIT;
+                }
+                break;
+            }
+
+            final var next = new ArrayList<Entry>();
+            var pending = frontier;
+
+            while (!pending.isEmpty()) {
+                while (!table.hasRoomFor(pending.size())) {
+                    table.grow();
+                }
+
+                pool.invoke(new ExpandTask(exploration, pending, 0, pending.size()));
+
+                //states which could not be expanded, because the table was full, are expanded again after resizing
+                final var retries = new ArrayList<Entry>();
+
+                for (final var buffer : exploration.buffers.values()) {
+                    next.addAll(buffer.discovered);
+                    retries.addAll(buffer.retries);
+                    buffer.discovered.clear();
+                    buffer.retries.clear();
+                }
+
+                if (exploration.status != ExplorationStatus.COMPLETE) {
+                    break;
+                }
+
+                if (!retries.isEmpty()) {
+                    if (table.isAtStateLimit()) {
+                        exploration.status = ExplorationStatus.STATE_LIMIT;
+                        break;
+                    }
+                    table.grow();
+                }
+
+                pending = retries;
+            }
+
+            frontier = next;
+            depth++;
+        }
+
+        final var stepGraph = toStepGraph(net, table, root, exploration.buffers.values());
+
+        if (exploration.status != ExplorationStatus.COMPLETE && log.isWarnEnabled()) {
+            log.warn(String.format("Parallel state space exploration stopped with status %s after %d states!",
+                    exploration.status, stepGraph.getSteps().size()));
+        }
+
+        return new ExplorationResult(stepGraph, exploration.status);
+    }
+
+    /**
+     * Merge the arcs of all workers and number the states in the order a sequential breadth first search visits them.
+     *
+     * @param net the compiled PetriNet
+     * @param table the visited states
+     * @param root the initial state
+     * @param buffers the buffers of all workers
+     * @return the StepGraph with canonically numbered states and arcs
+     */
+    private static StepGraph toStepGraph(final CompiledPetriNet net,
+                                         final ConcurrentStateTable table,
+                                         final Entry root,
+                                         final Iterable<WorkerBuffer> buffers) {
+        final var entries = table.assignIds();
+
+        //counting sort of all arcs by source, arcs of one source stay ordered by transition
+        final var offsets = new int[entries.length + 1];
+
+        for (final var buffer : buffers) {
+            for (var i = 0; i < buffer.arcCount; i++) {
+                offsets[buffer.sources[i].getId() + 1]++;
+            }
+        }
+
+        for (var i = 0; i < entries.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        final var targets = new int[offsets[entries.length]];
+        final var transitions = new int[targets.length];
+        final var fill = Arrays.copyOf(offsets, entries.length);
+
+        for (final var buffer : buffers) {
+            for (var i = 0; i < buffer.arcCount; i++) {
+                final var position = fill[buffer.sources[i].getId()]++;
+                targets[position] = buffer.targets[i].getId();
+                transitions[position] = buffer.transitions[i];
+            }
+        }
+
+        //breadth first renumbering, matching the sequential exploration
+        final var stepGraph = new StepGraph(net, new PackedStateStore(net));
+        final var steps = stepGraph.getSteps();
+        final var order = new int[entries.length];
+        final var index = new int[entries.length];
+        Arrays.fill(index, -1);
+
+        order[0] = root.getId();
+        index[root.getId()] = 0;
+        steps.addIfAbsent(root.getMarking(), root.getFingerprint());
+
+        for (var head = 0; head < steps.size(); head++) {
+            final var source = order[head];
+
+            for (var arc = offsets[source]; arc < offsets[source + 1]; arc++) {
+                final var target = targets[arc];
+
+                if (index[target] < 0) {
+                    index[target] = steps.size();
+                    order[steps.size()] = target;
+                    steps.addIfAbsent(entries[target].getMarking(), entries[target].getFingerprint());
+                }
+
+                stepGraph.getArcs().add(new NetArc(head, index[target], net.getTransition(transitions[arc]).getID()));
+            }
+        }
+
+        return stepGraph;
+    }
+
+    /**
+     * @return currently used heap memory in bytes
+     */
+    private static long usedMemory() {
+        final var runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * State shared by all workers of one exploration.
+     */
+    private static final class Exploration {
+        private final CompiledPetriNet net;
+        private final ConcurrentStateTable table;
+        private final long maxMemory;
+        private final long deadline;
+        private final Map<Thread, WorkerBuffer> buffers = new ConcurrentHashMap<>();
+        private volatile ExplorationStatus status = ExplorationStatus.COMPLETE;
+
+        private Exploration(final CompiledPetriNet net,
+                            final ConcurrentStateTable table,
+                            final long maxMemory,
+                            final long deadline) {
+            this.net = net;
+            this.table = table;
+            this.maxMemory = maxMemory;
+            this.deadline = deadline;
+        }
+
+        private WorkerBuffer buffer() {
+            return buffers.computeIfAbsent(Thread.currentThread(), thread -> new WorkerBuffer());
+        }
+
+        /**
+         * Expand a single state, the arcs and newly discovered states are added to the buffer of the current worker.
+         *
+         * @param source the state to expand
+         * @param buffer buffer of the current worker
+         */
+        private void expand(final Entry source, final WorkerBuffer buffer) {
+            final var marking = source.getMarking();
+            final var enabled = source.getEnabled();
+            final var mark = buffer.arcCount;
+
+            for (var transition = enabled.nextSetBit(0); transition >= 0; transition = enabled.nextSetBit(transition + 1)) {
+                final var next = net.fire(marking, transition);
+                final var fingerprint = net.fingerprintAfterFiring(source.getFingerprint(), marking, next, transition);
+                final var target = table.addIfAbsent(next, fingerprint);
+
+                if (target == null) {
+                    if (table.isAtStateLimit()) {
+                        status = ExplorationStatus.STATE_LIMIT;
+                    }
+
+                    //drop the partial expansion, the state is expanded again after the table was resized
+                    buffer.arcCount = mark;
+                    buffer.retries.add(source);
+                    return;
+                }
+
+                if (target.getMarking() == next) {
+                    target.setEnabled(net.getEnabledSetAfterFiring(enabled, marking, next, transition));
+                    buffer.discovered.add(target);
+                }
+
+                buffer.addArc(source, target, transition);
+            }
+
+            source.setEnabled(null);
+        }
+    }
+
+    /**
+     * Arcs and discovered states of a single worker.
+     */
+    private static final class WorkerBuffer {
+        private final List<Entry> discovered = new ArrayList<>();
+        private final List<Entry> retries = new ArrayList<>();
+        private Entry[] sources = new Entry[256];
+        private Entry[] targets = new Entry[256];
+        private int[] transitions = new int[256];
+        private int arcCount;
+        private long expanded;
+
+        private void addArc(final Entry source, final Entry target, final int transition) {
+            if (arcCount == transitions.length) {
+                sources = Arrays.copyOf(sources, arcCount * 2);
+                targets = Arrays.copyOf(targets, arcCount * 2);
+                transitions = Arrays.copyOf(transitions, arcCount * 2);
+            }
+
+            sources[arcCount] = source;
+            targets[arcCount] = target;
+            transitions[arcCount++] = transition;
+        }
+    }
+
+    /**
+     * Expands a range of the current frontier, splitting it into subtasks for idle workers.
+     */
+    private static final class ExpandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Exploration exploration;
+        private final transient List<Entry> frontier;
+        private final int from;
+        private final int to;
+
+        private ExpandTask(final Exploration exploration, final List<Entry> frontier, final int from, final int to) {
+            this.exploration = exploration;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                final var middle = (from + to) >>> 1;
+                invokeAll(new ExpandTask(exploration, frontier, from, middle),
+                        new ExpandTask(exploration, frontier, middle, to));
+                return;
+            }
+
+            final var buffer = exploration.buffer();
+
+            for (var i = from; i < to; i++) {
+                if (exploration.status != ExplorationStatus.COMPLETE) {
+                    return;
+                }
+
+                if (System.nanoTime() > exploration.deadline) {
+                    exploration.status = ExplorationStatus.TIMEOUT;
+                    return;
+                }
+
+                if (++buffer.expanded % MEMORY_CHECK_INTERVAL == 0 && usedMemory() > exploration.maxMemory) {
+                    exploration.status = ExplorationStatus.MEMORY_LIMIT;
+                    return;
+                }
+
+                exploration.expand(frontier.get(i), buffer);
+            }
+        }
+    }
+}
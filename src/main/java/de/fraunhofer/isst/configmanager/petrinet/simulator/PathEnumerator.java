@@ -0,0 +1,369 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy depth first enumeration of all paths through a PetriNet (Place -> Transition if the transition is used in the
+ * StepGraph, Transition -> Place for every output place).
+ *
+ * Every path with at least one step is returned, a path is extended as long as it contains no node twice (so the last
+ * node of a path may close a circle). Only the current path is kept in memory, so the memory needed is bounded by the
+ * length of the longest path. Paths are returned in depth first order, sorting them by length gives the order of a
+ * breadth first enumeration.
+ *
+ * The paths with different prefixes are independent, so they can also be enumerated by the workers of a
+ * {@link ForkJoinPool}: the work is split by start node, and again at the branching nodes close to the start. The
+ * results are concatenated in depth first order, so they are identical to a sequential enumeration.
+ */
+public final class PathEnumerator implements Iterator<List<Node>> {
+    /**
+     * Prefixes ending in a node with at least this many successors are split into one task per successor.
+     */
+    private static final int SPLIT_FAN_OUT = 2;
+
+    /**
+     * Prefixes are only split until they reach this length, longer ones are enumerated by a single task.
+     */
+    private static final int MAX_SPLIT_LENGTH = 4;
+
+    private final Node[] nodes;
+
+    /**
+     * Successors of every node on a path, as indices into nodes.
+     */
+    private final int[][] successors;
+
+    /**
+     * Node indices of the current path.
+     */
+    private final int[] path;
+
+    /**
+     * Position of the next successor to try, for every node of the current path.
+     */
+    private final int[] cursor;
+
+    /**
+     * Nodes on the current path (except a closing node at its end).
+     */
+    private final BitSet onPath;
+
+    /**
+     * Length of the fixed prefix all enumerated paths start with (0 to enumerate the paths of all start nodes).
+     */
+    private final int floor;
+
+    private int length;
+
+    /**
+     * True if the fixed prefix still has to be returned as path.
+     */
+    private boolean prefixPending;
+
+    /**
+     * True if the last node of the current path closes a circle, such a path is not extended.
+     */
+    private boolean closed;
+
+    private int nextStart;
+
+    private List<Node> next;
+
+    /**
+     * @param stepGraph StepGraph of a PetriNet, the paths are enumerated over its initial PetriNet
+     */
+    public PathEnumerator(final StepGraph stepGraph) {
+        final var netNodes = stepGraph.getInitial().getNodes();
+        final Map<Node, Integer> indices = new IdentityHashMap<>();
+
+        for (final var node : netNodes) {
+            indices.putIfAbsent(node, indices.size());
+        }
+
+        final var targets = netNodes.stream()
+                .map(node -> successorsOf(stepGraph, node))
+                .collect(Collectors.toList());
+
+        //targets of arcs which are not part of the node list are indexed too (they are the end of their paths)
+        targets.forEach(list -> list.forEach(target -> indices.putIfAbsent(target, indices.size())));
+
+        this.nodes = new Node[indices.size()];
+        indices.forEach((node, index) -> nodes[index] = node);
+        this.successors = new int[nodes.length][];
+
+        for (var i = 0; i < nodes.length; i++) {
+            successors[i] = i < targets.size()
+                    ? targets.get(i).stream().mapToInt(indices::get).toArray()
+                    : new int[0];
+        }
+
+        this.path = new int[nodes.length + 1];
+        this.cursor = new int[nodes.length + 1];
+        this.onPath = new BitSet(nodes.length);
+        this.floor = 0;
+    }
+
+    /**
+     * Enumerate the paths starting with a prefix (including the prefix itself, if it has at least one step).
+     *
+     * @param graph enumerator whose nodes and successors are shared
+     * @param prefix node indices of the prefix
+     */
+    private PathEnumerator(final PathEnumerator graph, final int[] prefix) {
+        this.nodes = graph.nodes;
+        this.successors = graph.successors;
+        this.path = new int[nodes.length + 1];
+        this.cursor = new int[nodes.length + 1];
+        this.onPath = new BitSet(nodes.length);
+        this.floor = prefix.length;
+        this.prefixPending = prefix.length > 1;
+
+        for (final var node : prefix) {
+            push(node);
+        }
+    }
+
+    /**
+     * Enumerate all paths on the workers of a pool.
+     *
+     * @param stepGraph StepGraph of a PetriNet
+     * @param pool the pool whose workers enumerate the paths
+     * @return all paths through the PetriNet, in the same order as the sequential enumeration
+     */
+    public static List<List<Node>> collect(final StepGraph stepGraph, final ForkJoinPool pool) {
+        final var graph = new PathEnumerator(stepGraph);
+        final var starts = IntStream.range(0, graph.nodes.length)
+                .filter(node -> graph.successors[node].length > 0)
+                .mapToObj(node -> new EnumerateTask(graph, new int[]{node}))
+                .collect(Collectors.toList());
+
+        return pool.invoke(new ConcatTask(starts));
+    }
+
+    /**
+     * @param stepGraph StepGraph of a PetriNet
+     * @return all paths through the PetriNet, enumerated lazily
+     */
+    public static Stream<List<Node>> stream(final StepGraph stepGraph) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new PathEnumerator(stepGraph),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = advance();
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public List<Node> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final var current = next;
+        next = null;
+        return current;
+    }
+
+    /**
+     * Take the next step of the depth first search.
+     *
+     * @return the next path, or null if all paths were enumerated
+     */
+    private List<Node> advance() {
+        if (prefixPending) {
+            prefixPending = false;
+            return currentPath();
+        }
+
+        while (true) {
+            if (length < floor) {
+                return null;
+            }
+
+            if (length == 0) {
+                //start at the next node which has successors
+                while (nextStart < successors.length && successors[nextStart].length == 0) {
+                    nextStart++;
+                }
+
+                if (nextStart == successors.length) {
+                    return null;
+                }
+
+                push(nextStart++);
+            }
+
+            final var last = path[length - 1];
+
+            if (!closed && cursor[length - 1] < successors[last].length) {
+                push(successors[last][cursor[length - 1]++]);
+                return currentPath();
+            }
+
+            pop();
+        }
+    }
+
+    private void push(final int node) {
+        closed = onPath.get(node);
+
+        if (!closed) {
+            onPath.set(node);
+        }
+
+        path[length] = node;
+        cursor[length] = 0;
+        length++;
+    }
+
+    private void pop() {
+        length--;
+
+        if (closed) {
+            //the parent of a closing node is always open
+            closed = false;
+        } else {
+            onPath.clear(path[length]);
+        }
+    }
+
+    private List<Node> currentPath() {
+        final var current = new Node[length];
+
+        for (var i = 0; i < length; i++) {
+            current[i] = nodes[path[i]];
+        }
+
+        return List.of(current);
+    }
+
+    /**
+     * @param stepGraph StepGraph of the PetriNet
+     * @param node a node of the PetriNet
+     * @return the nodes following the given one on a path
+     */
+    private static List<Node> successorsOf(final StepGraph stepGraph, final Node node) {
+        if (node instanceof Place) {
+            return node.getSourceArcs().stream().map(Arc::getTarget)
+                    .filter(trans -> stepGraph.isFired(trans.getID()))
+                    .collect(Collectors.toList());
+        }
+
+        if (node instanceof Transition) {
+            return List.copyOf(node.getSourceArcs().stream().map(Arc::getTarget).collect(Collectors.toSet()));
+        }
+
+        return List.of();
+    }
+
+    /**
+     * Enumerates the paths starting with a prefix, splitting it into one subtask per successor of its last node.
+     */
+    private static final class EnumerateTask extends RecursiveTask<List<List<Node>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient PathEnumerator graph;
+        private final int[] prefix;
+
+        private EnumerateTask(final PathEnumerator graph, final int[] prefix) {
+            this.graph = graph;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected List<List<Node>> compute() {
+            final var last = prefix[prefix.length - 1];
+            final var following = graph.successors[last];
+            final var closed = Arrays.stream(prefix, 0, prefix.length - 1).anyMatch(node -> node == last);
+
+            if (closed || prefix.length >= MAX_SPLIT_LENGTH || following.length < SPLIT_FAN_OUT) {
+                final List<List<Node>> paths = new ArrayList<>();
+                new PathEnumerator(graph, prefix).forEachRemaining(paths::add);
+                return paths;
+            }
+
+            final var subtasks = Arrays.stream(following)
+                    .mapToObj(node -> {
+                        final var extended = Arrays.copyOf(prefix, prefix.length + 1);
+                        extended[prefix.length] = node;
+                        return new EnumerateTask(graph, extended);
+                    })
+                    .collect(Collectors.toList());
+            invokeAll(subtasks);
+            final List<List<Node>> paths = new ArrayList<>();
+
+            if (prefix.length > 1) {
+                paths.add(new PathEnumerator(graph, prefix).next());
+            }
+
+            for (final var subtask : subtasks) {
+                paths.addAll(subtask.join());
+            }
+
+            return paths;
+        }
+    }
+
+    /**
+     * Runs tasks in parallel and concatenates their results in the order of the tasks.
+     */
+    private static final class ConcatTask extends RecursiveTask<List<List<Node>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<EnumerateTask> tasks;
+
+        private ConcatTask(final List<EnumerateTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected List<List<Node>> compute() {
+            invokeAll(tasks);
+            final List<List<Node>> paths = new ArrayList<>();
+
+            for (final var task : tasks) {
+                paths.addAll(task.join());
+            }
+
+            return paths;
+        }
+    }
+}
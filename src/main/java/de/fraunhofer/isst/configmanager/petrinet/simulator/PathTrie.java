@@ -0,0 +1,326 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+
+import java.net.URI;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, immutable store for a list of paths: paths sharing a prefix share its vertices in a trie of int node ids.
+ *
+ * Each trie vertex only holds its node id, its parent and its depth, a path is the vertex its last node is stored in.
+ * Paths are returned as lightweight views, which are only valid as long as the trie is. The paths starting at a node
+ * are indexed, so they can be found without scanning the whole list.
+ */
+public final class PathTrie extends AbstractList<List<Node>> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Nodes of the paths, the node id is the index into this array.
+     */
+    private final Node[] nodes;
+
+    private final int[] vertexNode;
+
+    private final int[] vertexParent;
+
+    private final int[] vertexDepth;
+
+    /**
+     * Last vertex of every path, in the order of the paths.
+     */
+    private final int[] pathEnds;
+
+    /**
+     * Indices of the paths starting at each node (by node id), in the order of the paths.
+     */
+    private final int[][] startIndex;
+
+    /**
+     * Ids of the nodes starting a path, by the ID of the node. Nodes are compared with equals, which is not consistent
+     * with their hashCode, so they are looked up by ID and then compared.
+     */
+    private final Map<URI, int[]> startNodes;
+
+    private PathTrie(final List<List<Node>> paths) {
+        final Map<Node, Integer> nodeIds = new HashMap<>();
+        final List<Node> nodeList = new ArrayList<>();
+        final Map<Long, Integer> children = new HashMap<>();
+        final Map<Integer, List<Integer>> starts = new HashMap<>();
+
+        var node = new int[INITIAL_CAPACITY];
+        var parent = new int[INITIAL_CAPACITY];
+        var depth = new int[INITIAL_CAPACITY];
+        var vertexCount = 0;
+
+        this.pathEnds = new int[paths.size()];
+
+        for (var i = 0; i < paths.size(); i++) {
+            final var path = paths.get(i);
+            //-1 is the root of the trie
+            var vertex = -1;
+
+            if (!path.isEmpty()) {
+                final var start = nodeIds.computeIfAbsent(path.get(0), key -> {
+                    nodeList.add(key);
+                    return nodeList.size() - 1;
+                });
+                starts.computeIfAbsent(start, key -> new ArrayList<>()).add(i);
+            }
+
+            for (final var pathNode : path) {
+                final int id = nodeIds.computeIfAbsent(pathNode, key -> {
+                    nodeList.add(key);
+                    return nodeList.size() - 1;
+                });
+                final var key = ((long) vertex << 32) | id;
+                final var child = children.get(key);
+
+                if (child != null) {
+                    vertex = child;
+                    continue;
+                }
+
+                if (vertexCount == node.length) {
+                    node = Arrays.copyOf(node, vertexCount * 2);
+                    parent = Arrays.copyOf(parent, vertexCount * 2);
+                    depth = Arrays.copyOf(depth, vertexCount * 2);
+                }
+
+                node[vertexCount] = id;
+                parent[vertexCount] = vertex;
+                depth[vertexCount] = vertex < 0 ? 1 : depth[vertex] + 1;
+                children.put(key, vertexCount);
+                vertex = vertexCount++;
+            }
+
+            pathEnds[i] = vertex;
+        }
+
+        this.nodes = nodeList.toArray(new Node[0]);
+        this.vertexNode = Arrays.copyOf(node, vertexCount);
+        this.vertexParent = Arrays.copyOf(parent, vertexCount);
+        this.vertexDepth = Arrays.copyOf(depth, vertexCount);
+        this.startIndex = new int[nodes.length][];
+        final Map<URI, List<Integer>> startIds = new HashMap<>();
+
+        starts.forEach((start, indices) -> {
+            startIndex[start] = indices.stream().mapToInt(Integer::intValue).toArray();
+            startIds.computeIfAbsent(nodes[start].getID(), key -> new ArrayList<>()).add(start);
+        });
+
+        this.startNodes = new HashMap<>();
+        startIds.forEach((id, starting) -> startNodes.put(id, starting.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * @param paths a list of paths
+     * @return a trie containing the paths in the same order (or the given paths, if they already are a trie)
+     */
+    public static PathTrie of(final List<List<Node>> paths) {
+        return paths instanceof PathTrie ? (PathTrie) paths : new PathTrie(paths);
+    }
+
+    /**
+     * @param start a node
+     * @return all paths starting at a node equal to the given one, in the order of the trie
+     */
+    public List<List<Node>> startingAt(final Node start) {
+        final var indices = Arrays.stream(startNodes.getOrDefault(start.getID(), new int[0]))
+                .filter(id -> nodes[id].equals(start))
+                .flatMap(id -> Arrays.stream(startIndex[id]))
+                .sorted()
+                .toArray();
+
+        return new AbstractList<>() {
+            @Override
+            public List<Node> get(final int index) {
+                return PathTrie.this.get(indices[index]);
+            }
+
+            @Override
+            public int size() {
+                return indices.length;
+            }
+        };
+    }
+
+    /**
+     * Find all paths which are contained in another path starting at the same node (as contiguous subpath).
+     *
+     * A path contained at the start of another path is a proper prefix of it, so its last vertex has a child. A path
+     * contained later in another path starts at a node the other path returns to, so the rest of the other path
+     * after that node is walked down the trie, every path ending on the way is contained in it.
+     *
+     * @return indices of the contained paths
+     */
+    public BitSet findSubpaths() {
+        final var vertexCount = vertexNode.length;
+        final var ends = new BitSet(vertexCount);
+
+        for (final var end : pathEnds) {
+            if (end >= 0) {
+                ends.set(end);
+            }
+        }
+
+        //children of every vertex sorted by node id (the root -1 is stored at offset 0), for walking down the trie
+        final var childOffsets = new int[vertexCount + 2];
+
+        for (final var parent : vertexParent) {
+            childOffsets[parent + 2]++;
+        }
+
+        for (var i = 2; i < childOffsets.length; i++) {
+            childOffsets[i] += childOffsets[i - 1];
+        }
+
+        final var children = new int[vertexCount];
+        final var fill = Arrays.copyOf(childOffsets, vertexCount + 1);
+
+        for (var vertex = 0; vertex < vertexCount; vertex++) {
+            children[fill[vertexParent[vertex] + 1]++] = vertex;
+        }
+
+        for (var vertex = -1; vertex < vertexCount; vertex++) {
+            final var from = childOffsets[vertex + 1];
+            final var to = childOffsets[vertex + 2];
+            final var sorted = Arrays.stream(children, from, to).boxed()
+                    .sorted(Comparator.comparingInt(child -> vertexNode[child]))
+                    .mapToInt(Integer::intValue).toArray();
+            System.arraycopy(sorted, 0, children, from, sorted.length);
+        }
+
+        final var contained = new BitSet(vertexCount);
+
+        for (var vertex = 0; vertex < vertexCount; vertex++) {
+            if (childOffsets[vertex + 2] > childOffsets[vertex + 1]) {
+                contained.set(vertex);
+            }
+        }
+
+        for (final var end : pathEnds) {
+            if (end < 0) {
+                continue;
+            }
+
+            final var path = new TriePath(end).ids;
+
+            for (var k = 1; k < path.length; k++) {
+                if (path[k] != path[0]) {
+                    continue;
+                }
+
+                var vertex = -1;
+
+                for (var i = k; i < path.length && (vertex = child(children, childOffsets, vertex, path[i])) >= 0; i++) {
+                    if (ends.get(vertex)) {
+                        contained.set(vertex);
+                    }
+                }
+            }
+        }
+
+        final var subpaths = new BitSet(pathEnds.length);
+
+        for (var i = 0; i < pathEnds.length; i++) {
+            if (pathEnds[i] >= 0 && contained.get(pathEnds[i])) {
+                subpaths.set(i);
+            }
+        }
+
+        return subpaths;
+    }
+
+    /**
+     * @return the child of the vertex storing the node, or -1 if there is none
+     */
+    private int child(final int[] children, final int[] childOffsets, final int vertex, final int node) {
+        var low = childOffsets[vertex + 1];
+        var high = childOffsets[vertex + 2] - 1;
+
+        while (low <= high) {
+            final var middle = (low + high) >>> 1;
+            final var middleNode = vertexNode[children[middle]];
+
+            if (middleNode < node) {
+                low = middle + 1;
+            } else if (middleNode > node) {
+                high = middle - 1;
+            } else {
+                return children[middle];
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return number of trie vertices (the number of stored nodes, shared prefixes are stored once)
+     */
+    public int getVertexCount() {
+        return vertexNode.length;
+    }
+
+    @Override
+    public List<Node> get(final int index) {
+        final var end = pathEnds[index];
+
+        if (end < 0) {
+            return List.of();
+        }
+
+        return new TriePath(end);
+    }
+
+    @Override
+    public int size() {
+        return pathEnds.length;
+    }
+
+    /**
+     * View of a single path, the node ids are collected when the view is created.
+     */
+    private final class TriePath extends AbstractList<Node> {
+        private final int[] ids;
+
+        private TriePath(final int end) {
+            ids = new int[vertexDepth[end]];
+
+            for (var vertex = end; vertex >= 0; vertex = vertexParent[vertex]) {
+                ids[vertexDepth[vertex] - 1] = vertexNode[vertex];
+            }
+        }
+
+        @Override
+        public Node get(final int index) {
+            return nodes[ids[index]];
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
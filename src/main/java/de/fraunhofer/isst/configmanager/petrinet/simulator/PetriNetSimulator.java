@@ -20,53 +20,40 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Class Providing static methods to simulate a PetriNet based on a given initial state,
  * or creating the graph of all possible steps the PetriNet can take in an execution.
  *
  * (both methods could be running indefinitely, if the given initial PetriNet contains a
- * marker generating circle, so the PetriNet has an infinite amount of reachable states)
+ * marker generating circle, so the PetriNet has an infinite amount of reachable states,
+ * the {@link StateSpaceExplorer} can be used for a budgeted exploration instead,
+ * {@link #buildCoverabilityGraph(PetriNet)} always terminates)
  */
 @Slf4j
 @UtilityClass
 public class PetriNetSimulator {
     /**
-     * Make a step in the current petriNet, finding all transitions that can be used
-     * and taking all of them
-     * (normally a petri net only uses one random transition at a time
-     *  TODO: only take one random transition at a time)
-     * @param petriNet the current step in the petrinet
-     * @return true if something in the petrinet changed after taking the transitions
+     * Make a step in the current petriNet, using one random transition of all transitions that can be used
+     * @param state the current marking of the PetriNet, with its enabled transitions
+     * @param random source of the random choice
+     * @return true if something in the petrinet changed after taking the transition
      */
-    private static boolean makeStep(final PetriNet petriNet){
-        var changed = false;
-        final var nodesLosingMarkers = new ArrayList<Node>();
-        final var nodesGainingMarkers = new ArrayList<Node>();
-
-        for (final var node : petriNet.getNodes()) {
-            if (node instanceof TransitionImpl) {
-                final var allPreviousHaveMarker = isPossible(node);
-
-                if (allPreviousHaveMarker) {
-                    nodesLosingMarkers.addAll(node.getTargetArcs().stream()
-                            .map(Arc::getSource).collect(Collectors.toList()));
-                    nodesGainingMarkers.addAll(node.getSourceArcs().stream()
-                            .map(Arc::getTarget).collect(Collectors.toList()));
-                    changed = true;
-                }
-            }
+    private static boolean makeStep(final EnabledTransitions state, final SplittableRandom random){
+        if (state.isEmpty()) {
+            return false;
         }
 
-        nodesGainingMarkers.stream().distinct().forEach(node -> ((PlaceImpl) node).setMarkers(((PlaceImpl) node).getMarkers() + 1));
-
-        nodesLosingMarkers.stream().distinct().forEach(node -> ((PlaceImpl) node).setMarkers(((PlaceImpl) node).getMarkers() - 1));
-
-        return changed;
+        state.fire(state.get(random.nextInt(state.size())));
+        return true;
     }
     
     /**
@@ -74,210 +61,133 @@ public class PetriNetSimulator {
      * @param petriNet the initial PetriNet
      */
     public static void simulateNet(final PetriNet petriNet){
+        simulateNet(petriNet, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * For a given initial PetriNet: execute a step as long as something changes, the markers of the PetriNet are
+     * set to the final state (use the {@link MonteCarloSimulator} for statistics over many simulations)
+     * @param petriNet the initial PetriNet
+     * @param seed seed of the random choice of the transitions
+     */
+    public static void simulateNet(final PetriNet petriNet, final long seed){
         if (log.isInfoEnabled()) {
             log.info("Starting Simulation!");
-            log.info(GraphVizGenerator.generateGraphViz(petriNet));
         }
 
-        while (makeStep(petriNet)) {
-            if (log.isInfoEnabled()) {
-                log.info("Something changed!");
-                log.info(GraphVizGenerator.generateGraphViz(petriNet));
+        if (log.isDebugEnabled()) {
+            log.debug(GraphVizGenerator.generateGraphViz(petriNet));
+        }
+
+        final var net = new CompiledPetriNet(petriNet);
+        final var state = new EnabledTransitions(net, net.getInitialMarking());
+        final var random = new SplittableRandom(seed);
+
+        while (makeStep(state, random)) {
+            if (log.isDebugEnabled()) {
+                writeMarkers(net, state.getMarking());
+                log.debug("Something changed!");
+                log.debug(GraphVizGenerator.generateGraphViz(petriNet));
             }
         }
 
+        writeMarkers(net, state.getMarking());
+
         if (log.isInfoEnabled()) {
             log.info("Nothing changed! Finished simulation of PetriNet!");
         }
     }
-    
-    /**
-     * For a given petriNet, find all transitions that can be taken
-     * @param petriNet a given PetriNet
-     * @return List of Transition nodes, for which all previous nodes have markers
-     */
-    private static List<Node> getPossibleTransitions(final PetriNet petriNet){
-        final var possible = new ArrayList<Node>();
 
-        for (final var node : petriNet.getNodes()) {
-            if (isPossible(node)) {
-                possible.add(node);
-            }
-        }
-
-        return possible;
-    }
-    
     /**
-     * Given a petri net and a (transition) node: do the transition
-     * @param petriNet a given PetriNet
-     * @param node a given Node of the PetriNet
+     * Write markers back to the simulated PetriNet
+     * @param net the compiled PetriNet
+     * @param marking the marking vector to write
      */
-    private static void doTransition(final PetriNet petriNet, final Node node){
-        if (!isPossible(node)){
-            return;
-        }
-
-        for (final var arc : node.getTargetArcs()) {
-            final var place = (PlaceImpl) arc.getSource();
-            place.setMarkers(place.getMarkers() - 1);
-        }
-
-        for (final var arc : node.getSourceArcs()) {
-            final var place = (PlaceImpl) arc.getTarget();
-            place.setMarkers(place.getMarkers() + 1);
+    private static void writeMarkers(final CompiledPetriNet net, final int[] marking){
+        for (var place = 0; place < net.getPlaceCount(); place++) {
+            net.getPlace(place).setMarkers(marking[place]);
         }
     }
-    
+
     /**
      * Build a StepGraph with the given PetriNet as starting Point for executions.
+     * (runs indefinitely for PetriNets with infinitely many reachable states,
+     * use {@link StateSpaceExplorer} with {@link ExplorationLimits} to explore them partially)
      *
      * @param petriNet the initial PetriNet
      * @return the StepGraph with all reachable states of the given PetriNet
      */
     public static StepGraph buildStepGraph(final PetriNet petriNet){
-        final var stepGraph = new StepGraph(petriNet);
-        stepGraph.getSteps().add(petriNet);
-
-        for (final var node : getPossibleTransitions(petriNet)) {
-            addStepToStepGraph(petriNet, petriNet.deepCopy(), node, stepGraph);
-        }
-
-        return stepGraph;
+        return StateSpaceExplorer.explore(petriNet, SearchOrder.BREADTH_FIRST, ExplorationLimits.unlimited()).getStepGraph();
     }
-    
+
     /**
-     * Execute a possible transition of the current PetriNet and add the result
-     * to the StepGraph.
+     * Build a StepGraph with the given PetriNet as starting Point for executions, keeping the visited states
+     * outside of the Java heap.
      *
-     * @param parent the current PetriNet
-     * @param copy a copy of the current PetriNet which will be modified
-     * @param transition the transition the PetriNet should execute
-     * @param stepGraph the stepgraph the resulting PetriNet will be added to
-     *                  (if it doesn't already contain an equal PetriNet)
+     * @param petriNet the initial PetriNet
+     * @param maxOffHeapBytes maximum number of off-heap bytes used for the visited states
+     * @return the StepGraph and {@link ExplorationStatus#MEMORY_LIMIT} if the budget was not sufficient
      */
-    private static void addStepToStepGraph(final PetriNet parent,
-                                           final PetriNet copy,
-                                           final Node transition,
-                                           final StepGraph stepGraph){
-        Node transitionCopy = null;
-        for (final var node : copy.getNodes()) {
-            if (node.getID().equals(transition.getID())) {
-                transitionCopy = node;
-            }
-        }
-
-        doTransition(copy, transitionCopy);
-
-        for (final var net : stepGraph.getSteps()) {
-            if (net.equals(copy)){
-                stepGraph.getArcs().add(new NetArc(parent, net, transition.getID()));
-                return;
-            }
-        }
-
-        stepGraph.getArcs().add(new NetArc(parent, copy, transition.getID()));
-        stepGraph.getSteps().add(copy);
-
-        for (final var node : getPossibleTransitions(copy)) {
-            addStepToStepGraph(copy, copy.deepCopy(), node, stepGraph);
-        }
+    public static ExplorationResult buildOffHeapStepGraph(final PetriNet petriNet, final long maxOffHeapBytes){
+        final var net = new CompiledPetriNet(petriNet);
+        return StateSpaceExplorer.explore(net, new OffHeapStateStore(net, maxOffHeapBytes),
+                SearchOrder.BREADTH_FIRST, ExplorationLimits.unlimited());
     }
-    
+
     /**
-     * For a given node: if it is a transition, check if all previous nodes have markers
-     * @param node a given Node
-     * @return true if it is a transition ready to be used
+     * Build the coverability graph with the given PetriNet as starting Point for executions.
+     * (terminates for every PetriNet, places which can hold infinitely many markers are reported as unbounded)
+     *
+     * @param petriNet the initial PetriNet
+     * @return the coverability graph of the given PetriNet, with the boundedness of every place
      */
-    private static boolean isPossible(final Node node) {
-        if (node instanceof TransitionImpl) {
-            return node.getTargetArcs().stream()
-                    .map(Arc::getSource)
-                    .map(PlaceImpl.class::cast)
-                    .map(PlaceImpl::getMarkers)
-                    .allMatch(markers -> markers > 0);
-        }
-
-        return false;
+    public static CoverabilityGraph buildCoverabilityGraph(final PetriNet petriNet){
+        return CoverabilityGraphBuilder.build(petriNet);
     }
-
+    
     /**
      * @param stepGraph PetriNet StepGraph
-     * @return all paths possible in given petriNet
+     * @return all paths possible in given petriNet (stored in a {@link PathTrie})
      */
     public static List<List<Node>> getAllPaths(final StepGraph stepGraph){
-        final var len1 = getPathsOfLength1(stepGraph);
-        List<List<Node>> lenN = new ArrayList<>(len1);
-        final List<List<Node>> allPaths = new ArrayList<>(len1);
-
-        var i = 1;
-
-        while (!lenN.isEmpty()) {
-            if (log.isInfoEnabled()) {
-                log.info("Calculating paths of length " + ++i);
-            }
-            lenN = getPathsOfLengthNplus1(len1, lenN);
-
-            if (!lenN.isEmpty()) {
-                allPaths.addAll(lenN);
-            }
-        }
-
-        allPaths.sort(Comparator.comparingInt(List::size));
-
-        return filterPaths(allPaths);
+        return sortAndFilterPaths(streamPaths(stepGraph).collect(Collectors.toCollection(ArrayList::new)));
     }
 
     /**
+     * Enumerate the paths on the workers of a pool, the paths starting at different nodes are enumerated in parallel.
+     *
      * @param stepGraph PetriNet StepGraph
-     * @return all possible paths of length 1 (either Place -> Transition or Transition -> Place)
+     * @param pool the pool whose workers enumerate the paths
+     * @return all paths possible in given petriNet, identical to {@link #getAllPaths(StepGraph)}
      */
-    private static List<List<Node>> getPathsOfLength1(final StepGraph stepGraph){
-        final List<List<Node>> paths = new ArrayList<>();
-
-        for (final var node : stepGraph.getInitial().getNodes()) {
-            if (node instanceof Place) {
-                final var followingTransitions = node.getSourceArcs().stream().map(Arc::getTarget)
-                        .filter(trans -> stepGraph.getArcs().stream()
-                                .map(NetArc::getUsedTransition)
-                                .anyMatch(used -> used.equals(trans.getID())))
-                        .collect(Collectors.toList());
-
-                for (final var succ : followingTransitions) {
-                    paths.add(List.of(node, succ));
-                }
-            }
-
-            if (node instanceof Transition) {
-                for(final var succ : node.getSourceArcs().stream().map(Arc::getTarget).collect(Collectors.toSet())){
-                    paths.add(List.of(node, succ));
-                }
-            }
-        }
-        return paths;
+    public static List<List<Node>> getAllPaths(final StepGraph stepGraph, final ForkJoinPool pool){
+        return sortAndFilterPaths(PathEnumerator.collect(stepGraph, pool));
     }
 
     /**
-     * @param pathsLen1 set of possible paths of length 1
-     * @param pathsLenN all possible paths of length n (stop considering as soon as path gets circular (first = last))
-     * @return all possible paths of length n+1
+     * @param allPaths all paths of a PetriNet, in depth first order
+     * @return the paths sorted by length, without subpaths (stored in a {@link PathTrie})
      */
-    private static List<List<Node>> getPathsOfLengthNplus1(final List<List<Node>> pathsLen1,
-                                                           final List<List<Node>> pathsLenN) {
-        final List<List<Node>> pathsLenNplus1 = new ArrayList<>();
+    private static List<List<Node>> sortAndFilterPaths(final List<List<Node>> allPaths){
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Found %d paths", allPaths.size()));
+        }
 
-        for (final var pathN : pathsLenN) {
-            for (final var path1 : pathsLen1) {
-                if (pathN.get(pathN.size() - 1).equals(path1.get(0)) && circleFree(pathN)) {
-                    final var pathNplus1 = new ArrayList<>(pathN);
+        allPaths.sort(Comparator.comparingInt(List::size));
 
-                    pathNplus1.add(path1.get(path1.size()-1));
-                    pathsLenNplus1.add(pathNplus1);
-                }
-            }
-        }
+        return PathTrie.of(filterPaths(allPaths));
+    }
 
-        return pathsLenNplus1;
+    /**
+     * Enumerate the paths of a PetriNet lazily, so consumers can stop early
+     * (the paths are not filtered, see {@link PathEnumerator}).
+     *
+     * @param stepGraph PetriNet StepGraph
+     * @return stream of all paths possible in given petriNet, in depth first order
+     */
+    public static Stream<List<Node>> streamPaths(final StepGraph stepGraph){
+        return PathEnumerator.stream(stepGraph);
     }
 
     /**
@@ -292,7 +202,8 @@ public class PetriNetSimulator {
 
     /**
      * Unfold a PetriNet (all APP transitions T are replaced by a set T_start(trans) -> T_place(place) -> T_end(trans),
-     * markers on places in same step show possible parallel executions of transitions)
+     * markers on places in same step show possible parallel executions of transitions,
+     * {@link #getParallelSets(PetriNet)} finds them without unfolding)
      *
      * @param petriNet a PetriNet
      * @return unfolded petriNet
@@ -334,9 +245,13 @@ public class PetriNetSimulator {
      */
     public static List<List<Transition>> getParallelSets(StepGraph stepGraph){
         List<List<Transition>> parallelSets = new ArrayList<>();
-        for(var step : stepGraph.getSteps()){
-            var parallelTrans = step.getNodes().stream().filter(node -> node instanceof InnerPlace)
-                    .filter(place -> ((InnerPlace) place).getMarkers() > 0)
+        var net = stepGraph.getNet();
+        for(var i = 0; i < stepGraph.getSteps().size(); i++){
+            var step = stepGraph.getSteps().get(i);
+            var parallelTrans = IntStream.range(0, net.getPlaceCount())
+                    .filter(place -> step[place] > 0)
+                    .mapToObj(net::getPlace)
+                    .filter(place -> place instanceof InnerPlace)
                     .map(place -> ((InnerPlace) place).getOriginalTrans())
                     .distinct()
                     .collect(Collectors.toList());
@@ -345,28 +260,38 @@ public class PetriNetSimulator {
         return parallelSets;
     }
 
+    /**
+     * @param petriNet a PetriNet (not unfolded)
+     * @return List of parallel executions of APP transitions, equal to the parallel sets of the StepGraph of the
+     *         unfolded PetriNet, but found by exploring the given PetriNet directly
+     */
+    public static List<List<Transition>> getParallelSets(final PetriNet petriNet){
+        return ParallelSetExplorer.findParallelSets(petriNet);
+    }
+
     /**
      * Remove subpaths from set of paths, only keep longest paths (but keep them if they have different starting places)
      *
      * Example: {A -> B -> C (keep), A -> B (remove), B -> C (keep)}
      *
+     * The subpaths are found in a {@link PathTrie} of the paths, the order of the kept paths is not changed
+     * (except that circle free paths come first).
+     *
      * @param paths Set of all paths
      * @return Filtered set of Paths
      */
     private static List<List<Node>> filterPaths(final List<List<Node>> paths) {
-        final List<List<Node>> filtered = new ArrayList<>(List.copyOf(paths));
-
-        final var filteredCopy = new ArrayList<>(filtered);
+        final var subpaths = PathTrie.of(paths).findSubpaths();
+        final List<List<Node>> circleFree = new ArrayList<>();
+        final List<List<Node>> circular = new ArrayList<>();
 
-        for (final var pathY : filteredCopy) {
-            for (final var pathX : paths) {
-                if(pathX.get(0).equals(pathY.get(0)) && !pathX.equals(pathY) && Collections.indexOfSubList(pathY, pathX) != -1){
-                    filtered.remove(pathX);
-                }
-            }
+        for (var i = subpaths.nextClearBit(0); i < paths.size(); i = subpaths.nextClearBit(i + 1)) {
+            final var path = paths.get(i);
+            (circleFree(path) ? circleFree : circular).add(path);
         }
+
         //put circlefree paths at beginnig of list, so they get checked first
-        filtered.sort((o1, o2) -> Boolean.compare(circleFree(o2), circleFree(o1)));
-        return filtered;
+        circleFree.addAll(circular);
+        return circleFree;
     }
 }
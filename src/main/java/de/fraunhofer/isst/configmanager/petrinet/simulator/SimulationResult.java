@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import java.net.URI;
+import java.util.BitSet;
+
+/**
+ * Statistics of the traces of a {@link MonteCarloSimulator} run: how often places were reached and transitions were
+ * fired, and how long the traces were.
+ */
+public class SimulationResult {
+
+    private final CompiledPetriNet net;
+
+    /**
+     * Number of traces in which every place had markers at some point.
+     */
+    private final long[] reached;
+
+    /**
+     * Number of firings of every transition, summed over all traces.
+     */
+    private final long[] firings;
+
+    private long traces;
+
+    /**
+     * Number of traces ending in a marking without enabled transitions (the others reached the maximum length).
+     */
+    private long deadlocks;
+
+    private long totalLength;
+
+    private int minLength = Integer.MAX_VALUE;
+
+    private int maxLength;
+
+    /**
+     * @param net the compiled PetriNet the traces are simulated on
+     */
+    SimulationResult(final CompiledPetriNet net) {
+        this.net = net;
+        this.reached = new long[net.getPlaceCount()];
+        this.firings = new long[net.getTransitionCount()];
+    }
+
+    void countFiring(final int transition) {
+        firings[transition]++;
+    }
+
+    void countTrace(final BitSet reachedPlaces, final int length, final boolean deadlock) {
+        for (var place = reachedPlaces.nextSetBit(0); place >= 0; place = reachedPlaces.nextSetBit(place + 1)) {
+            reached[place]++;
+        }
+
+        traces++;
+        deadlocks += deadlock ? 1 : 0;
+        totalLength += length;
+        minLength = Math.min(minLength, length);
+        maxLength = Math.max(maxLength, length);
+    }
+
+    void merge(final SimulationResult other) {
+        for (var place = 0; place < reached.length; place++) {
+            reached[place] += other.reached[place];
+        }
+
+        for (var transition = 0; transition < firings.length; transition++) {
+            firings[transition] += other.firings[transition];
+        }
+
+        traces += other.traces;
+        deadlocks += other.deadlocks;
+        totalLength += other.totalLength;
+        minLength = Math.min(minLength, other.minLength);
+        maxLength = Math.max(maxLength, other.maxLength);
+    }
+
+    /**
+     * @return the compiled PetriNet, defining the indices of places and transitions
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * @return number of simulated traces
+     */
+    public long getTraces() {
+        return traces;
+    }
+
+    /**
+     * @return number of traces ending in a marking without enabled transitions
+     */
+    public long getDeadlocks() {
+        return deadlocks;
+    }
+
+    /**
+     * @param placeId ID of a place
+     * @return share of the traces in which the place had markers at some point (0 for unknown places)
+     */
+    public double getReachFrequency(final URI placeId) {
+        final var place = net.getPlaceIndex(placeId);
+        return place < 0 || traces == 0 ? 0 : (double) reached[place] / traces;
+    }
+
+    /**
+     * @param transitionId ID of a transition
+     * @return number of firings of the transition, summed over all traces (0 for unknown transitions)
+     */
+    public long getFiringCount(final URI transitionId) {
+        final var transition = net.getTransitionIndex(transitionId);
+        return transition < 0 ? 0 : firings[transition];
+    }
+
+    /**
+     * @return mean number of fired transitions per trace
+     */
+    public double getMeanLength() {
+        return traces == 0 ? 0 : (double) totalLength / traces;
+    }
+
+    /**
+     * @return length of the shortest trace (0 without traces)
+     */
+    public int getMinLength() {
+        return traces == 0 ? 0 : minLength;
+    }
+
+    /**
+     * @return length of the longest trace
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Iterative state space exploration with an explicit work queue.
+ *
+ * In contrast to a recursive exploration, deep PetriNets cannot overflow the stack, and the exploration stops as soon
+ * as one of the given {@link ExplorationLimits} is exceeded, returning the partial {@link StepGraph}
+ * (so PetriNets with infinitely many reachable states don't run forever).
+ */
+@Slf4j
+@UtilityClass
+public class StateSpaceExplorer {
+    /**
+     * Number of expanded states between two checks of the used heap memory.
+     */
+    private static final int MEMORY_CHECK_INTERVAL = 1024;
+
+    /**
+     * Explore the states reachable from the current marking of the given PetriNet.
+     *
+     * @param petriNet the initial PetriNet
+     * @param order order in which discovered states are expanded
+     * @param limits budgets for the exploration
+     * @return the StepGraph with all explored states and the completion status
+     */
+    public static ExplorationResult explore(final PetriNet petriNet,
+                                            final SearchOrder order,
+                                            final ExplorationLimits limits) {
+        final var net = new CompiledPetriNet(petriNet);
+        return explore(net, new PackedStateStore(net), order, limits);
+    }
+
+    /**
+     * Explore the states reachable from the initial marking of the given compiled PetriNet.
+     *
+     * @param net the compiled PetriNet
+     * @param store empty store, the visited states will be added to
+     * @param order order in which discovered states are expanded
+     * @param limits budgets for the exploration
+     * @return the StepGraph with all explored states and the completion status
+     */
+    public static ExplorationResult explore(final CompiledPetriNet net,
+                                            final StateStore store,
+                                            final SearchOrder order,
+                                            final ExplorationLimits limits) {
+        return explore(net, store, order, limits, null);
+    }
+
+    /**
+     * Explore the states reachable from the initial marking of the given compiled PetriNet, using only the
+     * transitions of a stubborn set in every state.
+     *
+     * @param net the compiled PetriNet
+     * @param store empty store, the visited states will be added to
+     * @param order order in which discovered states are expanded
+     * @param limits budgets for the exploration
+     * @param reduction partial order reduction for the given net (null to explore all interleavings)
+     * @return the (reduced) StepGraph with all explored states and the completion status
+     */
+    public static ExplorationResult explore(final CompiledPetriNet net,
+                                            final StateStore store,
+                                            final SearchOrder order,
+                                            final ExplorationLimits limits,
+                                            final StubbornSetReduction reduction) {
+        final var stepGraph = new StepGraph(net, store);
+        final var steps = stepGraph.getSteps();
+        final var deadline = limits.getTimeout() == null ? Long.MAX_VALUE : System.nanoTime() + limits.getTimeout().toNanos();
+        final var initial = net.getInitialMarking();
+
+        steps.addIfAbsent(initial, net.fingerprint(initial));
+
+        final var frontier = new Frontier(order);
+        var depths = new int[64];
+        //enabled transitions of the queued states, derived from the predecessor and released after the expansion
+        var enabledSets = new BitSet[64];
+        //states in the frontier, states whose arcs were recorded, and states not expanded because of the depth limit
+        final var queued = new BitSet();
+        final var visited = new BitSet();
+        final var cut = new BitSet();
+        //reduced states whose arcs were also recorded for the transitions added by the cycle proviso
+        final var extended = new BitSet();
+        final var bounded = limits.getMaxDepth() < Integer.MAX_VALUE;
+        var status = ExplorationStatus.COMPLETE;
+        var expanded = 0L;
+
+        enabledSets[0] = net.getEnabledSet(initial);
+        frontier.add(0);
+        queued.set(0);
+
+        exploration: while (!frontier.isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                status = ExplorationStatus.TIMEOUT;
+                break;
+            }
+
+            if (++expanded % MEMORY_CHECK_INTERVAL == 0 && usedMemory() > limits.getMaxMemory()) {
+                status = ExplorationStatus.MEMORY_LIMIT;
+                break;
+            }
+
+            final var state = frontier.next();
+            final var enabled = enabledSets[state];
+            enabledSets[state] = null;
+            queued.clear(state);
+
+            if (depths[state] >= limits.getMaxDepth()) {
+                if (!enabled.isEmpty()) {
+                    cut.set(state);
+                }
+                continue;
+            }
+
+            //a state is expanded again if a shorter path to it was found, but its arcs are only recorded once
+            //(the stubborn set of a state is always the same, the cycle proviso may only add transitions later)
+            final var firstVisit = !visited.get(state);
+            final var wasExtended = extended.get(state);
+            visited.set(state);
+            cut.clear(state);
+
+            //1-safe states of ordinary nets are fired bitwise, as long as the store keeps them packed
+            final var packed = steps instanceof PackedStateStore && ((PackedStateStore) steps).isPacked() && net.isOrdinary()
+                    ? (PackedStateStore) steps : null;
+            final var words = packed == null ? null : packed.getWords(state);
+            //packed states are only unpacked for the stubborn sets, or when a marking is not 1-safe anymore
+            var marking = packed == null || reduction != null ? steps.get(state) : null;
+            final var reduced = reduction == null ? enabled : reduction.reduce(marking, enabled);
+            var used = reduced;
+
+            while (used != null) {
+                var revisited = false;
+                final var recorded = used == reduced ? !firstVisit : wasExtended;
+
+                for (final var transition : used.stream().toArray()) {
+                    final var nextWords = packed != null && packed.isPacked() ? net.fire(words, transition) : null;
+
+                    if (nextWords == null && marking == null) {
+                        marking = net.unpack(words);
+                    }
+
+                    final var next = nextWords == null ? net.fire(marking, transition) : null;
+                    final var fingerprint = nextWords != null
+                            ? net.fingerprintAfterFiring(steps.getFingerprint(state), words, nextWords, transition)
+                            : net.fingerprintAfterFiring(steps.getFingerprint(state), marking, next, transition);
+                    final int existing;
+
+                    if (steps.size() >= limits.getMaxStates() || !steps.canAdd()) {
+                        //the budgets only apply to new markings, arcs to known ones are still recorded
+                        existing = nextWords != null
+                                ? packed.indexOf(nextWords, fingerprint) : steps.indexOf(next, fingerprint);
+
+                        if (existing < 0) {
+                            status = steps.size() >= limits.getMaxStates()
+                                    ? ExplorationStatus.STATE_LIMIT : ExplorationStatus.MEMORY_LIMIT;
+                            break exploration;
+                        }
+                    } else {
+                        existing = nextWords != null
+                                ? packed.addIfAbsent(nextWords, fingerprint) : steps.addIfAbsent(next, fingerprint);
+                    }
+
+                    final var target = existing >= 0 ? existing : -existing - 1;
+
+                    if (existing < 0 || !recorded) {
+                        stepGraph.getArcs().add(new NetArc(state, target, net.getTransition(transition).getID()));
+                    }
+
+                    if (existing < 0) {
+                        if (target == depths.length) {
+                            depths = Arrays.copyOf(depths, target * 2);
+                            enabledSets = Arrays.copyOf(enabledSets, target * 2);
+                        }
+
+                        depths[target] = depths[state] + 1;
+                        enabledSets[target] = next == null
+                                ? net.getEnabledSetAfterFiring(enabled, words, nextWords, transition)
+                                : net.getEnabledSetAfterFiring(enabled, marking, next, transition);
+                        frontier.add(target);
+                        queued.set(target);
+                    } else {
+                        revisited = true;
+
+                        //depth first search may find a state on a longer path first, with a maximum depth it is
+                        //expanded again with the shorter depth, so all states within the maximum depth are expanded
+                        if (bounded && depths[state] + 1 < depths[target]) {
+                            depths[target] = depths[state] + 1;
+
+                            if (!queued.get(target)) {
+                                enabledSets[target] = net.getEnabledSet(steps.get(target));
+                                frontier.add(target);
+                                queued.set(target);
+                            }
+                        }
+                    }
+                }
+
+                //cycle proviso: a reduced state reaching visited states is expanded fully
+                if (used == reduced && reduced != enabled && revisited && reduction.needsCycleProviso()) {
+                    used = (BitSet) enabled.clone();
+                    used.andNot(reduced);
+                    extended.set(state);
+                } else {
+                    used = null;
+                }
+            }
+        }
+
+        if (status == ExplorationStatus.COMPLETE && !cut.isEmpty()) {
+            status = ExplorationStatus.DEPTH_LIMIT;
+        }
+
+        if (status != ExplorationStatus.COMPLETE && log.isWarnEnabled()) {
+            log.warn(String.format("State space exploration stopped with status %s after %d states!", status, steps.size()));
+        }
+
+        return new ExplorationResult(stepGraph, status);
+    }
+
+    /**
+     * @return currently used heap memory in bytes
+     */
+    private static long usedMemory() {
+        final var runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Work queue of state indices, used as FIFO queue for breadth first and as stack for depth first search.
+     */
+    private static final class Frontier {
+        private final SearchOrder order;
+        private int[] elements = new int[64];
+        private int head;
+        private int tail;
+
+        private Frontier(final SearchOrder order) {
+            this.order = order;
+        }
+
+        private boolean isEmpty() {
+            return head == tail;
+        }
+
+        private void add(final int state) {
+            if (tail == elements.length) {
+                //drop the already polled part of the queue before growing
+                final var size = tail - head;
+                final var grown = size * 2 > elements.length ? new int[elements.length * 2] : elements;
+                System.arraycopy(elements, head, grown, 0, size);
+                elements = grown;
+                head = 0;
+                tail = size;
+            }
+
+            elements[tail++] = state;
+        }
+
+        private int next() {
+            return order == SearchOrder.BREADTH_FIRST ? elements[head++] : elements[--tail];
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+/**
+ * Store for the visited states (marking vectors) of a state space exploration.
+ *
+ * Every stored marking gets a dense index (in order of insertion), markings are looked up by their
+ * fingerprint (see {@link CompiledPetriNet#fingerprint(int[])}) and compared exactly on fingerprint collisions.
+ */
+public interface StateStore {
+
+    /**
+     * @return number of stored markings
+     */
+    int size();
+
+    /**
+     * @param index index of a stored marking
+     * @return the marking with the given index (must not be modified)
+     */
+    int[] get(int index);
+
+    /**
+     * @param index index of a stored marking
+     * @return the fingerprint the marking was stored with
+     */
+    long getFingerprint(int index);
+
+    /**
+     * Add a marking, if no equal marking is stored yet.
+     *
+     * @param marking a marking vector (must not be modified after adding it)
+     * @param fingerprint the fingerprint of the marking
+     * @return the index of the equal marking if it was already stored,
+     *         otherwise (-(index of the added marking) - 1)
+     */
+    int addIfAbsent(int[] marking, long fingerprint);
+
+    /**
+     * @param marking a marking vector
+     * @param fingerprint the fingerprint of the marking
+     * @return index of the stored equal marking, or -1 if the marking is not stored
+     */
+    int indexOf(int[] marking, long fingerprint);
+
+    /**
+     * @return true if another marking can be added (false if a store with a fixed memory budget is exhausted)
+     */
+    default boolean canAdd() {
+        return true;
+    }
+}
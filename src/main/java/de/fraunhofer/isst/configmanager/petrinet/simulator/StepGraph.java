@@ -14,10 +14,13 @@
 package de.fraunhofer.isst.configmanager.petrinet.simulator;
 
 import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import lombok.AccessLevel;
 import lombok.Getter;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * Graph containing every Step a Petri Net can make in its execution.
@@ -27,18 +30,210 @@ public class StepGraph {
     private PetriNet initial;
 
     /**
-     * Each Step a PetriNet can make is represented as a PetriNet.
+     * Compiled version of the initial PetriNet, the steps are marking vectors of this net.
      */
-    private Set<PetriNet> steps;
+    private CompiledPetriNet net;
+
+    /**
+     * Each Step a PetriNet can make is represented by its marking vector (the initial marking has index 0).
+     */
+    private StateStore steps;
 
     /**
      * Arc which Steps are reachable from given Steps.
      */
-    private Set<NetArc> arcs;
+    private List<NetArc> arcs;
+
+    /**
+     * Successor and predecessor lists of all steps, built from the arcs on first use
+     * (and rebuilt if arcs were added since).
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Adjacency adjacency;
+
+    public StepGraph(final CompiledPetriNet net, final StateStore steps) {
+        this(net, steps, new ArrayList<>());
+    }
+
+    /**
+     * @param net the compiled PetriNet
+     * @param steps the steps of the StepGraph
+     * @param arcs the arcs between the steps (e.g. a {@link MappedArcTable} of a loaded StepGraph)
+     */
+    StepGraph(final CompiledPetriNet net, final StateStore steps, final List<NetArc> arcs) {
+        this.initial = net.getPetriNet();
+        this.net = net;
+        this.steps = steps;
+        this.arcs = arcs;
+    }
+
+    /**
+     * Materialize a step of the StepGraph as PetriNet (e.g. for visualization).
+     *
+     * @param step index of a step
+     * @return copy of the initial PetriNet, with the markers of the given step
+     */
+    public PetriNet getStepAsPetriNet(final int step) {
+        return net.toPetriNet(steps.get(step));
+    }
+
+    /**
+     * @param step index of a step
+     * @return number of arcs starting in the step
+     */
+    public int getOutDegree(final int step) {
+        final var index = adjacency();
+        return index.successorOffsets[step + 1] - index.successorOffsets[step];
+    }
+
+    /**
+     * @param step index of a step
+     * @param i number of the outgoing arc, between 0 and {@link #getOutDegree(int)}
+     * @return the step reached by the arc
+     */
+    public int getSuccessor(final int step, final int i) {
+        final var index = adjacency();
+        return index.successors[index.successorOffsets[step] + i];
+    }
+
+    /**
+     * @param step index of a step
+     * @param i number of the outgoing arc, between 0 and {@link #getOutDegree(int)}
+     * @return index of the transition (in the compiled net) used by the arc
+     */
+    public int getSuccessorTransition(final int step, final int i) {
+        final var index = adjacency();
+        return index.successorTransitions[index.successorOffsets[step] + i];
+    }
+
+    /**
+     * @param step index of a step
+     * @return number of arcs ending in the step
+     */
+    public int getInDegree(final int step) {
+        final var index = adjacency();
+        return index.predecessorOffsets[step + 1] - index.predecessorOffsets[step];
+    }
+
+    /**
+     * @param step index of a step
+     * @param i number of the incoming arc, between 0 and {@link #getInDegree(int)}
+     * @return the step the arc starts in
+     */
+    public int getPredecessor(final int step, final int i) {
+        final var index = adjacency();
+        return index.predecessors[index.predecessorOffsets[step] + i];
+    }
+
+    /**
+     * @param step index of a step
+     * @param i number of the incoming arc, between 0 and {@link #getInDegree(int)}
+     * @return index of the transition (in the compiled net) used by the arc
+     */
+    public int getPredecessorTransition(final int step, final int i) {
+        final var index = adjacency();
+        return index.predecessorTransitions[index.predecessorOffsets[step] + i];
+    }
+
+    /**
+     * @param transition index of a transition in the compiled net
+     * @return true if the transition is used by any arc of the StepGraph
+     */
+    public boolean isFired(final int transition) {
+        return adjacency().fired.get(transition);
+    }
+
+    /**
+     * @param transitionId ID of a transition
+     * @return true if the transition is used by any arc of the StepGraph
+     */
+    public boolean isFired(final URI transitionId) {
+        final var transition = net.getTransitionIndex(transitionId);
+        return transition >= 0 && isFired(transition);
+    }
+
+    /**
+     * @return the adjacency lists for the current arcs
+     */
+    private Adjacency adjacency() {
+        var index = adjacency;
+
+        if (index == null || index.arcCount != arcs.size()) {
+            index = new Adjacency(net, steps.size(), arcs);
+            adjacency = index;
+        }
+
+        return index;
+    }
+
+    /**
+     * Successor and predecessor lists of all steps in CSR layout: the arcs of step s are stored at the positions
+     * [offsets[s], offsets[s + 1]) of the target/source and transition arrays, in the order of the arc list.
+     */
+    private static final class Adjacency {
+        private final int arcCount;
+        private final int[] successorOffsets;
+        private final int[] successors;
+        private final int[] successorTransitions;
+        private final int[] predecessorOffsets;
+        private final int[] predecessors;
+        private final int[] predecessorTransitions;
+        private final BitSet fired;
+
+        private Adjacency(final CompiledPetriNet net, final int stepCount, final List<NetArc> arcs) {
+            this.arcCount = arcs.size();
+            this.successorOffsets = new int[stepCount + 1];
+            this.successors = new int[arcCount];
+            this.successorTransitions = new int[arcCount];
+            this.predecessorOffsets = new int[stepCount + 1];
+            this.predecessors = new int[arcCount];
+            this.predecessorTransitions = new int[arcCount];
+            this.fired = new BitSet(net.getTransitionCount());
+
+            final var transitions = new int[arcCount];
+
+            for (var i = 0; i < arcCount; i++) {
+                transitions[i] = transition(net, arcs, i);
+                fired.set(transitions[i]);
+                successorOffsets[source(arcs, i) + 1]++;
+                predecessorOffsets[target(arcs, i) + 1]++;
+            }
+
+            for (var step = 0; step < stepCount; step++) {
+                successorOffsets[step + 1] += successorOffsets[step];
+                predecessorOffsets[step + 1] += predecessorOffsets[step];
+            }
+
+            final var successorFill = successorOffsets.clone();
+            final var predecessorFill = predecessorOffsets.clone();
+
+            for (var i = 0; i < arcCount; i++) {
+                final var source = source(arcs, i);
+                final var target = target(arcs, i);
+                final var forward = successorFill[source]++;
+                final var backward = predecessorFill[target]++;
+
+                successors[forward] = target;
+                successorTransitions[forward] = transitions[i];
+                predecessors[backward] = source;
+                predecessorTransitions[backward] = transitions[i];
+            }
+        }
+
+        //arcs of a loaded StepGraph are read from the mapped records, without creating NetArcs
+
+        private static int source(final List<NetArc> arcs, final int arc) {
+            return arcs instanceof MappedArcTable ? ((MappedArcTable) arcs).getSource(arc) : arcs.get(arc).getSource();
+        }
+
+        private static int target(final List<NetArc> arcs, final int arc) {
+            return arcs instanceof MappedArcTable ? ((MappedArcTable) arcs).getTarget(arc) : arcs.get(arc).getTarget();
+        }
 
-    public StepGraph(final PetriNet initial) {
-        this.initial = initial;
-        steps = new HashSet<>();
-        arcs = new HashSet<>();
+        private static int transition(final CompiledPetriNet net, final List<NetArc> arcs, final int arc) {
+            return arcs instanceof MappedArcTable
+                    ? ((MappedArcTable) arcs).getTransition(arc)
+                    : net.getTransitionIndex(arcs.get(arc).getUsedTransition());
+        }
     }
 }
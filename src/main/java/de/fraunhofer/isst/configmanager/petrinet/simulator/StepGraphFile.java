@@ -0,0 +1,296 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary format for {@link StepGraph}s, written and read through memory-mapped files.
+ *
+ * Layout (big endian):
+ * <pre>
+ * header:      magic "STPG", version, place count, transition count, state count, arc count
+ * dictionary:  place IDs, transition IDs (ordered by index of the compiled net, each as length + UTF-8 bytes)
+ * markings:    for every state: fingerprint (long), markers of every place (int)
+ * arcs:        for every arc: source state, target state, transition index (int)
+ * </pre>
+ * The marking table has the record layout of the {@link OffHeapStateStore}, so a loaded StepGraph maps its states
+ * directly from the file instead of reading them to the heap, its arcs are a {@link MappedArcTable} over the arc table.
+ */
+@UtilityClass
+public class StepGraphFile {
+    private static final int MAGIC = 0x53545047;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Size of the mapped window while writing and reading the sections of the file.
+     */
+    private static final int WINDOW_BYTES = 1 << 26;
+
+    /**
+     * @param stepGraph the StepGraph to save
+     * @param file the target file (an existing file is overwritten)
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(final StepGraph stepGraph, final Path file) throws IOException {
+        final var net = stepGraph.getNet();
+        final var steps = stepGraph.getSteps();
+        final var arcs = stepGraph.getArcs();
+        var size = 6L * Integer.BYTES
+                + (long) steps.size() * OffHeapStateStore.recordBytes(net.getPlaceCount())
+                + 3L * Integer.BYTES * arcs.size();
+
+        for (var place = 0; place < net.getPlaceCount(); place++) {
+            size += stringBytes(net.getPlace(place).getID());
+        }
+
+        for (var transition = 0; transition < net.getTransitionCount(); transition++) {
+            size += stringBytes(net.getTransition(transition).getID());
+        }
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final var out = new MappedOutput(channel, size);
+
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(net.getPlaceCount());
+            out.putInt(net.getTransitionCount());
+            out.putInt(steps.size());
+            out.putInt(arcs.size());
+
+            for (var place = 0; place < net.getPlaceCount(); place++) {
+                out.putString(net.getPlace(place).getID().toString());
+            }
+
+            for (var transition = 0; transition < net.getTransitionCount(); transition++) {
+                out.putString(net.getTransition(transition).getID().toString());
+            }
+
+            for (var state = 0; state < steps.size(); state++) {
+                out.putLong(steps.getFingerprint(state));
+
+                for (final var markers : steps.get(state)) {
+                    out.putInt(markers);
+                }
+            }
+
+            for (final var arc : arcs) {
+                out.putInt(arc.getSource());
+                out.putInt(arc.getTarget());
+                out.putInt(net.getTransitionIndex(arc.getUsedTransition()));
+            }
+        }
+    }
+
+    /**
+     * Load a StepGraph, its states stay in the (memory-mapped) file.
+     *
+     * @param file a file written by {@link #write(StepGraph, Path)}
+     * @param petriNet the initial PetriNet the StepGraph was built for
+     * @return the loaded StepGraph, with a read-only {@link MappedStateStore} and {@link MappedArcTable}
+     * @throws IOException if the file cannot be read, is no StepGraph file or is corrupt
+     * @throws IllegalArgumentException if the file does not belong to the given PetriNet
+     */
+    public static StepGraph read(final Path file, final PetriNet petriNet) throws IOException {
+        final var net = new CompiledPetriNet(petriNet);
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final var in = new MappedInput(channel);
+
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException(String.format("%s is not a StepGraph file!", file));
+            }
+
+            final var placeCount = in.getInt();
+            final var transitionCount = in.getInt();
+            final var stateCount = in.getInt();
+            final var arcCount = in.getInt();
+
+            if (stateCount < 0 || arcCount < 0) {
+                throw new IOException(
+                        String.format("%s is corrupt, found %d states and %d arcs!", file, stateCount, arcCount)
+                );
+            }
+
+            if (placeCount != net.getPlaceCount() || transitionCount != net.getTransitionCount()) {
+                throw new IllegalArgumentException("StepGraph file does not belong to the given PetriNet!");
+            }
+
+            for (var place = 0; place < placeCount; place++) {
+                checkId(net.getPlace(place).getID(), in.getString());
+            }
+
+            final var transitions = new URI[transitionCount];
+
+            for (var transition = 0; transition < transitionCount; transition++) {
+                transitions[transition] = net.getTransition(transition).getID();
+                checkId(transitions[transition], in.getString());
+            }
+
+            final var markingsOffset = in.position();
+            final var arcsOffset = markingsOffset + (long) stateCount * OffHeapStateStore.recordBytes(placeCount);
+
+            if (arcsOffset + 3L * Integer.BYTES * arcCount > channel.size()) {
+                throw new IOException(String.format("%s is truncated!", file));
+            }
+
+            final var steps = new MappedStateStore(placeCount, channel, markingsOffset, stateCount);
+            final var arcs = new MappedArcTable(channel, arcsOffset, arcCount, transitions);
+
+            for (var arc = 0; arc < arcCount; arc++) {
+                final var source = arcs.getSource(arc);
+                final var target = arcs.getTarget(arc);
+                final var transition = arcs.getTransition(arc);
+
+                if (source < 0 || source >= stateCount || target < 0 || target >= stateCount
+                        || transition < 0 || transition >= transitionCount) {
+                    throw new IOException(String.format("%s is corrupt, arc %d (%d, %d, %d) is out of range!",
+                            file, arc, source, target, transition));
+                }
+            }
+
+            return new StepGraph(net, steps, arcs);
+        }
+    }
+
+    /**
+     * @param id ID of a node
+     * @return number of bytes of the ID in the dictionary
+     */
+    private static int stringBytes(final URI id) {
+        return Integer.BYTES + id.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * @param expected ID of a node of the PetriNet
+     * @param found ID stored in the file at the same index
+     * @throws IllegalArgumentException if the IDs differ
+     */
+    private static void checkId(final URI expected, final String found) {
+        if (!expected.toString().equals(found)) {
+            throw new IllegalArgumentException(
+                    String.format("StepGraph file does not belong to the given PetriNet, found %s instead of %s!",
+                            found, expected)
+            );
+        }
+    }
+
+    /**
+     * Sequential writer, mapping the file window by window.
+     */
+    private static final class MappedOutput {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        private MappedOutput(final FileChannel channel, final long size) throws IOException {
+            this.channel = channel;
+            this.size = size;
+            this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(WINDOW_BYTES, size));
+        }
+
+        private long position() {
+            return windowStart + window.position();
+        }
+
+        private void ensure(final int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                windowStart = position();
+                window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart,
+                        Math.min(Math.max(WINDOW_BYTES, bytes), size - windowStart));
+            }
+        }
+
+        private void putInt(final int value) throws IOException {
+            ensure(Integer.BYTES);
+            window.putInt(value);
+        }
+
+        private void putLong(final long value) throws IOException {
+            ensure(Long.BYTES);
+            window.putLong(value);
+        }
+
+        private void putString(final String value) throws IOException {
+            final var bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            window.put(bytes);
+        }
+    }
+
+    /**
+     * Sequential reader, mapping the file window by window.
+     */
+    private static final class MappedInput {
+        private final FileChannel channel;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        private MappedInput(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            seek(0);
+        }
+
+        private long position() {
+            return windowStart + window.position();
+        }
+
+        private void seek(final long position) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(WINDOW_BYTES, channel.size() - position));
+        }
+
+        private void ensure(final int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                seek(position());
+
+                if (window.remaining() < bytes) {
+                    throw new IOException("StepGraph file is truncated!");
+                }
+            }
+        }
+
+        private int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return window.getInt();
+        }
+
+        private String getString() throws IOException {
+            final var length = getInt();
+
+            if (length < 0) {
+                throw new IOException("StepGraph file is corrupt, found a negative string length!");
+            }
+
+            ensure(length);
+            final var bytes = new byte[length];
+            window.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Partial order reduction of the state space exploration with stubborn sets.
+ *
+ * Instead of all enabled transitions, only the enabled transitions of a stubborn set are used in a state:
+ * a set of transitions closed under
+ * <ul>
+ *     <li>enabled transitions: all transitions competing for one of their input places</li>
+ *     <li>disabled transitions: all transitions producing markers for one of their unmarked input places</li>
+ * </ul>
+ * Independent transitions (e.g. of parallel subroutes) are then used in a single order instead of all interleavings.
+ *
+ * The reduced StepGraph contains all deadlocks of the full one. For the next-free CTL fragment, the transitions
+ * observed by the formulas must be declared visible: a stubborn set with an enabled visible transition contains all
+ * visible transitions, only singleton reductions are used (so the branching structure is kept), and states whose
+ * reduced successors were already visited are expanded fully (so no transition is postponed forever on a cycle).
+ */
+public class StubbornSetReduction {
+
+    private final CompiledPetriNet net;
+
+    /**
+     * Transitions whose firing is observed by the checked property.
+     */
+    private final BitSet visible;
+
+    /**
+     * True if the reduction has to preserve branching time properties, not only deadlocks.
+     */
+    private final boolean branching;
+
+    /**
+     * Transitions adding markers to every place (transition indices).
+     */
+    private final int[][] producers;
+
+    private StubbornSetReduction(final CompiledPetriNet net, final BitSet visible, final boolean branching) {
+        this.net = net;
+        this.visible = visible;
+        this.branching = branching;
+
+        final var producerLists = new ArrayList<List<Integer>>();
+
+        for (var i = 0; i < net.getPlaceCount(); i++) {
+            producerLists.add(new ArrayList<>());
+        }
+
+        for (var transition = 0; transition < net.getTransitionCount(); transition++) {
+            for (final var place : net.getPostSet(transition)) {
+                producerLists.get(place).add(transition);
+            }
+        }
+
+        this.producers = producerLists.stream()
+                .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+    }
+
+    /**
+     * Reduction preserving the reachable deadlocks (states without enabled transitions).
+     *
+     * @param net the compiled PetriNet
+     * @return the reduction for the given net
+     */
+    public static StubbornSetReduction forDeadlocks(final CompiledPetriNet net) {
+        return new StubbornSetReduction(net, new BitSet(), false);
+    }
+
+    /**
+     * Reduction preserving next-free CTL properties over the given visible transitions.
+     *
+     * @param net the compiled PetriNet
+     * @param visibleTransitions IDs of the transitions observed by the checked formulas
+     * @return the reduction for the given net
+     */
+    public static StubbornSetReduction forNextFreeCtl(final CompiledPetriNet net, final Set<URI> visibleTransitions) {
+        final var visible = new BitSet(net.getTransitionCount());
+
+        for (final var id : visibleTransitions) {
+            final var index = net.getTransitionIndex(id);
+
+            if (index >= 0) {
+                visible.set(index);
+            }
+        }
+
+        return new StubbornSetReduction(net, visible, true);
+    }
+
+    /**
+     * @return true if states whose reduced successors were already visited must be expanded fully
+     */
+    public boolean needsCycleProviso() {
+        return branching;
+    }
+
+    /**
+     * @param marking a marking vector
+     * @param enabled transitions enabled in the marking
+     * @return the enabled transitions of the smallest found stubborn set (all enabled transitions if nothing can
+     *         be reduced)
+     */
+    public BitSet reduce(final int[] marking, final BitSet enabled) {
+        if (enabled.cardinality() <= 1) {
+            return enabled;
+        }
+
+        BitSet best = enabled;
+
+        for (var seed = enabled.nextSetBit(0); seed >= 0; seed = enabled.nextSetBit(seed + 1)) {
+            final var stubborn = stubbornSet(marking, enabled, seed);
+            stubborn.and(enabled);
+
+            if (stubborn.cardinality() < best.cardinality()) {
+                best = stubborn;
+
+                if (best.cardinality() == 1) {
+                    break;
+                }
+            }
+        }
+
+        if (branching && best.cardinality() > 1) {
+            return enabled;
+        }
+
+        return best;
+    }
+
+    /**
+     * @param marking a marking vector
+     * @param enabled transitions enabled in the marking
+     * @param seed an enabled transition the stubborn set is built around
+     * @return the closure of the seed under the stubborn set rules
+     */
+    private BitSet stubbornSet(final int[] marking, final BitSet enabled, final int seed) {
+        final var stubborn = new BitSet(net.getTransitionCount());
+        final var work = new ArrayDeque<Integer>();
+        var visibleAdded = false;
+
+        stubborn.set(seed);
+        work.push(seed);
+
+        while (!work.isEmpty()) {
+            final int transition = work.pop();
+            final int[] dependent;
+
+            if (enabled.get(transition)) {
+                //transitions competing for the markers of the transition
+                for (final var place : net.getPreSet(transition)) {
+                    for (final var consumer : net.getConsumers(place)) {
+                        if (!stubborn.get(consumer)) {
+                            stubborn.set(consumer);
+                            work.push(consumer);
+                        }
+                    }
+                }
+
+                if (visibleAdded || !visible.get(transition)) {
+                    continue;
+                }
+
+                //an enabled visible transition must not be reordered with other visible transitions
+                visibleAdded = true;
+                dependent = visible.stream().toArray();
+            } else {
+                //transitions which could enable the transition, by marking one of its empty input places
+                dependent = producers[emptyInputPlace(marking, transition)];
+            }
+
+            for (final var other : dependent) {
+                if (!stubborn.get(other)) {
+                    stubborn.set(other);
+                    work.push(other);
+                }
+            }
+        }
+
+        return stubborn;
+    }
+
+    /**
+     * @param marking a marking vector
+     * @param transition a transition which is not enabled in the marking
+     * @return index of the first input place of the transition without markers
+     */
+    private int emptyInputPlace(final int[] marking, final int transition) {
+        for (final var place : net.getPreSet(transition)) {
+            if (marking[place] <= 0) {
+                return place;
+            }
+        }
+
+        throw new IllegalStateException(String.format("Transition %s is enabled!", net.getTransition(transition).getID()));
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.analysis;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.ArcImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNetImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import de.fraunhofer.isst.configmanager.petrinet.model.PlaceImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.TransitionImpl;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.CompiledPetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.ExplorationLimits;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.ExplorationStatus;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.PetriNetSimulator;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.SearchOrder;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.StateSpaceExplorer;
+import de.fraunhofer.isst.configmanager.util.PetriNetTestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the structural analysis of small PetriNets
+ */
+class StructuralAnalysisTest {
+
+    /**
+     * The markers of a fork-join net are conserved with weight 2 for source and sink
+     */
+    @Test
+    void testPlaceInvariants() {
+        final var matrix = IncidenceMatrix.of(PetriNetTestUtil.buildForkJoinNet());
+        final var net = matrix.getNet();
+        final var fork = net.getTransitionIndex(URI.create("trans://fork"));
+
+        assertEquals(-1, matrix.get(net.getPlaceIndex(URI.create("place://source")), fork));
+        assertEquals(1, matrix.get(net.getPlaceIndex(URI.create("place://a")), fork));
+
+        final var invariants = Invariants.placeInvariants(matrix);
+        //one invariant for each of the two branches
+        assertEquals(2, invariants.size());
+
+        for (final var invariant : invariants) {
+            assertEquals(1, invariant[net.getPlaceIndex(URI.create("place://source"))]);
+            assertEquals(1, invariant[net.getPlaceIndex(URI.create("place://sink"))]);
+        }
+
+        assertTrue(Invariants.uncovered(invariants, matrix.getPlaceCount()).isEmpty());
+        assertTrue(StructuralAnalysis.isConservative(matrix));
+        assertTrue(StructuralAnalysis.isBounded(PetriNetTestUtil.buildForkJoinNet()));
+        //fork and join can not be repeated
+        assertTrue(Invariants.transitionInvariants(matrix).isEmpty());
+        assertFalse(StructuralAnalysis.isConsistent(matrix));
+    }
+
+    /**
+     * A transition putting a marker back on its input place is not conservative, the coverability graph is used
+     */
+    @Test
+    void testUnboundedNet() {
+        final var petriNet = PetriNetTestUtil.buildCounterNet();
+        final var matrix = IncidenceMatrix.of(petriNet);
+
+        //the markers taken from and put back on source cancel out
+        assertArrayEquals(new int[]{matrix.getNet().getPlaceIndex(URI.create("place://counter"))}, matrix.getColumnPlaces(0));
+        assertArrayEquals(new int[]{1}, matrix.getColumnValues(0));
+        assertFalse(StructuralAnalysis.isConservative(matrix));
+        assertFalse(StructuralAnalysis.isBounded(petriNet));
+        assertTrue(Invariants.transitionInvariants(matrix).isEmpty());
+    }
+
+    /**
+     * The transitions of an unmarked circle can never fire, which follows from its P-invariant
+     */
+    @Test
+    void testDeadTransitions() {
+        final var start = new PlaceImpl(URI.create("place://start"));
+        start.setMarkers(1);
+        final var end = new PlaceImpl(URI.create("place://end"));
+        final var ping = new PlaceImpl(URI.create("place://ping"));
+        final var pong = new PlaceImpl(URI.create("place://pong"));
+        final var run = new TransitionImpl(URI.create("trans://run"));
+        final var send = new TransitionImpl(URI.create("trans://send"));
+        final var reply = new TransitionImpl(URI.create("trans://reply"));
+        final var nodes = new HashSet<Node>(List.of(start, end, ping, pong, run, send, reply));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(start, run),
+                new ArcImpl(run, end),
+                new ArcImpl(ping, send),
+                new ArcImpl(send, pong),
+                new ArcImpl(pong, reply),
+                new ArcImpl(reply, ping)
+        ));
+        final PetriNet petriNet = new PetriNetImpl(URI.create("https://pingpong"), nodes, arcs);
+
+        assertTrue(StructuralAnalysis.canFire(petriNet, URI.create("trans://run")));
+        assertFalse(StructuralAnalysis.canFire(petriNet, URI.create("trans://send")));
+        assertFalse(StructuralAnalysis.canFire(petriNet, URI.create("trans://reply")));
+        assertTrue(StructuralAnalysis.isConservative(petriNet));
+    }
+
+    /**
+     * A transition with a weighted input arc is enabled by a single marker, like in the simulation of the net
+     */
+    @Test
+    void testWeightedArcs() {
+        final var input = new PlaceImpl(URI.create("place://input"));
+        input.setMarkers(1);
+        final var output = new PlaceImpl(URI.create("place://output"));
+        final var consume = new TransitionImpl(URI.create("trans://consume"));
+        final var nodes = new HashSet<Node>(List.of(input, output, consume));
+        //parallel arcs give the arcs from input and to output weight 2
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(input, consume),
+                new ArcImpl(input, consume),
+                new ArcImpl(consume, output),
+                new ArcImpl(consume, output)
+        ));
+        final PetriNet petriNet = new PetriNetImpl(URI.create("https://weighted"), nodes, arcs);
+        final var net = new CompiledPetriNet(petriNet);
+        final var transition = net.getTransitionIndex(URI.create("trans://consume"));
+
+        assertArrayEquals(new int[]{2}, net.getPreWeights(transition));
+        assertTrue(net.isEnabled(net.getInitialMarking(), transition));
+        assertTrue(StructuralAnalysis.canFire(petriNet, URI.create("trans://consume")));
+    }
+
+    /**
+     * With weighted arcs, markings can go below zero, so P-invariants do not rule out transitions
+     */
+    @Test
+    void testNonOrdinaryNet() {
+        final var a = new PlaceImpl(URI.create("place://a"));
+        a.setMarkers(1);
+        final var b = new PlaceImpl(URI.create("place://b"));
+        final var c = new PlaceImpl(URI.create("place://c"));
+        final var t1 = new TransitionImpl(URI.create("trans://t1"));
+        final var tx = new TransitionImpl(URI.create("trans://tx"));
+        final var nodes = new HashSet<Node>(List.of(a, b, c, t1, tx));
+        //parallel arcs give the arcs from a and to a weight 2
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(a, t1),
+                new ArcImpl(a, t1),
+                new ArcImpl(t1, b),
+                new ArcImpl(t1, c),
+                new ArcImpl(b, tx),
+                new ArcImpl(c, tx),
+                new ArcImpl(tx, a),
+                new ArcImpl(tx, a)
+        ));
+        final PetriNet petriNet = new PetriNetImpl(URI.create("https://nonordinary"), nodes, arcs);
+
+        assertFalse(new CompiledPetriNet(petriNet).isOrdinary());
+        assertTrue(PetriNetSimulator.buildCoverabilityGraph(petriNet).getStepGraph().isFired(URI.create("trans://tx")));
+        assertTrue(StructuralAnalysis.canFire(petriNet, URI.create("trans://tx")));
+    }
+
+    /**
+     * A fork-join net ends in a deadlock, returning from sink to source makes it live
+     */
+    @Test
+    void testDeadlockFreedom() {
+        final var terminating = StructuralAnalysis.checkDeadlockFreedom(PetriNetTestUtil.buildForkJoinNet(), ExplorationLimits.unlimited());
+
+        assertFalse(terminating.isDeadlockFree());
+        assertFalse(terminating.isStructural());
+        assertTrue(terminating.isDecided());
+        //{sink} is a siphon, nothing takes markers from the unmarked source
+        assertFalse(terminating.getOffendingSiphons().isEmpty());
+        assertEquals(1, terminating.getDeadlock().getNodes().stream()
+                .filter(node -> node instanceof Place && ((Place) node).getMarkers() > 0)
+                .filter(node -> node.getID().equals(URI.create("place://sink")))
+                .count());
+
+        final var cyclic = PetriNetTestUtil.buildForkJoinNet();
+        final var sink = cyclic.getNodes().stream().filter(node -> node.getID().equals(URI.create("place://sink"))).findAny().orElseThrow();
+        final var source = cyclic.getNodes().stream().filter(node -> node.getID().equals(URI.create("place://source"))).findAny().orElseThrow();
+        final var reset = new TransitionImpl(URI.create("trans://reset"));
+        cyclic.getNodes().add(reset);
+        cyclic.getArcs().add(new ArcImpl(sink, reset));
+        cyclic.getArcs().add(new ArcImpl(reset, source));
+
+        final var live = StructuralAnalysis.checkDeadlockFreedom(cyclic, ExplorationLimits.unlimited());
+
+        assertTrue(live.isDeadlockFree());
+        assertTrue(live.isStructural());
+        assertTrue(live.isFreeChoice());
+        assertTrue(live.isLive());
+        assertTrue(Siphons.minimalSiphons(new CompiledPetriNet(cyclic), Siphons.MAX_STEPS).size() >= 2);
+    }
+
+    /**
+     * A PetriNet without transitions is in a deadlock from the start
+     */
+    @Test
+    void testDeadlockWithoutTransitions() {
+        final var place = new PlaceImpl(URI.create("place://only"));
+        place.setMarkers(1);
+        final PetriNet petriNet = new PetriNetImpl(URI.create("https://only"), new HashSet<>(List.of(place)), new HashSet<>());
+
+        final var result = StructuralAnalysis.checkDeadlockFreedom(petriNet, ExplorationLimits.unlimited());
+
+        assertFalse(result.isDeadlockFree());
+        assertFalse(result.isStructural());
+        assertFalse(result.isLive());
+        assertTrue(result.isDecided());
+        assertEquals(1, result.getDeadlock().getNodes().size());
+        assertEquals(1, ((Place) result.getDeadlock().getNodes().iterator().next()).getMarkers());
+    }
+
+    /**
+     * The deadlock search runs on the reduced PetriNet: a circle through ten places has ten states, but is fused into
+     * a single one, so a budget of five states suffices to show deadlock freedom
+     */
+    @Test
+    void testDeadlockSearchOnReducedNet() {
+        final var nodes = new HashSet<Node>();
+        final var arcs = new HashSet<Arc>();
+        final var places = new ArrayList<PlaceImpl>();
+
+        for (var i = 0; i < 10; i++) {
+            places.add(new PlaceImpl(URI.create("place://p" + i)));
+        }
+
+        places.get(0).setMarkers(1);
+        //a weighted self loop on a resource makes the net non-ordinary, so the siphons are not used
+        final var resource = new PlaceImpl(URI.create("place://resource"));
+        resource.setMarkers(2);
+        nodes.addAll(places);
+        nodes.add(resource);
+
+        for (var i = 0; i < 10; i++) {
+            final var transition = new TransitionImpl(URI.create("trans://t" + i));
+            nodes.add(transition);
+            arcs.add(new ArcImpl(places.get(i), transition));
+            arcs.add(new ArcImpl(transition, places.get((i + 1) % 10)));
+        }
+
+        final var first = nodes.stream().filter(node -> node.getID().equals(URI.create("trans://t0"))).findAny().orElseThrow();
+        arcs.add(new ArcImpl(resource, first));
+        arcs.add(new ArcImpl(resource, first));
+        arcs.add(new ArcImpl(first, resource));
+        arcs.add(new ArcImpl(first, resource));
+        final PetriNet petriNet = new PetriNetImpl(URI.create("https://circle"), nodes, arcs);
+        final var limits = ExplorationLimits.of(5, null);
+
+        assertEquals(ExplorationStatus.STATE_LIMIT, StateSpaceExplorer.explore(petriNet, SearchOrder.DEPTH_FIRST, limits).getStatus());
+
+        final var result = StructuralAnalysis.checkDeadlockFreedom(petriNet, limits);
+
+        assertTrue(result.isDeadlockFree());
+        assertFalse(result.isStructural());
+        assertTrue(result.isDecided());
+        assertNull(result.getDeadlock());
+    }
+
+    /**
+     * A chain of endpoints is fused around the visible endpoint, the removed nodes are mapped to the remaining ones
+     */
+    @Test
+    void testNetReduction() {
+        final var source = new PlaceImpl(URI.create("place://source"));
+        source.setMarkers(1);
+        final var first = new PlaceImpl(URI.create("place://first"));
+        final var second = new PlaceImpl(URI.create("place://second"));
+        final var sink = new PlaceImpl(URI.create("place://sink"));
+        final var a = new TransitionImpl(URI.create("trans://a"));
+        final var b = new TransitionImpl(URI.create("trans://b"));
+        final var c = new TransitionImpl(URI.create("trans://c"));
+        final var nodes = new HashSet<Node>(List.of(source, first, second, sink, a, b, c));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(source, a),
+                new ArcImpl(a, first),
+                new ArcImpl(first, b),
+                new ArcImpl(b, second),
+                new ArcImpl(second, c),
+                new ArcImpl(c, sink)
+        ));
+        final PetriNet petriNet = new PetriNetImpl(URI.create("https://chain"), nodes, arcs);
+
+        final var reduced = NetReduction.reduce(petriNet, Set.of(URI.create("trans://b")));
+        final var net = new CompiledPetriNet(reduced.getPetriNet());
+
+        //source -> a is fused into first, second -> c into b, and sink never restricts firing
+        assertEquals(2, reduced.getPetriNet().getNodes().size());
+        assertEquals(1, net.getInitialMarking()[net.getPlaceIndex(URI.create("place://first"))]);
+        assertEquals(List.of(URI.create("trans://b"), URI.create("place://second"), URI.create("trans://c")),
+                reduced.getOriginalIds(URI.create("trans://b")));
+        assertEquals(URI.create("place://first"), reduced.getReducedId(URI.create("trans://a")));
+        assertNull(reduced.getReducedId(URI.create("place://sink")));
+        assertEquals(List.of(URI.create("place://sink")), reduced.getRemovedIds());
+
+        final var original = StateSpaceExplorer.explore(petriNet, SearchOrder.BREADTH_FIRST, ExplorationLimits.unlimited());
+        final var smaller = StateSpaceExplorer.explore(reduced.getPetriNet(), SearchOrder.BREADTH_FIRST,
+                ExplorationLimits.unlimited());
+        assertEquals(4, original.getStepGraph().getSteps().size());
+        assertEquals(2, smaller.getStepGraph().getSteps().size());
+        assertTrue(smaller.getStepGraph().isFired(URI.create("trans://b")));
+
+        //deadlocks are preserved without visible nodes
+        assertFalse(StructuralAnalysis.checkDeadlockFreedom(NetReduction.reduce(PetriNetTestUtil.buildForkJoinNet()).getPetriNet(),
+                ExplorationLimits.unlimited()).isDeadlockFree());
+    }
+}
@@ -23,6 +23,7 @@ import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLEvaluator
 import de.fraunhofer.isst.configmanager.petrinet.model.*;
 import de.fraunhofer.isst.configmanager.petrinet.simulator.ParallelEvaluator;
 import de.fraunhofer.isst.configmanager.petrinet.simulator.PetriNetSimulator;
+import de.fraunhofer.isst.configmanager.util.PetriNetTestUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -136,7 +137,7 @@ class InfomodelPetriNetBuilderTest {
     @Disabled
     void testExamplePetriNet(){
         //build the example net and log DOT visualization
-        var petriNet = buildPaperNet();
+        var petriNet = PetriNetTestUtil.buildPaperNet();
         log.info(GraphVizGenerator.generateGraphViz(petriNet));
 
         //build stepGraph
@@ -196,7 +197,7 @@ class InfomodelPetriNetBuilderTest {
     @Disabled
     void testUnfoldNet(){
         //build example petrinet
-        var petriNet = buildPaperNet();
+        var petriNet = PetriNetTestUtil.buildPaperNet();
 
         //unfold and visualize example petrinet
         var unfolded = PetriNetSimulator.getUnfoldedPetriNet(petriNet);
@@ -230,105 +231,4 @@ class InfomodelPetriNetBuilderTest {
         }
         return newList;
     }
-
-    /**
-     * Build the example PetriNet from the paper, to evaluate formulas on
-     * @return Example PetriNet described in the WFDU Paper
-     */
-    private PetriNet buildPaperNet(){
-        //create nodes
-        var start = new PlaceImpl(URI.create("place://start"));
-        start.setMarkers(1);
-        var copy = new PlaceImpl(URI.create("place://copy"));
-        var init = new PlaceImpl(URI.create("place://init"));
-        var dat1 = new PlaceImpl(URI.create("place://data1"));
-        var dat2 = new PlaceImpl(URI.create("place://data2"));
-        var con1 = new PlaceImpl(URI.create("place://control1"));
-        var con2 = new PlaceImpl(URI.create("place://control2"));
-        var con3 = new PlaceImpl(URI.create("place://control3"));
-        var con4 = new PlaceImpl(URI.create("place://control4"));
-        var sample = new PlaceImpl(URI.create("place://sample"));
-        var mean = new PlaceImpl(URI.create("place://mean"));
-        var med = new PlaceImpl(URI.create("place://median"));
-        var rules = new PlaceImpl(URI.create("place://rules"));
-        var stor1 = new PlaceImpl(URI.create("place://stored1"));
-        var stor2 = new PlaceImpl(URI.create("place://stored2"));
-        var stor3 = new PlaceImpl(URI.create("place://stored3"));
-        var stor4 = new PlaceImpl(URI.create("place://stored4"));
-        var end = new PlaceImpl(URI.create("place://end"));
-        var nodes = new HashSet<Node>(List.of(start, copy, init, dat1, dat2, con1, con2, con3, con4, sample, mean, med, rules, stor1, stor2, stor3, stor4, end));
-        //create transitions with context
-        var initTrans = new TransitionImpl(URI.create("trans://init"));
-        initTrans.setContextObject(new ContextObject(List.of(), null, null, null, ContextObject.TransType.CONTROL));
-        var getData = new TransitionImpl(URI.create("trans://getData"));
-        getData.setContextObject(new ContextObject(List.of(), null, "data", null, ContextObject.TransType.APP));
-        var copyData = new TransitionImpl(URI.create("trans://copyData"));
-        copyData.setContextObject(new ContextObject(List.of(""), "data", "data", null, ContextObject.TransType.APP));
-        var extract = new TransitionImpl(URI.create("trans://extractSample"));
-        extract.setContextObject(new ContextObject(List.of("france"), "data", "sample", "data", ContextObject.TransType.APP));
-        var calcMean = new TransitionImpl(URI.create("trans://calcMean"));
-        calcMean.setContextObject(new ContextObject(List.of("france"), "data", "mean", "data", ContextObject.TransType.APP));
-        var calcMed = new TransitionImpl(URI.create("trans://calcMedian"));
-        calcMed.setContextObject(new ContextObject(List.of("france"), "data", "median", "data", ContextObject.TransType.APP));
-        var calcRules = new TransitionImpl(URI.create("trans://calcAPrioriRules"));
-        calcRules.setContextObject(new ContextObject(List.of("france", "high_performance"), "data", "rules", "data", ContextObject.TransType.APP));
-        var store1 = new TransitionImpl(URI.create("trans://storeData1"));
-        store1.setContextObject(new ContextObject(List.of(), "sample", null, "sample", ContextObject.TransType.APP));
-        var store2 = new TransitionImpl(URI.create("trans://storeData2"));
-        store2.setContextObject(new ContextObject(List.of(), "mean", null, "mean", ContextObject.TransType.APP));
-        var store3 = new TransitionImpl(URI.create("trans://storeData3"));
-        store3.setContextObject(new ContextObject(List.of(), "median", null, "median", ContextObject.TransType.APP));
-        var store4 = new TransitionImpl(URI.create("trans://storeData4"));
-        store4.setContextObject(new ContextObject(List.of(), "rules", null, "rules", ContextObject.TransType.APP));
-        var endTrans = new TransitionImpl(URI.create("trans://end"));
-        endTrans.setContextObject(new ContextObject(List.of(), null, null, null, ContextObject.TransType.CONTROL));
-        nodes.addAll(List.of(initTrans, getData, copyData, extract, calcMean, calcMed, calcRules, store1, store2, store3, store4, endTrans));
-        //create arcs
-        var arcs = new HashSet<Arc>();
-        arcs.add(new ArcImpl(start, initTrans));
-        arcs.add(new ArcImpl(initTrans, copy));
-        arcs.add(new ArcImpl(initTrans, copy));
-        arcs.add(new ArcImpl(initTrans, init));
-        arcs.add(new ArcImpl(init, getData));
-        arcs.add(new ArcImpl(getData, dat1));
-        arcs.add(new ArcImpl(copy, copyData));
-        arcs.add(new ArcImpl(dat1, copyData));
-        arcs.add(new ArcImpl(copyData, dat1));
-        arcs.add(new ArcImpl(copyData, dat2));
-        arcs.add(new ArcImpl(getData, con1));
-        arcs.add(new ArcImpl(getData, con2));
-        arcs.add(new ArcImpl(getData, con3));
-        arcs.add(new ArcImpl(getData, con4));
-        arcs.add(new ArcImpl(dat2, extract));
-        arcs.add(new ArcImpl(dat2, calcMean));
-        arcs.add(new ArcImpl(dat2, calcMed));
-        arcs.add(new ArcImpl(dat2, calcRules));
-        arcs.add(new ArcImpl(con1, extract));
-        arcs.add(new ArcImpl(con2, calcMean));
-        arcs.add(new ArcImpl(con3, calcMed));
-        arcs.add(new ArcImpl(con4, calcRules));
-        arcs.add(new ArcImpl(extract, sample));
-        arcs.add(new ArcImpl(calcMean, mean));
-        arcs.add(new ArcImpl(calcMed, med));
-        arcs.add(new ArcImpl(calcRules, rules));
-        arcs.add(new ArcImpl(extract, copy));
-        arcs.add(new ArcImpl(calcMean, copy));
-        arcs.add(new ArcImpl(calcMed, copy));
-        arcs.add(new ArcImpl(calcRules, copy));
-        arcs.add(new ArcImpl(sample, store1));
-        arcs.add(new ArcImpl(mean, store2));
-        arcs.add(new ArcImpl(med, store3));
-        arcs.add(new ArcImpl(rules, store4));
-        arcs.add(new ArcImpl(store1, stor1));
-        arcs.add(new ArcImpl(store2, stor2));
-        arcs.add(new ArcImpl(store3, stor3));
-        arcs.add(new ArcImpl(store4, stor4));
-        arcs.add(new ArcImpl(stor1, endTrans));
-        arcs.add(new ArcImpl(stor2, endTrans));
-        arcs.add(new ArcImpl(stor3, endTrans));
-        arcs.add(new ArcImpl(stor4, endTrans));
-        arcs.add(new ArcImpl(endTrans, end));
-        //create petriNet and visualize
-        return new PetriNetImpl(URI.create("https://petrinet"), nodes, arcs);
-    }
 }
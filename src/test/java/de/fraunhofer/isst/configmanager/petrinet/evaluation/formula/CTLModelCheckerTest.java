@@ -0,0 +1,530 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.evaluation.formula;
+
+import de.fraunhofer.isst.configmanager.petrinet.analysis.NetReduction;
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.StateFormula;
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.ArcImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNetImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.PlaceImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.TransitionImpl;
+import de.fraunhofer.isst.configmanager.petrinet.simulator.PetriNetSimulator;
+import de.fraunhofer.isst.configmanager.util.PetriNetTestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.FF.FF;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.TT.TT;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeALONG.nodeALONG;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeAND.nodeAND;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeEV.nodeEV;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeEXIST_UNTIL.nodeEXIST_UNTIL;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeExpression.nodeExpression;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeFORALL_MODAL.nodeFORALL_MODAL;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeFORALL_NEXT.nodeFORALL_NEXT;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeFORALL_UNTIL.nodeFORALL_UNTIL;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeINV.nodeINV;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeMODAL.nodeMODAL;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeNF.nodeNF;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeNOT.nodeNOT;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodePOS.nodePOS;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.ArcExpression.arcExpression;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionAF.transitionAF;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionALONG.transitionALONG;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionAND.transitionAND;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionEV.transitionEV;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionEXIST_NEXT.transitionEXIST_NEXT;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionEXIST_UNTIL.transitionEXIST_UNTIL;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFORALL_MODAL.transitionFORALL_MODAL;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionFORALL_UNTIL.transitionFORALL_UNTIL;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionINV.transitionINV;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionMODAL.transitionMODAL;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionNOT.transitionNOT;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionOR.transitionOR;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.TransitionPOS.transitionPOS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the labelling and on-the-fly model checkers and the cached evaluation against the evaluation over all paths
+ */
+class CTLModelCheckerTest {
+
+    /**
+     * Labelling and path evaluation give the same results for every node
+     */
+    @Test
+    void testMatchesPathEvaluation() {
+        final var stepGraph = PetriNetSimulator.buildStepGraph(buildRetryNet());
+        final var paths = PetriNetSimulator.getAllPaths(stepGraph);
+        final var checker = new CTLModelChecker(stepGraph);
+
+        for (final var formula : formulas()) {
+            for (final var node : stepGraph.getInitial().getNodes()) {
+                assertEquals(CTLEvaluator.evaluate(formula, node, paths), checker.check(formula, node),
+                        String.format("%s on %s", formula.writeFormula(), node.getID()));
+            }
+        }
+    }
+
+    /**
+     * Labelling and path evaluation agree on nets with circles and self-loops, a return to the start is only checked
+     * after a circle over other places
+     */
+    @Test
+    void testCyclicNets() {
+        for (final var petriNet : List.of(buildLoopNet(), buildCircleNet(), buildSharedLoopNet(), buildRingNet())) {
+            final var stepGraph = PetriNetSimulator.buildStepGraph(petriNet);
+            final var paths = PetriNetSimulator.getAllPaths(stepGraph);
+            final var checker = new CTLModelChecker(stepGraph);
+
+            for (final var formula : cyclicFormulas()) {
+                for (final var node : stepGraph.getInitial().getNodes()) {
+                    assertEquals(CTLEvaluator.evaluate(formula, node, paths), checker.check(formula, node),
+                            String.format("%s on %s", formula.writeFormula(), node.getID()));
+                }
+            }
+        }
+
+        final var stepGraph = PetriNetSimulator.buildStepGraph(buildLoopNet());
+        final var place = stepGraph.getNet().getPlace(0);
+
+        assertTrue(new CTLModelChecker(stepGraph).check(nodeFORALL_UNTIL(nodeNOT(TT()), FF()), place));
+
+        final var shared = PetriNetSimulator.buildStepGraph(buildSharedLoopNet());
+        final var p1 = shared.getNet().getPlace(shared.getNet().getPlaceIndex(URI.create("place://p1")));
+
+        assertFalse(new CTLModelChecker(shared).check(nodeFORALL_UNTIL(isP0(), FF()), p1));
+
+        final var ring = PetriNetSimulator.buildStepGraph(buildRingNet());
+        final var p0 = ring.getNet().getPlace(ring.getNet().getPlaceIndex(URI.create("place://p0")));
+
+        assertTrue(new CTLModelChecker(ring).check(nodeFORALL_UNTIL(nodeNOT(isP0()), FF()), p0));
+    }
+
+    /**
+     * On-the-fly checking gives the same results as labelling (also on nets with circles), without exploring states it
+     * does not need
+     */
+    @Test
+    void testLocalModelChecker() {
+        for (final var net : List.of(buildRetryNet(), buildLoopNet(), buildCircleNet(), buildSharedLoopNet(),
+                buildRingNet())) {
+            final var checker = new CTLModelChecker(PetriNetSimulator.buildStepGraph(net));
+            final var local = new LocalModelChecker(net);
+
+            for (final var formula : cyclicFormulas()) {
+                for (final var node : net.getNodes()) {
+                    assertEquals(checker.check(formula, node), local.check(formula, node),
+                            String.format("%s on %s", formula.writeFormula(), node.getID()));
+                }
+            }
+        }
+
+        final var petriNet = buildRetryNet();
+        final var start = petriNet.getNodes().stream()
+                .filter(node -> node.getID().equals(URI.create("place://start")))
+                .findAny().orElseThrow();
+        final var onTheFly = new LocalModelChecker(petriNet);
+
+        assertTrue(onTheFly.check(nodeMODAL(TT()), start));
+        assertEquals(1, onTheFly.getStateSpace().getStateCount());
+        assertTrue(CTLEvaluator.evaluate(nodePOS(nodeNF(nodeExpression(place -> place.getSourceArcs().isEmpty(), ""))), start, petriNet));
+    }
+
+    /**
+     * Cached evaluation gives the same results, structurally equal formulas share their cache entries
+     */
+    @Test
+    void testEvaluateAll() {
+        final var petriNet = buildRetryNet();
+        final var stepGraph = PetriNetSimulator.buildStepGraph(petriNet);
+        final var formulas = formulas();
+        final var nodes = List.copyOf(petriNet.getNodes());
+        final var results = CTLEvaluator.evaluateAll(petriNet, formulas, nodes);
+
+        assertEquals(formulas.size(), results.length);
+
+        for (var i = 0; i < formulas.size(); i++) {
+            for (var j = 0; j < nodes.size(); j++) {
+                assertEquals(CTLEvaluator.evaluate(formulas.get(i), nodes.get(j), stepGraph), results[i][j],
+                        String.format("%s on %s", formulas.get(i).writeFormula(), nodes.get(j).getID()));
+            }
+        }
+    }
+
+    /**
+     * Cached evaluation on a StepGraph with circles gives the same results as evaluating each formula on its own
+     */
+    @Test
+    void testEvaluateAllCyclic() {
+        final var stepGraph = PetriNetSimulator.buildStepGraph(buildCircleNet());
+        final var paths = PetriNetSimulator.getAllPaths(stepGraph);
+        final var formulas = formulas();
+        final var nodes = List.copyOf(stepGraph.getInitial().getNodes());
+        final var results = CTLEvaluator.evaluateAll(stepGraph, formulas, nodes);
+
+        for (var i = 0; i < formulas.size(); i++) {
+            for (var j = 0; j < nodes.size(); j++) {
+                final var message = String.format("%s on %s", formulas.get(i).writeFormula(), nodes.get(j).getID());
+
+                assertEquals(CTLEvaluator.evaluate(formulas.get(i), nodes.get(j), stepGraph), results[i][j], message);
+                assertEquals(CTLEvaluator.evaluate(formulas.get(i), nodes.get(j), paths), results[i][j], message);
+            }
+        }
+    }
+
+    /**
+     * FORALL_MODAL checks all successors used in the StepGraph, in every evaluation
+     */
+    @Test
+    void testForallModal() {
+        final var petriNet = buildRetryNet();
+        final var stepGraph = PetriNetSimulator.buildStepGraph(petriNet);
+        final var paths = PetriNetSimulator.getAllPaths(stepGraph);
+        final var start = stepGraph.getNet().getPlace(stepGraph.getNet().getPlaceIndex(URI.create("place://start")));
+        final var sink = stepGraph.getNet().getPlace(stepGraph.getNet().getPlaceIndex(URI.create("place://sink")));
+        final var begin = stepGraph.getNet().getTransition(stepGraph.getNet().getTransitionIndex(URI.create("trans://begin")));
+        final var nodeNever = nodeFORALL_MODAL(nodeNOT(TT()), TT());
+        final var transitionNever = transitionFORALL_MODAL(transitionNOT(TT()), TT());
+
+        //start -> begin -> work, also when the paths continue after work
+        assertFalse(CTLEvaluator.evaluate(nodeNever, start, paths));
+        assertFalse(CTLEvaluator.evaluate(nodeNever, start, stepGraph));
+        assertFalse(CTLEvaluator.evaluate(nodeNever, start, petriNet));
+        assertFalse(CTLEvaluator.evaluate(transitionNever, begin, paths));
+        assertFalse(CTLEvaluator.evaluate(transitionNever, begin, stepGraph));
+        assertFalse(CTLEvaluator.evaluate(transitionNever, begin, petriNet));
+        //without successors, it holds
+        assertTrue(CTLEvaluator.evaluate(nodeNever, sink, paths));
+        assertTrue(CTLEvaluator.evaluate(nodeNever, sink, stepGraph));
+        assertTrue(CTLEvaluator.evaluate(nodeNever, sink, petriNet));
+    }
+
+    @Test
+    void testEvaluationCache() {
+        final var stepGraph = PetriNetSimulator.buildStepGraph(buildRetryNet());
+        final var paths = PetriNetSimulator.getAllPaths(stepGraph);
+        final var cached = EvaluationCache.of(paths);
+        final var isRetry = transitionAF(arcExpression(transition -> transition.getID().toString().contains("retry"), ""));
+
+        assertEquals(nodeALONG(nodeMODAL(isRetry)), nodeALONG(nodeMODAL(isRetry)));
+        assertEquals(nodeALONG(nodeMODAL(isRetry)).hashCode(), nodeALONG(nodeMODAL(isRetry)).hashCode());
+        assertFalse(nodePOS(TT()).equals(nodeINV(TT())));
+        assertTrue(cached == EvaluationCache.of(cached));
+
+        for (final var formula : List.of(nodeALONG(nodeMODAL(isRetry)), transitionINV(transitionNOT(isRetry)))) {
+            for (final var node : stepGraph.getInitial().getNodes()) {
+                assertEquals(formula.evaluate(node, paths), formula.evaluate(node, cached));
+            }
+        }
+    }
+
+    /**
+     * Transitions never used in the StepGraph are not part of any path
+     */
+    @Test
+    void testUnusedTransition() {
+        final var stepGraph = PetriNetSimulator.buildStepGraph(buildRetryNet());
+        final var start = stepGraph.getNet().getPlace(stepGraph.getNet().getPlaceIndex(URI.create("place://start")));
+        final var idle = stepGraph.getNet().getPlace(stepGraph.getNet().getPlaceIndex(URI.create("place://idle")));
+        final var begin = stepGraph.getNet().getTransition(stepGraph.getNet().getTransitionIndex(URI.create("trans://begin")));
+        final var isSink = nodeNF(nodeExpression(place -> place.getSourceArcs().isEmpty(), ""));
+        final var isNever = transitionAF(arcExpression(transition -> transition.getID().toString().contains("never"), ""));
+
+        assertTrue(CTLEvaluator.evaluate(nodePOS(isSink), start, stepGraph));
+        assertFalse(CTLEvaluator.evaluate(nodePOS(isSink), idle, stepGraph));
+        //modal operators follow the arcs of the PetriNet
+        assertTrue(CTLEvaluator.evaluate(nodeMODAL(TT()), idle, stepGraph));
+        assertFalse(CTLEvaluator.evaluate(transitionPOS(isNever), begin, stepGraph));
+    }
+
+    /**
+     * The checker for the reduced PetriNet explores only the fused state space, but gives the same results, the
+     * transitions fused into places fire only if their input place gets markers
+     */
+    @Test
+    void testReducedNet() {
+        for (final var petriNet : List.of(buildRetryNet(), buildLoopNet(), buildCircleNet(), buildSharedLoopNet(),
+                buildRingNet(), buildFeederNet())) {
+            final var checker = new CTLModelChecker(PetriNetSimulator.buildStepGraph(petriNet));
+            final var reducedChecker = CTLModelChecker.forReducedNet(petriNet);
+
+            for (final var formula : cyclicFormulas()) {
+                for (final var node : petriNet.getNodes()) {
+                    assertEquals(checker.check(formula, node), reducedChecker.check(formula, node),
+                            String.format("%s on %s", formula.writeFormula(), node.getID()));
+                }
+            }
+        }
+
+        final var reduced = NetReduction.reduce(buildFeederNet());
+        final var stepGraph = PetriNetSimulator.buildStepGraph(reduced.getPetriNet());
+
+        assertTrue(reduced.getPetriNet().getNodes().size() < buildFeederNet().getNodes().size());
+        assertEquals(Set.of(URI.create("trans://t0"), URI.create("trans://t1")), reduced.getFiredIds(stepGraph::isFired));
+    }
+
+    /**
+     * On the example PetriNet from the paper, every evaluation gives the results of the evaluation over paths
+     */
+    @Test
+    void testPaperNet() {
+        final var petriNet = PetriNetTestUtil.buildPaperNet();
+        final var stepGraph = PetriNetSimulator.buildStepGraph(petriNet);
+        final var paths = PetriNetSimulator.getAllPaths(stepGraph);
+        final var nodes = List.copyOf(stepGraph.getInitial().getNodes());
+        final var formulas = paperFormulas();
+        final var results = CTLEvaluator.evaluateAll(petriNet, formulas, nodes);
+
+        for (var i = 0; i < formulas.size(); i++) {
+            for (var j = 0; j < nodes.size(); j++) {
+                final var formula = formulas.get(i);
+                final var node = nodes.get(j);
+                final var expected = CTLEvaluator.evaluate(formula, node, paths);
+                final var message = String.format("%s on %s", formula.writeFormula(), node.getID());
+
+                assertEquals(expected, CTLEvaluator.evaluate(formula, node, stepGraph), message);
+                assertEquals(expected, CTLEvaluator.evaluate(formula, node, petriNet), message);
+                assertEquals(expected, results[i][j], message);
+            }
+        }
+    }
+
+    /**
+     * @return formulas on the data usage of the example PetriNet from the paper
+     */
+    private static List<Formula> paperFormulas() {
+        final var readsData = transitionAF(arcExpression(transition -> "data".equals(transition.getContext().getRead()), ""));
+        final var removesData = transitionAF(arcExpression(transition -> "data".equals(transition.getContext().getWrite())
+                || "data".equals(transition.getContext().getErase()), ""));
+        final var notFrance = transitionAF(arcExpression(transition -> !transition.getContext().getContext().contains("france"), ""));
+        final var isEnd = nodeNF(nodeExpression(place -> place.getSourceArcs().isEmpty(), ""));
+
+        //EV on places and ALONG are left out, their path evaluation takes minutes on the circles through copy
+        return List.of(
+                transitionPOS(transitionAND(transitionAND(readsData, notFrance),
+                        transitionEV(transitionOR(removesData, transitionMODAL(isEnd))))),
+                nodeMODAL(transitionPOS(readsData)),
+                transitionPOS(transitionAND(readsData, transitionPOS(transitionAND(readsData,
+                        transitionEV(transitionOR(removesData, transitionMODAL(isEnd))))))),
+                nodePOS(isEnd),
+                nodeINV(nodeNOT(isEnd)),
+                nodeEXIST_UNTIL(nodeMODAL(transitionNOT(removesData)), isEnd),
+                nodeFORALL_UNTIL(nodeNOT(isEnd), nodeMODAL(readsData)),
+                nodeFORALL_NEXT(nodeMODAL(TT())),
+                nodeFORALL_MODAL(TT(), readsData),
+                transitionINV(transitionNOT(removesData)),
+                transitionEXIST_NEXT(readsData),
+                transitionEXIST_UNTIL(transitionNOT(removesData), readsData),
+                transitionFORALL_MODAL(readsData, nodeNOT(isEnd)),
+                transitionFORALL_UNTIL(TT(), FF())
+        );
+    }
+
+    /**
+     * @return formulas using all temporal operators
+     */
+    private static List<Formula> formulas() {
+        final var isSink = nodeNF(nodeExpression(place -> place.getSourceArcs().isEmpty(), ""));
+        final var isRetry = transitionAF(arcExpression(transition -> transition.getID().toString().contains("retry"), ""));
+
+        return List.of(
+                nodePOS(isSink),
+                nodeEV(isSink),
+                nodeINV(nodeNOT(isSink)),
+                nodeALONG(nodeMODAL(isRetry)),
+                nodeEXIST_UNTIL(nodeMODAL(transitionNOT(isRetry)), isSink),
+                nodeFORALL_UNTIL(nodeNOT(isSink), nodeAND(isSink, TT())),
+                nodeFORALL_NEXT(nodeMODAL(TT())),
+                nodeFORALL_MODAL(nodeNOT(isSink), transitionNOT(isRetry)),
+                transitionPOS(isRetry),
+                transitionEV(transitionMODAL(isSink)),
+                transitionINV(transitionNOT(isRetry)),
+                transitionALONG(isRetry),
+                transitionEXIST_NEXT(isRetry),
+                transitionFORALL_MODAL(transitionNOT(isRetry), nodeNOT(isSink)),
+                transitionFORALL_UNTIL(TT(), FF())
+        );
+    }
+
+    /**
+     * @return formulas using all temporal operators, and until formulas which are violated on every circle
+     */
+    private static List<Formula> cyclicFormulas() {
+        final var formulas = new ArrayList<>(formulas());
+        formulas.add(nodeFORALL_UNTIL(nodeNOT(TT()), FF()));
+        formulas.add(transitionFORALL_UNTIL(transitionNOT(TT()), FF()));
+        formulas.add(nodeFORALL_UNTIL(isP0(), FF()));
+        formulas.add(nodeFORALL_UNTIL(nodeNOT(isP0()), FF()));
+        return formulas;
+    }
+
+    /**
+     * @return formula fulfilled by place p0
+     */
+    private static StateFormula isP0() {
+        return nodeNF(nodeExpression(place -> place.getID().equals(URI.create("place://p0")), ""));
+    }
+
+    /**
+     * @return PetriNet p0 -> t2 -> p0
+     */
+    private static PetriNet buildLoopNet() {
+        final var place = new PlaceImpl(URI.create("place://p0"));
+        place.setMarkers(1);
+        final var transition = new TransitionImpl(URI.create("trans://t2"));
+
+        final var nodes = new HashSet<Node>(List.of(place, transition));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(place, transition),
+                new ArcImpl(transition, place)
+        ));
+
+        return new PetriNetImpl(URI.create("https://loop"), nodes, arcs);
+    }
+
+    /**
+     * @return PetriNet (p0, p1) -> t0 -> (p0, p1), both places marked
+     */
+    private static PetriNet buildSharedLoopNet() {
+        final var p0 = new PlaceImpl(URI.create("place://p0"));
+        p0.setMarkers(1);
+        final var p1 = new PlaceImpl(URI.create("place://p1"));
+        p1.setMarkers(1);
+        final var transition = new TransitionImpl(URI.create("trans://t0"));
+
+        final var nodes = new HashSet<Node>(List.of(p0, p1, transition));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(p0, transition),
+                new ArcImpl(p1, transition),
+                new ArcImpl(transition, p0),
+                new ArcImpl(transition, p1)
+        ));
+
+        return new PetriNetImpl(URI.create("https://shared"), nodes, arcs);
+    }
+
+    /**
+     * @return PetriNet p0 -> t0 -> p1 -> t1 -> p0, with the dead transition idle -> t2 -> p1
+     */
+    private static PetriNet buildFeederNet() {
+        final var p0 = new PlaceImpl(URI.create("place://p0"));
+        p0.setMarkers(1);
+        final var p1 = new PlaceImpl(URI.create("place://p1"));
+        final var idle = new PlaceImpl(URI.create("place://idle"));
+        final var t0 = new TransitionImpl(URI.create("trans://t0"));
+        final var t1 = new TransitionImpl(URI.create("trans://t1"));
+        final var t2 = new TransitionImpl(URI.create("trans://t2"));
+
+        final var nodes = new HashSet<Node>(List.of(p0, p1, idle, t0, t1, t2));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(p0, t0),
+                new ArcImpl(t0, p1),
+                new ArcImpl(p1, t1),
+                new ArcImpl(t1, p0),
+                new ArcImpl(idle, t2),
+                new ArcImpl(t2, p1)
+        ));
+
+        return new PetriNetImpl(URI.create("https://feeder"), nodes, arcs);
+    }
+
+    /**
+     * @return PetriNet p0 -> t0 -> p1 -> t1 -> p0
+     */
+    private static PetriNet buildRingNet() {
+        final var p0 = new PlaceImpl(URI.create("place://p0"));
+        p0.setMarkers(1);
+        final var p1 = new PlaceImpl(URI.create("place://p1"));
+        final var t0 = new TransitionImpl(URI.create("trans://t0"));
+        final var t1 = new TransitionImpl(URI.create("trans://t1"));
+
+        final var nodes = new HashSet<Node>(List.of(p0, p1, t0, t1));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(p0, t0),
+                new ArcImpl(t0, p1),
+                new ArcImpl(p1, t1),
+                new ArcImpl(t1, p0)
+        ));
+
+        return new PetriNetImpl(URI.create("https://ring"), nodes, arcs);
+    }
+
+    /**
+     * @return PetriNet start -> begin -> work -> (retry -> work | back -> start | finish -> sink)
+     */
+    private static PetriNet buildCircleNet() {
+        final var start = new PlaceImpl(URI.create("place://start"));
+        start.setMarkers(1);
+        final var work = new PlaceImpl(URI.create("place://work"));
+        final var sink = new PlaceImpl(URI.create("place://sink"));
+        final var begin = new TransitionImpl(URI.create("trans://begin"));
+        final var retry = new TransitionImpl(URI.create("trans://retry"));
+        final var back = new TransitionImpl(URI.create("trans://back"));
+        final var finish = new TransitionImpl(URI.create("trans://finish"));
+
+        final var nodes = new HashSet<Node>(List.of(start, work, sink, begin, retry, back, finish));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(start, begin),
+                new ArcImpl(begin, work),
+                new ArcImpl(work, retry),
+                new ArcImpl(retry, work),
+                new ArcImpl(work, back),
+                new ArcImpl(back, start),
+                new ArcImpl(work, finish),
+                new ArcImpl(finish, sink)
+        ));
+
+        return new PetriNetImpl(URI.create("https://circle"), nodes, arcs);
+    }
+
+    /**
+     * @return PetriNet start -> begin -> work -> (retry -> work | finish -> sink), with an unused idle -> never -> sink
+     */
+    private static PetriNet buildRetryNet() {
+        final var start = new PlaceImpl(URI.create("place://start"));
+        start.setMarkers(1);
+        final var work = new PlaceImpl(URI.create("place://work"));
+        final var idle = new PlaceImpl(URI.create("place://idle"));
+        final var sink = new PlaceImpl(URI.create("place://sink"));
+        final var begin = new TransitionImpl(URI.create("trans://begin"));
+        final var retry = new TransitionImpl(URI.create("trans://retry"));
+        final var finish = new TransitionImpl(URI.create("trans://finish"));
+        final var never = new TransitionImpl(URI.create("trans://never"));
+
+        final var nodes = new HashSet<Node>(List.of(start, work, idle, sink, begin, retry, finish, never));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(start, begin),
+                new ArcImpl(begin, work),
+                new ArcImpl(work, retry),
+                new ArcImpl(retry, work),
+                new ArcImpl(work, finish),
+                new ArcImpl(finish, sink),
+                new ArcImpl(idle, never),
+                new ArcImpl(never, sink)
+        ));
+
+        return new PetriNetImpl(URI.create("https://retry"), nodes, arcs);
+    }
+}
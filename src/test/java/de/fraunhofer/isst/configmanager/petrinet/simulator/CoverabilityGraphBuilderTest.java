@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.util.PetriNetTestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the Karp-Miller coverability graph on bounded and unbounded PetriNets
+ */
+class CoverabilityGraphBuilderTest {
+
+    /**
+     * The coverability graph of a marker generating circle is finite and reports the unbounded place
+     */
+    @Test
+    void testUnboundedNet() {
+        final var graph = PetriNetSimulator.buildCoverabilityGraph(PetriNetTestUtil.buildCounterNet());
+
+        assertFalse(graph.isBounded());
+        assertTrue(graph.isBounded(URI.create("place://source")));
+        assertEquals(1, graph.getBound(URI.create("place://source")));
+        assertEquals(CoverabilityGraph.OMEGA, graph.getBound(URI.create("place://counter")));
+        assertEquals(1, graph.getUnboundedPlaces().size());
+        //{source, counter = 0} -> {source, counter = omega} -> itself
+        assertEquals(2, graph.getStepGraph().getSteps().size());
+        assertEquals(2, graph.getStepGraph().getArcs().size());
+    }
+
+    /**
+     * The coverability graph of a bounded PetriNet is its StepGraph
+     */
+    @Test
+    void testBoundedNet() {
+        final var graph = PetriNetSimulator.buildCoverabilityGraph(PetriNetTestUtil.buildForkJoinNet());
+        final var stepGraph = PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet());
+
+        assertTrue(graph.isBounded());
+        assertTrue(graph.getUnboundedPlaces().isEmpty());
+        assertEquals(1, graph.getBound(URI.create("place://sink")));
+        assertEquals(stepGraph.getSteps().size(), graph.getStepGraph().getSteps().size());
+        assertEquals(stepGraph.getArcs().size(), graph.getStepGraph().getArcs().size());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.ArcImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNetImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.PlaceImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.TransitionImpl;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the incremental tracking of enabled transitions
+ */
+class EnabledTransitionsTest {
+
+    /**
+     * After every step of a random firing sequence, the tracked transitions are the ones enabled in the marking
+     */
+    @Test
+    void testFiringSequence() {
+        final var net = new CompiledPetriNet(buildSharedInputNet());
+        final var enabled = new EnabledTransitions(net, net.getInitialMarking());
+        final var random = new SplittableRandom(42);
+        var marking = net.getInitialMarking();
+
+        assertSameEnabled(net, marking, enabled);
+
+        for (var step = 0; step < 200 && !enabled.isEmpty(); step++) {
+            final var transition = enabled.get(random.nextInt(enabled.size()));
+            marking = net.fire(marking, transition);
+            enabled.fire(transition);
+
+            assertArrayEquals(marking, enabled.getMarking());
+            assertSameEnabled(net, marking, enabled);
+        }
+    }
+
+    /**
+     * Setting the first marker of a place enables its consumers, removing it again disables them
+     */
+    @Test
+    void testSetMarkers() {
+        final var net = new CompiledPetriNet(buildSharedInputNet());
+        final var enabled = new EnabledTransitions(net, net.getInitialMarking());
+        final var z = net.getPlaceIndex(URI.create("place://z"));
+        final var release = net.getTransitionIndex(URI.create("trans://release"));
+
+        assertEquals(0, enabled.getMarking()[z]);
+        assertFalse(enabled.isEnabled(release));
+
+        enabled.setMarkers(z, 1);
+        assertSameEnabled(net, enabled.getMarking(), enabled);
+        assertTrue(enabled.isEnabled(release));
+
+        enabled.setMarkers(z, 0);
+        assertSameEnabled(net, enabled.getMarking(), enabled);
+        assertFalse(enabled.isEnabled(release));
+        assertArrayEquals(net.getInitialMarking(), enabled.getMarking());
+    }
+
+    /**
+     * @param net the compiled PetriNet
+     * @param marking a marking vector
+     * @param enabled the tracked transitions, expected to be the ones enabled in the marking
+     */
+    private static void assertSameEnabled(final CompiledPetriNet net, final int[] marking, final EnabledTransitions enabled) {
+        assertEquals(net.getEnabledSet(marking), enabled.toBitSet());
+        assertArrayEquals(net.getEnabledTransitions(marking), enabled.toArray());
+        assertEquals(net.getEnabledTransitions(marking).length, enabled.size());
+    }
+
+    /**
+     * @return PetriNet with places x (1 marker), y (1 marker), z and transitions sharing their input places:
+     *         join: (x, y) -> z, move: x -> y, release: z -> (x, y), swap: (y, z) -> x
+     */
+    private static PetriNet buildSharedInputNet() {
+        final var x = new PlaceImpl(URI.create("place://x"));
+        x.setMarkers(1);
+        final var y = new PlaceImpl(URI.create("place://y"));
+        y.setMarkers(1);
+        final var z = new PlaceImpl(URI.create("place://z"));
+        final var join = new TransitionImpl(URI.create("trans://join"));
+        final var move = new TransitionImpl(URI.create("trans://move"));
+        final var release = new TransitionImpl(URI.create("trans://release"));
+        final var swap = new TransitionImpl(URI.create("trans://swap"));
+
+        final var nodes = new HashSet<Node>(List.of(x, y, z, join, move, release, swap));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(x, join),
+                new ArcImpl(y, join),
+                new ArcImpl(join, z),
+                new ArcImpl(x, move),
+                new ArcImpl(move, y),
+                new ArcImpl(z, release),
+                new ArcImpl(release, x),
+                new ArcImpl(release, y),
+                new ArcImpl(y, swap),
+                new ArcImpl(z, swap),
+                new ArcImpl(swap, x)
+        ));
+
+        return new PetriNetImpl(URI.create("https://shared"), nodes, arcs);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test the duplicate detection of the hashed state store
+ */
+class HashedStateStoreTest {
+
+    /**
+     * Different markings with the same fingerprint are told apart by comparing the marking vectors
+     */
+    @Test
+    void testFingerprintCollision() {
+        final var store = new HashedStateStore();
+
+        assertEquals(-1, store.addIfAbsent(new int[]{1, 0}, 42L));
+        assertEquals(-2, store.addIfAbsent(new int[]{0, 1}, 42L));
+        assertEquals(0, store.addIfAbsent(new int[]{1, 0}, 42L));
+        assertEquals(1, store.addIfAbsent(new int[]{0, 1}, 42L));
+        assertEquals(1, store.indexOf(new int[]{0, 1}, 42L));
+        assertEquals(-1, store.indexOf(new int[]{1, 1}, 42L));
+        //an equal marking with another fingerprint is not found, the fingerprint is part of the key
+        assertEquals(-1, store.indexOf(new int[]{1, 0}, 43L));
+        assertEquals(2, store.size());
+        assertEquals(42L, store.getFingerprint(1));
+    }
+
+    /**
+     * Growing the table beyond a load factor of 1/2 keeps the index of every marking, also for colliding fingerprints
+     */
+    @Test
+    void testRehash() {
+        final var store = new HashedStateStore();
+        final var count = 5000;
+
+        for (var i = 0; i < count; i++) {
+            assertEquals(-i - 1, store.addIfAbsent(new int[]{i, i % 3}, fingerprint(i)));
+        }
+
+        assertEquals(count, store.size());
+
+        for (var i = 0; i < count; i++) {
+            final var marking = new int[]{i, i % 3};
+            assertEquals(i, store.indexOf(marking, fingerprint(i)));
+            assertEquals(i, store.addIfAbsent(marking, fingerprint(i)));
+            assertArrayEquals(marking, store.get(i));
+            assertEquals(fingerprint(i), store.getFingerprint(i));
+        }
+
+        assertEquals(count, store.size());
+    }
+
+    /**
+     * @param i number of a marking
+     * @return fingerprint of the marking, the markings with i divisible by 4 share only 5 fingerprints
+     */
+    private static long fingerprint(final int i) {
+        return i % 4 == 0 ? i % 10 : i * 0x9E3779B97F4A7C15L;
+    }
+}
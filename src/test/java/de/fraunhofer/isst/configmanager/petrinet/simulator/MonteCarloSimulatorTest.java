@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.ArcImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNetImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Place;
+import de.fraunhofer.isst.configmanager.petrinet.model.PlaceImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.TransitionImpl;
+import de.fraunhofer.isst.configmanager.util.PetriNetTestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the seeded Monte Carlo simulation of PetriNets
+ */
+class MonteCarloSimulatorTest {
+
+    private static final URI LEFT = URI.create("trans://left");
+
+    private static final URI RIGHT = URI.create("trans://right");
+
+    private static final URI LEFT_END = URI.create("place://left_end");
+
+    /**
+     * Random traces of the fork-join net always end in the sink, traces of the counter net are cut at the maximum length
+     */
+    @Test
+    void testSimulation() {
+        final var result = MonteCarloSimulator.simulate(PetriNetTestUtil.buildForkJoinNet(), 1000, 100, 42);
+        assertEquals(1000, result.getTraces());
+        assertEquals(1000, result.getDeadlocks());
+        assertEquals(4, result.getMinLength());
+        assertEquals(4, result.getMaxLength());
+        assertEquals(1.0, result.getReachFrequency(URI.create("place://sink")));
+        assertEquals(1000, result.getFiringCount(URI.create("trans://a")));
+
+        final var counter = MonteCarloSimulator.simulate(PetriNetTestUtil.buildCounterNet(), 10, 50, 42);
+        assertEquals(0, counter.getDeadlocks());
+        assertEquals(50.0, counter.getMeanLength());
+        assertEquals(500, counter.getFiringCount(URI.create("trans://generate")));
+
+        //a single simulation leaves the PetriNet in its final state
+        final var petriNet = PetriNetTestUtil.buildForkJoinNet();
+        PetriNetSimulator.simulateNet(petriNet, 42);
+        assertEquals(List.of(URI.create("place://sink")), petriNet.getNodes().stream()
+                .filter(node -> node instanceof Place && ((Place) node).getMarkers() > 0)
+                .map(Node::getID)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Simulations of a net with a choice are reproducible with the same seed, other seeds choose differently
+     */
+    @Test
+    void testSeed() {
+        final var first = MonteCarloSimulator.simulate(buildChoiceNet(), 1000, 10, 42);
+        final var second = MonteCarloSimulator.simulate(buildChoiceNet(), 1000, 10, 42);
+
+        assertEquals(1000, first.getFiringCount(LEFT) + first.getFiringCount(RIGHT));
+        assertTrue(first.getFiringCount(LEFT) > 0 && first.getFiringCount(RIGHT) > 0);
+        assertEquals(first.getFiringCount(LEFT), second.getFiringCount(LEFT));
+        assertEquals(first.getFiringCount(RIGHT), second.getFiringCount(RIGHT));
+        assertEquals(first.getReachFrequency(LEFT_END), second.getReachFrequency(LEFT_END));
+
+        assertTrue(LongStream.range(0, 10)
+                .map(seed -> MonteCarloSimulator.simulate(buildChoiceNet(), 1000, 10, seed).getFiringCount(LEFT))
+                .anyMatch(count -> count != first.getFiringCount(LEFT)));
+    }
+
+    /**
+     * @return PetriNet with a choice: start -> (left -> left_end | right -> right_end)
+     */
+    private static PetriNet buildChoiceNet() {
+        final var start = new PlaceImpl(URI.create("place://start"));
+        start.setMarkers(1);
+        final var leftEnd = new PlaceImpl(LEFT_END);
+        final var rightEnd = new PlaceImpl(URI.create("place://right_end"));
+        final var left = new TransitionImpl(LEFT);
+        final var right = new TransitionImpl(RIGHT);
+
+        final var nodes = new HashSet<Node>(List.of(start, leftEnd, rightEnd, left, right));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(start, left),
+                new ArcImpl(left, leftEnd),
+                new ArcImpl(start, right),
+                new ArcImpl(right, rightEnd)
+        ));
+
+        return new PetriNetImpl(URI.create("https://choice"), nodes, arcs);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.ArcImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.ContextObject;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNetImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.PlaceImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
+import de.fraunhofer.isst.configmanager.petrinet.model.TransitionImpl;
+import de.fraunhofer.isst.configmanager.util.PetriNetTestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test finding parallel executions of APP transitions without unfolding the PetriNet
+ */
+class ParallelSetExplorerTest {
+
+    private static final List<URI> APPS = List.of(URI.create("trans://a"), URI.create("trans://b"));
+
+    /**
+     * The branches of a fork-join net run in parallel
+     */
+    @Test
+    void testForkJoinNet() {
+        final var petriNet = withContext(PetriNetTestUtil.buildForkJoinNet(), Set.copyOf(APPS));
+        final var parallelSets = PetriNetSimulator.getParallelSets(petriNet);
+
+        assertEquals(List.of(APPS), ids(parallelSets));
+        assertEquals(unfoldedParallelSets(petriNet), parallelSets);
+    }
+
+    /**
+     * APP transitions inside a cycle run in parallel once per round, the search ends when the states repeat
+     */
+    @Test
+    void testCycle() {
+        final var forkJoin = PetriNetTestUtil.buildForkJoinNet();
+        final var sink = forkJoin.getNodes().stream().filter(node -> node.getID().equals(URI.create("place://sink"))).findAny().orElseThrow();
+        final var source = forkJoin.getNodes().stream().filter(node -> node.getID().equals(URI.create("place://source"))).findAny().orElseThrow();
+        final var reset = new TransitionImpl(URI.create("trans://reset"));
+        forkJoin.getNodes().add(reset);
+        forkJoin.getArcs().add(new ArcImpl(sink, reset));
+        forkJoin.getArcs().add(new ArcImpl(reset, source));
+
+        final var petriNet = withContext(forkJoin, Set.copyOf(APPS));
+        final var parallelSets = PetriNetSimulator.getParallelSets(petriNet);
+
+        assertEquals(List.of(APPS), ids(parallelSets));
+        assertEquals(unfoldedParallelSets(petriNet), parallelSets);
+    }
+
+    /**
+     * An APP transition started twice keeps running until both executions ended:
+     * input (2 markers) -> a -> output and other (1 marker) -> b -> done
+     */
+    @Test
+    void testConcurrentStarts() {
+        final var input = new PlaceImpl(URI.create("place://input"));
+        input.setMarkers(2);
+        final var output = new PlaceImpl(URI.create("place://output"));
+        final var other = new PlaceImpl(URI.create("place://other"));
+        other.setMarkers(1);
+        final var done = new PlaceImpl(URI.create("place://done"));
+        final var a = new TransitionImpl(APPS.get(0));
+        final var b = new TransitionImpl(APPS.get(1));
+
+        final var nodes = new HashSet<Node>(List.of(input, output, other, done, a, b));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(input, a),
+                new ArcImpl(a, output),
+                new ArcImpl(other, b),
+                new ArcImpl(b, done)
+        ));
+        final var petriNet = withContext(new PetriNetImpl(URI.create("https://concurrent"), nodes, arcs), Set.copyOf(APPS));
+        final var parallelSets = PetriNetSimulator.getParallelSets(petriNet);
+
+        //b runs while a runs once (input or output marked) or twice
+        assertEquals(List.of(APPS, APPS, APPS), ids(parallelSets));
+        assertEquals(unfoldedParallelSets(petriNet), parallelSets);
+    }
+
+    /**
+     * @param petriNet a PetriNet
+     * @param apps IDs of the APP transitions, all other transitions become CONTROL transitions
+     * @return the given PetriNet
+     */
+    private static PetriNet withContext(final PetriNet petriNet, final Set<URI> apps) {
+        for (final var node : petriNet.getNodes()) {
+            if (node instanceof TransitionImpl) {
+                ((TransitionImpl) node).setContextObject(new ContextObject(List.of(), null, null, null,
+                        apps.contains(node.getID()) ? ContextObject.TransType.APP : ContextObject.TransType.CONTROL));
+            }
+        }
+
+        return petriNet;
+    }
+
+    /**
+     * @param petriNet a PetriNet
+     * @return the parallel sets of the StepGraph of the unfolded PetriNet
+     */
+    private static List<List<Transition>> unfoldedParallelSets(final PetriNet petriNet) {
+        return PetriNetSimulator.getParallelSets(
+                PetriNetSimulator.buildStepGraph(PetriNetSimulator.getUnfoldedPetriNet(petriNet))
+        );
+    }
+
+    /**
+     * @param parallelSets sets of parallel transitions
+     * @return the IDs of the transitions in the sets
+     */
+    private static List<List<URI>> ids(final List<List<Transition>> parallelSets) {
+        return parallelSets.stream()
+                .map(set -> set.stream().map(Transition::getID).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.transition.ArcSubExpression;
+import de.fraunhofer.isst.configmanager.petrinet.model.Transition;
+import de.fraunhofer.isst.configmanager.petrinet.model.TransitionImpl;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test checking conditions against indexed parallel sets
+ */
+class ParallelSetIndexTest {
+
+    /**
+     * Every transition and every distinct parallel set is indexed once
+     */
+    @Test
+    void testIndex() {
+        final var t = transitions(5);
+        final var index = ParallelSetIndex.of(List.of(
+                List.of(t[0], t[1], t[2]),
+                List.of(t[1], t[2]),
+                List.of(t[3], t[4]),
+                List.of(t[0], t[1], t[2])
+        ));
+
+        assertEquals(5, index.getTransitionCount());
+        assertEquals(3, index.getSetCount());
+
+        final ArcSubExpression isFirst = transition -> transition == t[0];
+        assertEquals(1, index.matching(isFirst).cardinality());
+        assertTrue(ParallelEvaluator.nParallelTransitionsWithCondition(transition -> true, 3, index));
+        assertFalse(ParallelEvaluator.nParallelTransitionsWithCondition(transition -> true, 4, index));
+        assertTrue(ParallelEvaluator.nParallelTransitionsWithCondition(isFirst, 1, index));
+        assertFalse(ParallelEvaluator.nParallelTransitionsWithCondition(isFirst, 2, index));
+    }
+
+    /**
+     * A condition is evaluated once per transition, however often it is checked
+     */
+    @Test
+    void testConditionEvaluatedOnce() {
+        final var t = transitions(5);
+        final var index = ParallelSetIndex.of(List.of(
+                List.of(t[0], t[1], t[2]),
+                List.of(t[2], t[3]),
+                List.of(t[4])
+        ));
+        final var calls = new AtomicInteger();
+        final ArcSubExpression counting = transition -> {
+            calls.incrementAndGet();
+            return transition != t[2];
+        };
+
+        for (var repeat = 0; repeat < 3; repeat++) {
+            for (var n = -1; n <= 4; n++) {
+                ParallelEvaluator.nParallelTransitionsWithCondition(counting, n, index);
+            }
+        }
+
+        assertEquals(index.getTransitionCount(), calls.get());
+    }
+
+    /**
+     * The index gives the same answers as filtering the lists of parallel transitions, for every n
+     */
+    @Test
+    void testSameAsListFilter() {
+        final var t = transitions(6);
+        final List<List<List<Transition>>> setLists = List.of(
+                List.of(),
+                List.of(List.of()),
+                List.of(List.of(t[0], t[1], t[2], t[3]), List.of(t[1], t[2]), List.of(t[4], t[5]), List.of(t[5])),
+                List.of(List.of(t[0], t[2], t[4]), List.of(t[1], t[3], t[5]), List.of(t[0], t[2], t[4]))
+        );
+        final List<ArcSubExpression> conditions = List.of(
+                transition -> true,
+                transition -> false,
+                transition -> transition == t[0] || transition == t[1],
+                transition -> transition.getID().toString().compareTo("trans://t3") < 0,
+                transition -> transition != t[5]
+        );
+
+        for (final var parallelSets : setLists) {
+            final var index = ParallelSetIndex.of(parallelSets);
+
+            for (final var condition : conditions) {
+                for (var n = -2; n <= 5; n++) {
+                    final var expected = filter(condition, n, parallelSets);
+                    assertEquals(expected, ParallelEvaluator.nParallelTransitionsWithCondition(condition, n, index));
+                    assertEquals(expected, ParallelEvaluator.nParallelTransitionsWithCondition(condition, n, parallelSets));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check of the parallel sets by filtering the lists, as done before the index
+     *
+     * @param condition a condition to be fulfilled by a transition
+     * @param n number of transitions to fulfill the condition in parallel
+     * @param parallelSets sets of parallel transitions
+     * @return true if a set contains at least n transitions fulfilling the condition
+     */
+    private static boolean filter(final ArcSubExpression condition, final int n, final List<List<Transition>> parallelSets) {
+        return parallelSets.stream()
+                .filter(transitions -> transitions.size() >= n)
+                .anyMatch(set -> set.stream().filter(condition::evaluate).count() >= n);
+    }
+
+    /**
+     * @param count number of transitions
+     * @return transitions trans://t0 to trans://t(count - 1)
+     */
+    private static Transition[] transitions(final int count) {
+        final var transitions = new Transition[count];
+
+        for (var i = 0; i < count; i++) {
+            transitions[i] = new TransitionImpl(URI.create("trans://t" + i));
+        }
+
+        return transitions;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.CTLEvaluator;
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.ArcImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNetImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.PlaceImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.TransitionImpl;
+import de.fraunhofer.isst.configmanager.util.PetriNetTestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.TT.TT;
+import static de.fraunhofer.isst.configmanager.petrinet.evaluation.formula.state.NodeEXIST_UNTIL.nodeEXIST_UNTIL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the enumeration of paths through a PetriNet
+ */
+class PathEnumeratorTest {
+
+    /**
+     * Paths are extended until they close a circle or end, and can be consumed lazily
+     */
+    @Test
+    void testEnumeratePaths() {
+        final var stepGraph = PetriNetSimulator.buildStepGraph(buildRetryNet());
+        final var paths = PetriNetSimulator.streamPaths(stepGraph).map(PathEnumeratorTest::ids).collect(Collectors.toList());
+
+        assertEquals(paths.size(), new HashSet<>(paths).size());
+        assertTrue(paths.contains(List.of("start", "work", "mid", "retry", "start")));
+        assertTrue(paths.contains(List.of("retry", "start", "work", "mid", "finish", "sink")));
+        assertTrue(paths.contains(List.of("mid", "retry", "start", "work", "mid")));
+
+        for (final var path : paths) {
+            //only the last node may close a circle
+            assertTrue(PetriNetSimulator.circleFree(path.subList(0, path.size() - 1)));
+        }
+
+        final var iterator = new PathEnumerator(stepGraph);
+        assertEquals(2, iterator.next().size());
+
+        final var allPaths = PetriNetSimulator.getAllPaths(stepGraph);
+        assertTrue(allPaths.stream().map(PathEnumeratorTest::ids).allMatch(paths::contains));
+        assertTrue(PetriNetSimulator.circleFree(allPaths.get(0)));
+    }
+
+    /**
+     * The parallel enumeration returns the same paths in the same order
+     */
+    @Test
+    void testParallelEnumeration() {
+        final var pool = new ForkJoinPool(4);
+
+        for (final var petriNet : List.of(buildRetryNet(), PetriNetTestUtil.buildForkJoinNet())) {
+            final var stepGraph = PetriNetSimulator.buildStepGraph(petriNet);
+
+            assertEquals(PetriNetSimulator.streamPaths(stepGraph).collect(Collectors.toList()),
+                    PathEnumerator.collect(stepGraph, pool));
+            assertEquals(PetriNetSimulator.getAllPaths(stepGraph), PetriNetSimulator.getAllPaths(stepGraph, pool));
+        }
+
+        pool.shutdown();
+    }
+
+    /**
+     * A trie stores the same paths with shared prefixes, and indexes them by their start node
+     */
+    @Test
+    void testPathTrie() {
+        final var stepGraph = PetriNetSimulator.buildStepGraph(buildRetryNet());
+        final var paths = PetriNetSimulator.streamPaths(stepGraph).collect(Collectors.toList());
+        final var trie = PathTrie.of(paths);
+
+        assertEquals(paths, trie);
+        assertTrue(trie.getVertexCount() < paths.stream().mapToInt(List::size).sum());
+
+        for (final var node : stepGraph.getInitial().getNodes()) {
+            final var starting = paths.stream().filter(path -> path.get(0).equals(node)).collect(Collectors.toList());
+            assertEquals(starting, trie.startingAt(node));
+        }
+    }
+
+    /**
+     * Paths are found for nodes equal to their start node, not only for the same objects (e.g. from a copied PetriNet)
+     */
+    @Test
+    void testPathTrieEqualNodes() {
+        final var stepGraph = PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildCycleNet());
+        final var paths = PetriNetSimulator.getAllPaths(stepGraph);
+        final var copy = stepGraph.getInitial().deepCopy();
+        final var p1 = copy.getNodes().stream()
+                .filter(node -> node.getID().equals(URI.create("place://p1")))
+                .findAny().orElseThrow();
+        final var formula = nodeEXIST_UNTIL(TT(), TT());
+
+        assertFalse(PathTrie.of(paths).startingAt(p1).isEmpty());
+        assertEquals(paths.stream().filter(path -> path.get(0).equals(p1)).collect(Collectors.toList()),
+                PathTrie.of(paths).startingAt(p1));
+        assertTrue(CTLEvaluator.evaluate(formula, p1, paths));
+        assertEquals(CTLEvaluator.evaluate(formula, p1, new ArrayList<>(paths)), CTLEvaluator.evaluate(formula, p1, paths));
+    }
+
+    /**
+     * Paths contained in another path with the same start are found, also behind a circle
+     */
+    @Test
+    void testFindSubpaths() {
+        final var a = new PlaceImpl(URI.create("place://a"));
+        final var b = new TransitionImpl(URI.create("trans://b"));
+        final var c = new PlaceImpl(URI.create("place://c"));
+        final List<List<Node>> paths = List.of(
+                List.of(a, b, c),
+                List.of(a, b),
+                List.of(b, c),
+                List.of(c, a, c, b),
+                List.of(c, b)
+        );
+
+        assertEquals(BitSet.valueOf(new long[]{0b10010}), PathTrie.of(paths).findSubpaths());
+    }
+
+    private static List<String> ids(final List<Node> path) {
+        return path.stream().map(node -> node.getID().getSchemeSpecificPart().substring(2)).collect(Collectors.toList());
+    }
+
+    /**
+     * @return PetriNet start -> work -> mid -> (retry -> start | finish -> sink)
+     */
+    static PetriNet buildRetryNet() {
+        final var start = new PlaceImpl(URI.create("place://start"));
+        start.setMarkers(1);
+        final var mid = new PlaceImpl(URI.create("place://mid"));
+        final var sink = new PlaceImpl(URI.create("place://sink"));
+        final var work = new TransitionImpl(URI.create("trans://work"));
+        final var retry = new TransitionImpl(URI.create("trans://retry"));
+        final var finish = new TransitionImpl(URI.create("trans://finish"));
+
+        final var nodes = new HashSet<Node>(List.of(start, mid, sink, work, retry, finish));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(start, work),
+                new ArcImpl(work, mid),
+                new ArcImpl(mid, retry),
+                new ArcImpl(retry, start),
+                new ArcImpl(mid, finish),
+                new ArcImpl(finish, sink)
+        ));
+
+        return new PetriNetImpl(URI.create("https://retry"), nodes, arcs);
+    }
+}
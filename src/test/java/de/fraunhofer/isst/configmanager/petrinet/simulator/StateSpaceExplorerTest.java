@@ -0,0 +1,391 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.ArcImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNetImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.PlaceImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.TransitionImpl;
+import de.fraunhofer.isst.configmanager.util.PetriNetTestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the budgeted state space exploration on small PetriNets
+ */
+class StateSpaceExplorerTest {
+
+    /**
+     * Breadth first and depth first search find the same states of a bounded PetriNet
+     */
+    @Test
+    void testExploreForkJoinNet() {
+        final var bfs = StateSpaceExplorer.explore(PetriNetTestUtil.buildForkJoinNet(), SearchOrder.BREADTH_FIRST, ExplorationLimits.unlimited());
+        final var dfs = StateSpaceExplorer.explore(PetriNetTestUtil.buildForkJoinNet(), SearchOrder.DEPTH_FIRST, ExplorationLimits.unlimited());
+
+        assertTrue(bfs.isComplete());
+        assertTrue(dfs.isComplete());
+        //source, {a, b}, {a_end, b}, {a, b_end}, {a_end, b_end}, sink
+        assertEquals(6, bfs.getStepGraph().getSteps().size());
+        assertEquals(6, bfs.getStepGraph().getArcs().size());
+        assertEquals(markings(bfs.getStepGraph()), markings(dfs.getStepGraph()));
+        assertEquals(6, PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet()).getSteps().size());
+    }
+
+    /**
+     * The successor and predecessor lists of a StepGraph match its arcs
+     */
+    @Test
+    void testAdjacency() {
+        final var stepGraph = PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet());
+        final var fork = stepGraph.getNet().getTransitionIndex(URI.create("trans://fork"));
+
+        assertEquals(1, stepGraph.getOutDegree(0));
+        assertEquals(0, stepGraph.getInDegree(0));
+        assertEquals(fork, stepGraph.getSuccessorTransition(0, 0));
+        assertEquals(0, stepGraph.getPredecessor(stepGraph.getSuccessor(0, 0), 0));
+        assertTrue(stepGraph.isFired(URI.create("trans://join")));
+        assertFalse(stepGraph.isFired(URI.create("trans://unknown")));
+
+        for (final var arc : stepGraph.getArcs()) {
+            final var successors = new HashSet<Integer>();
+
+            for (var i = 0; i < stepGraph.getOutDegree(arc.getSource()); i++) {
+                successors.add(stepGraph.getSuccessor(arc.getSource(), i));
+            }
+
+            assertTrue(successors.contains(arc.getTarget()));
+        }
+    }
+
+    /**
+     * Exploration of a PetriNet with infinitely many states stops at the budgets and returns the partial StepGraph
+     */
+    @Test
+    void testExploreUnboundedNet() {
+        final var stateLimited = StateSpaceExplorer.explore(PetriNetTestUtil.buildCounterNet(), SearchOrder.BREADTH_FIRST,
+                ExplorationLimits.of(100, Duration.ofMinutes(1)));
+        assertEquals(ExplorationStatus.STATE_LIMIT, stateLimited.getStatus());
+        assertEquals(100, stateLimited.getStepGraph().getSteps().size());
+
+        final var depthLimited = StateSpaceExplorer.explore(PetriNetTestUtil.buildCounterNet(), SearchOrder.DEPTH_FIRST,
+                new ExplorationLimits(Integer.MAX_VALUE, 10, null, Long.MAX_VALUE));
+        assertEquals(ExplorationStatus.DEPTH_LIMIT, depthLimited.getStatus());
+        assertEquals(11, depthLimited.getStepGraph().getSteps().size());
+
+        final var timeLimited = StateSpaceExplorer.explore(PetriNetTestUtil.buildCounterNet(), SearchOrder.DEPTH_FIRST,
+                new ExplorationLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ofMillis(50), Long.MAX_VALUE));
+        assertEquals(ExplorationStatus.TIMEOUT, timeLimited.getStatus());
+    }
+
+    /**
+     * A state limit equal to the number of states does not stop the exploration, arcs back to known states are kept
+     */
+    @Test
+    void testExactStateLimit() {
+        final var cycle = StateSpaceExplorer.explore(PetriNetTestUtil.buildCycleNet(), SearchOrder.BREADTH_FIRST, ExplorationLimits.of(2, null));
+        assertEquals(ExplorationStatus.COMPLETE, cycle.getStatus());
+        assertEquals(2, cycle.getStepGraph().getSteps().size());
+        assertEquals(2, cycle.getStepGraph().getArcs().size());
+
+        final var net = new CompiledPetriNet(PetriNetTestUtil.buildForkJoinNet());
+        final var forkJoin = StateSpaceExplorer.explore(net, new HashedStateStore(), SearchOrder.DEPTH_FIRST,
+                ExplorationLimits.of(6, null));
+        assertTrue(forkJoin.isComplete());
+        assertEquals(6, forkJoin.getStepGraph().getArcs().size());
+
+        final var limited = StateSpaceExplorer.explore(PetriNetTestUtil.buildForkJoinNet(), SearchOrder.BREADTH_FIRST,
+                ExplorationLimits.of(5, null));
+        assertEquals(ExplorationStatus.STATE_LIMIT, limited.getStatus());
+        assertEquals(5, limited.getStepGraph().getSteps().size());
+
+        //no transition has this index, so asking for it explores the whole state space
+        final var lazy = new LazyStateSpace(net, SearchOrder.BREADTH_FIRST, ExplorationLimits.of(6, null));
+        assertFalse(lazy.isFired(net.getTransitionCount()));
+        assertTrue(lazy.isExplored());
+        assertEquals(6, lazy.getStateCount());
+
+        final var lazyLimited = new LazyStateSpace(net, SearchOrder.BREADTH_FIRST, ExplorationLimits.of(5, null));
+        assertFalse(lazyLimited.isFired(net.getTransitionCount()));
+        assertFalse(lazyLimited.isExplored());
+        assertEquals(ExplorationStatus.STATE_LIMIT, lazyLimited.getStatus());
+    }
+
+    /**
+     * A state found by depth first search on a long path is expanded again when a shorter path within the maximum depth
+     * reaches it
+     */
+    @Test
+    void testDepthLimitWithShorterPath() {
+        final var petriNet = buildPathsNet();
+        final var limits = new ExplorationLimits(Integer.MAX_VALUE, 3, null, Long.MAX_VALUE);
+
+        final var dfs = StateSpaceExplorer.explore(petriNet, SearchOrder.DEPTH_FIRST, limits);
+        final var bfs = StateSpaceExplorer.explore(petriNet, SearchOrder.BREADTH_FIRST, limits);
+
+        //end is reached in 3 steps, so nothing is cut off
+        assertEquals(ExplorationStatus.COMPLETE, dfs.getStatus());
+        assertEquals(6, dfs.getStepGraph().getSteps().size());
+        assertEquals(markings(bfs.getStepGraph()), markings(dfs.getStepGraph()));
+        assertEquals(arcs(bfs.getStepGraph()).size(), arcs(dfs.getStepGraph()).size());
+
+        final var cut = StateSpaceExplorer.explore(petriNet, SearchOrder.DEPTH_FIRST,
+                new ExplorationLimits(Integer.MAX_VALUE, 2, null, Long.MAX_VALUE));
+        assertEquals(ExplorationStatus.DEPTH_LIMIT, cut.getStatus());
+        assertEquals(5, cut.getStepGraph().getSteps().size());
+    }
+
+    /**
+     * The lazy state space expands a state again when depth first search finds a shorter path to it, and reports
+     * states cut off by the maximum depth
+     */
+    @Test
+    void testLazyDepthLimitWithShorterPath() {
+        final var net = new CompiledPetriNet(buildPathsNet());
+        final var next = net.getTransitionIndex(URI.create("trans://next"));
+
+        final var lazy = new LazyStateSpace(net, SearchOrder.DEPTH_FIRST, new ExplorationLimits(Integer.MAX_VALUE, 3, null, Long.MAX_VALUE));
+        assertTrue(lazy.isFired(next));
+        assertFalse(lazy.isFired(net.getTransitionCount()));
+        assertTrue(lazy.isExplored());
+        assertEquals(ExplorationStatus.COMPLETE, lazy.getStatus());
+
+        final var cut = new LazyStateSpace(net, SearchOrder.DEPTH_FIRST, new ExplorationLimits(Integer.MAX_VALUE, 2, null, Long.MAX_VALUE));
+        assertFalse(cut.isFired(next));
+        assertFalse(cut.isExplored());
+        assertEquals(ExplorationStatus.DEPTH_LIMIT, cut.getStatus());
+    }
+
+    /**
+     * The parallel exploration returns exactly the StepGraph of the sequential breadth first search
+     */
+    @Test
+    void testParallelExploration() {
+        final var sequential = PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet());
+        final var parallel = ParallelStateSpaceExplorer.explore(PetriNetTestUtil.buildForkJoinNet(), ExplorationLimits.unlimited());
+
+        assertTrue(parallel.isComplete());
+        assertEquals(sequential.getSteps().size(), parallel.getStepGraph().getSteps().size());
+
+        for (var i = 0; i < sequential.getSteps().size(); i++) {
+            assertArrayEquals(sequential.getSteps().get(i), parallel.getStepGraph().getSteps().get(i));
+        }
+
+        assertEquals(arcs(sequential), arcs(parallel.getStepGraph()));
+
+        final var stateLimited = ParallelStateSpaceExplorer.explore(PetriNetTestUtil.buildCounterNet(), ExplorationLimits.of(100, null));
+        assertEquals(ExplorationStatus.STATE_LIMIT, stateLimited.getStatus());
+        assertEquals(100, stateLimited.getStepGraph().getSteps().size());
+    }
+
+    /**
+     * The stubborn set reduction uses one interleaving of the independent branches and keeps the deadlock
+     */
+    @Test
+    void testStubbornSetReduction() {
+        final var net = new CompiledPetriNet(PetriNetTestUtil.buildForkJoinNet());
+        final var full = markings(PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet()));
+
+        final var deadlocks = StateSpaceExplorer.explore(net, new HashedStateStore(), SearchOrder.DEPTH_FIRST,
+                ExplorationLimits.unlimited(), StubbornSetReduction.forDeadlocks(net));
+        assertTrue(deadlocks.isComplete());
+        assertEquals(5, deadlocks.getStepGraph().getSteps().size());
+        assertTrue(full.containsAll(markings(deadlocks.getStepGraph())));
+        assertTrue(markings(deadlocks.getStepGraph()).contains(List.of(0, 0, 0, 0, 1, 0)));
+
+        //both branch transitions are observed, so their interleavings must be kept
+        final var visible = Set.of(URI.create("trans://a"), URI.create("trans://b"));
+        final var ctl = StateSpaceExplorer.explore(net, new HashedStateStore(), SearchOrder.BREADTH_FIRST,
+                ExplorationLimits.unlimited(), StubbornSetReduction.forNextFreeCtl(net, visible));
+        assertEquals(full, markings(ctl.getStepGraph()));
+    }
+
+    /**
+     * A state expanded again after its depth was lowered records the arcs the cycle proviso adds then, so every state
+     * has the arcs of its stubborn set or of all its enabled transitions
+     */
+    @Test
+    void testStubbornSetReductionWithMaxDepth() {
+        final var net = new CompiledPetriNet(buildProvisoNet());
+        final var reduction = StubbornSetReduction.forNextFreeCtl(net, Set.of(URI.create("trans://t0")));
+        final var result = StateSpaceExplorer.explore(net, new HashedStateStore(), SearchOrder.DEPTH_FIRST,
+                new ExplorationLimits(Integer.MAX_VALUE, 12, null, Long.MAX_VALUE), reduction);
+        final var stepGraph = result.getStepGraph();
+
+        assertTrue(result.isComplete());
+
+        for (var state = 0; state < stepGraph.getSteps().size(); state++) {
+            final var used = new BitSet();
+
+            for (var i = 0; i < stepGraph.getOutDegree(state); i++) {
+                used.set(stepGraph.getSuccessorTransition(state, i));
+            }
+
+            final var marking = stepGraph.getSteps().get(state);
+            final var enabled = net.getEnabledSet(marking);
+
+            assertTrue(used.equals(enabled) || used.equals(reduction.reduce(marking, enabled)),
+                    String.format("state %d uses %s", state, used));
+        }
+    }
+
+    /**
+     * 1-safe markings are stored packed, a marking with more markers moves all states to an unpacked store
+     */
+    @Test
+    void testPackedStateStore() {
+        final var safe = PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet());
+        assertTrue(((PackedStateStore) safe.getSteps()).isPacked());
+        assertEquals(6, safe.getSteps().size());
+
+        final var net = new CompiledPetriNet(PetriNetTestUtil.buildCounterNet());
+        final var unsafe = StateSpaceExplorer.explore(net, new PackedStateStore(net), SearchOrder.BREADTH_FIRST,
+                ExplorationLimits.of(10, null)).getStepGraph();
+        assertFalse(((PackedStateStore) unsafe.getSteps()).isPacked());
+
+        for (var i = 0; i < unsafe.getSteps().size(); i++) {
+            assertArrayEquals(new int[]{i, 1}, unsafe.getSteps().get(i));
+        }
+    }
+
+    /**
+     * The off-heap store finds the same states and stops the exploration when its byte budget is exhausted
+     */
+    @Test
+    void testOffHeapStateStore() {
+        final var offHeap = PetriNetSimulator.buildOffHeapStepGraph(PetriNetTestUtil.buildForkJoinNet(), 1 << 20);
+        assertTrue(offHeap.isComplete());
+        assertEquals(markings(PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet())), markings(offHeap.getStepGraph()));
+
+        final var limited = PetriNetSimulator.buildOffHeapStepGraph(PetriNetTestUtil.buildCounterNet(), 1 << 14);
+        assertEquals(ExplorationStatus.MEMORY_LIMIT, limited.getStatus());
+        assertTrue(((OffHeapStateStore) limited.getStepGraph().getSteps()).allocatedBytes() <= 1 << 14);
+    }
+
+    /**
+     * @return PetriNet source -> via1 -> via2 -> via3 -> middle and source -> direct1 -> direct2 -> middle -> next -> end
+     */
+    private static PetriNet buildPathsNet() {
+        final var source = new PlaceImpl(URI.create("place://source"));
+        source.setMarkers(1);
+        final var a = new PlaceImpl(URI.create("place://a"));
+        final var b = new PlaceImpl(URI.create("place://b"));
+        final var c = new PlaceImpl(URI.create("place://c"));
+        final var middle = new PlaceImpl(URI.create("place://middle"));
+        final var end = new PlaceImpl(URI.create("place://end"));
+        //transitions are used in order of their IDs, so depth first search expands the via branch first
+        final var via1 = new TransitionImpl(URI.create("trans://via1"));
+        final var via2 = new TransitionImpl(URI.create("trans://via2"));
+        final var via3 = new TransitionImpl(URI.create("trans://via3"));
+        final var direct1 = new TransitionImpl(URI.create("trans://direct1"));
+        final var direct2 = new TransitionImpl(URI.create("trans://direct2"));
+        final var next = new TransitionImpl(URI.create("trans://next"));
+
+        final var nodes = new HashSet<Node>(List.of(source, a, b, c, middle, end, via1, via2, via3, direct1, direct2, next));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(source, via1),
+                new ArcImpl(via1, a),
+                new ArcImpl(a, via2),
+                new ArcImpl(via2, b),
+                new ArcImpl(b, via3),
+                new ArcImpl(via3, middle),
+                new ArcImpl(source, direct1),
+                new ArcImpl(direct1, c),
+                new ArcImpl(c, direct2),
+                new ArcImpl(direct2, middle),
+                new ArcImpl(middle, next),
+                new ArcImpl(next, end)
+        ));
+
+        return new PetriNetImpl(URI.create("https://paths"), nodes, arcs);
+    }
+
+    /**
+     * @param stepGraph a StepGraph
+     * @return the arcs of the StepGraph as strings, in order
+     */
+    /**
+     * @return PetriNet with six transitions and four marked places, where depth first search finds states on longer
+     *         paths first
+     */
+    private static PetriNet buildProvisoNet() {
+        final var places = new PlaceImpl[5];
+        final var transitions = new TransitionImpl[6];
+        final var nodes = new HashSet<Node>();
+
+        for (var i = 0; i < places.length; i++) {
+            places[i] = new PlaceImpl(URI.create("place://p" + i));
+            places[i].setMarkers(i == 3 ? 0 : 1);
+            nodes.add(places[i]);
+        }
+
+        for (var i = 0; i < transitions.length; i++) {
+            transitions[i] = new TransitionImpl(URI.create("trans://t" + i));
+            nodes.add(transitions[i]);
+        }
+
+        //pre- and postsets of the transitions t0 to t5, as place numbers
+        final int[][] pre = {{3}, {1}, {2}, {2, 4}, {0, 4}, {0, 4}};
+        final int[][] post = {{0}, {4}, {3}, {0, 2}, {1, 3}, {0, 1}};
+        final var arcs = new HashSet<Arc>();
+
+        for (var i = 0; i < transitions.length; i++) {
+            for (final var place : pre[i]) {
+                arcs.add(new ArcImpl(places[place], transitions[i]));
+            }
+
+            for (final var place : post[i]) {
+                arcs.add(new ArcImpl(transitions[i], places[place]));
+            }
+        }
+
+        return new PetriNetImpl(URI.create("https://proviso"), nodes, arcs);
+    }
+
+    private static List<String> arcs(final StepGraph stepGraph) {
+        return stepGraph.getArcs().stream()
+                .map(arc -> arc.getSource() + "-" + arc.getUsedTransition() + "->" + arc.getTarget())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param stepGraph a StepGraph
+     * @return the markings of all steps of the StepGraph
+     */
+    private static Set<List<Integer>> markings(final StepGraph stepGraph) {
+        final var markings = new HashSet<List<Integer>>();
+
+        for (var i = 0; i < stepGraph.getSteps().size(); i++) {
+            markings.add(Arrays.asList(Arrays.stream(stepGraph.getSteps().get(i)).boxed().toArray(Integer[]::new)));
+        }
+
+        return markings;
+    }
+}
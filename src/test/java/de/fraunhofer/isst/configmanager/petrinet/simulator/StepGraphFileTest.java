@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.petrinet.simulator;
+
+import de.fraunhofer.isst.configmanager.util.PetriNetTestUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test saving and loading StepGraphs and spilling states to memory-mapped files
+ */
+class StepGraphFileTest {
+
+    /**
+     * A saved StepGraph is loaded with the same states and arcs, its states can still be looked up
+     */
+    @Test
+    void testWriteAndRead() throws IOException {
+        final var file = Files.createTempFile("stepgraph", ".bin");
+
+        try {
+            final var stepGraph = PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet());
+            StepGraphFile.write(stepGraph, file);
+
+            final var loaded = StepGraphFile.read(file, PetriNetTestUtil.buildForkJoinNet());
+            assertEquals(stepGraph.getSteps().size(), loaded.getSteps().size());
+            assertEquals(stepGraph.getArcs().size(), loaded.getArcs().size());
+
+            for (var i = 0; i < stepGraph.getSteps().size(); i++) {
+                final var marking = stepGraph.getSteps().get(i);
+                assertArrayEquals(marking, loaded.getSteps().get(i));
+                assertEquals(i, loaded.getSteps().addIfAbsent(marking, loaded.getNet().fingerprint(marking)));
+            }
+
+            for (var i = 0; i < stepGraph.getArcs().size(); i++) {
+                assertEquals(stepGraph.getArcs().get(i).getSource(), loaded.getArcs().get(i).getSource());
+                assertEquals(stepGraph.getArcs().get(i).getTarget(), loaded.getArcs().get(i).getTarget());
+                assertEquals(stepGraph.getArcs().get(i).getUsedTransition(), loaded.getArcs().get(i).getUsedTransition());
+            }
+
+            for (var step = 0; step < stepGraph.getSteps().size(); step++) {
+                assertEquals(stepGraph.getOutDegree(step), loaded.getOutDegree(step));
+                assertEquals(stepGraph.getInDegree(step), loaded.getInDegree(step));
+
+                for (var i = 0; i < stepGraph.getOutDegree(step); i++) {
+                    assertEquals(stepGraph.getSuccessor(step, i), loaded.getSuccessor(step, i));
+                    assertEquals(stepGraph.getSuccessorTransition(step, i), loaded.getSuccessorTransition(step, i));
+                }
+            }
+
+            assertTrue(loaded.getArcs() instanceof MappedArcTable);
+            assertThrows(IllegalArgumentException.class,
+                    () -> StepGraphFile.read(file, PetriNetTestUtil.buildCounterNet()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Files with another format, arcs outside of the state and transition range or strings longer than the file are
+     * rejected with an IOException
+     */
+    @Test
+    void testReadCorruptFile() throws IOException {
+        final var file = Files.createTempFile("stepgraph", ".bin");
+
+        try {
+            final var stepGraph = PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet());
+            StepGraphFile.write(stepGraph, file);
+
+            //the target of the last arc is the second to last int of the file
+            try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, stepGraph.getSteps().size()),
+                        channel.size() - 2L * Integer.BYTES);
+            }
+
+            assertThrows(IOException.class, () -> StepGraphFile.read(file, PetriNetTestUtil.buildForkJoinNet()));
+
+            //the length of the first place id follows the header of six ints
+            StepGraphFile.write(stepGraph, file);
+
+            try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, Integer.MAX_VALUE), 6L * Integer.BYTES);
+            }
+
+            assertThrows(IOException.class, () -> StepGraphFile.read(file, PetriNetTestUtil.buildForkJoinNet()));
+
+            Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+            assertThrows(IOException.class, () -> StepGraphFile.read(file, PetriNetTestUtil.buildForkJoinNet()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Exploring into a memory-mapped store finds the same states as exploring on the heap
+     */
+    @Test
+    void testMappedStateStore() throws IOException {
+        final var file = Files.createTempFile("states", ".bin");
+        final var net = new CompiledPetriNet(PetriNetTestUtil.buildForkJoinNet());
+
+        try (var store = new MappedStateStore(net, file)) {
+            final var mapped = StateSpaceExplorer.explore(net, store, SearchOrder.BREADTH_FIRST, ExplorationLimits.unlimited());
+            final var heap = PetriNetSimulator.buildStepGraph(PetriNetTestUtil.buildForkJoinNet());
+
+            assertEquals(heap.getSteps().size(), mapped.getStepGraph().getSteps().size());
+
+            for (var i = 0; i < heap.getSteps().size(); i++) {
+                assertArrayEquals(heap.getSteps().get(i), mapped.getStepGraph().getSteps().get(i));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.isst.configmanager.util;
+
+import de.fraunhofer.isst.configmanager.petrinet.model.Arc;
+import de.fraunhofer.isst.configmanager.petrinet.model.ArcImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.ContextObject;
+import de.fraunhofer.isst.configmanager.petrinet.model.Node;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNet;
+import de.fraunhofer.isst.configmanager.petrinet.model.PetriNetImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.PlaceImpl;
+import de.fraunhofer.isst.configmanager.petrinet.model.TransitionImpl;
+import lombok.experimental.UtilityClass;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Small PetriNets shared by the tests of the simulator and the analysis
+ */
+@UtilityClass
+public class PetriNetTestUtil {
+
+    /**
+     * @return PetriNet: source -> fork -> (a -> ta -> a_end | b -> tb -> b_end) -> join -> sink
+     */
+    public static PetriNet buildForkJoinNet() {
+        final var source = new PlaceImpl(URI.create("place://source"));
+        source.setMarkers(1);
+        final var a = new PlaceImpl(URI.create("place://a"));
+        final var aEnd = new PlaceImpl(URI.create("place://a_end"));
+        final var b = new PlaceImpl(URI.create("place://b"));
+        final var bEnd = new PlaceImpl(URI.create("place://b_end"));
+        final var sink = new PlaceImpl(URI.create("place://sink"));
+        final var fork = new TransitionImpl(URI.create("trans://fork"));
+        final var ta = new TransitionImpl(URI.create("trans://a"));
+        final var tb = new TransitionImpl(URI.create("trans://b"));
+        final var join = new TransitionImpl(URI.create("trans://join"));
+
+        final var nodes = new HashSet<Node>(List.of(source, a, aEnd, b, bEnd, sink, fork, ta, tb, join));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(source, fork),
+                new ArcImpl(fork, a),
+                new ArcImpl(fork, b),
+                new ArcImpl(a, ta),
+                new ArcImpl(ta, aEnd),
+                new ArcImpl(b, tb),
+                new ArcImpl(tb, bEnd),
+                new ArcImpl(aEnd, join),
+                new ArcImpl(bEnd, join),
+                new ArcImpl(join, sink)
+        ));
+
+        return new PetriNetImpl(URI.create("https://forkjoin"), nodes, arcs);
+    }
+
+    /**
+     * @return PetriNet with 2 states: p1 -> t1 -> p2 -> t2 -> p1
+     */
+    public static PetriNet buildCycleNet() {
+        final var p1 = new PlaceImpl(URI.create("place://p1"));
+        p1.setMarkers(1);
+        final var p2 = new PlaceImpl(URI.create("place://p2"));
+        final var t1 = new TransitionImpl(URI.create("trans://t1"));
+        final var t2 = new TransitionImpl(URI.create("trans://t2"));
+
+        final var nodes = new HashSet<Node>(List.of(p1, p2, t1, t2));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(p1, t1),
+                new ArcImpl(t1, p2),
+                new ArcImpl(p2, t2),
+                new ArcImpl(t2, p1)
+        ));
+
+        return new PetriNetImpl(URI.create("https://cycle"), nodes, arcs);
+    }
+
+    /**
+     * @return PetriNet with a marker generating circle: source -> generate -> (source, counter)
+     */
+    public static PetriNet buildCounterNet() {
+        final var source = new PlaceImpl(URI.create("place://source"));
+        source.setMarkers(1);
+        final var counter = new PlaceImpl(URI.create("place://counter"));
+        final var generate = new TransitionImpl(URI.create("trans://generate"));
+
+        final var nodes = new HashSet<Node>(List.of(source, counter, generate));
+        final var arcs = new HashSet<Arc>(List.of(
+                new ArcImpl(source, generate),
+                new ArcImpl(generate, source),
+                new ArcImpl(generate, counter)
+        ));
+
+        return new PetriNetImpl(URI.create("https://counter"), nodes, arcs);
+    }
+
+    /**
+     * Build the example PetriNet from the paper, to evaluate formulas on
+     * @return Example PetriNet described in the WFDU Paper
+     */
+    public static PetriNet buildPaperNet() {
+        //create nodes
+        final var start = new PlaceImpl(URI.create("place://start"));
+        start.setMarkers(1);
+        final var copy = new PlaceImpl(URI.create("place://copy"));
+        final var init = new PlaceImpl(URI.create("place://init"));
+        final var dat1 = new PlaceImpl(URI.create("place://data1"));
+        final var dat2 = new PlaceImpl(URI.create("place://data2"));
+        final var con1 = new PlaceImpl(URI.create("place://control1"));
+        final var con2 = new PlaceImpl(URI.create("place://control2"));
+        final var con3 = new PlaceImpl(URI.create("place://control3"));
+        final var con4 = new PlaceImpl(URI.create("place://control4"));
+        final var sample = new PlaceImpl(URI.create("place://sample"));
+        final var mean = new PlaceImpl(URI.create("place://mean"));
+        final var med = new PlaceImpl(URI.create("place://median"));
+        final var rules = new PlaceImpl(URI.create("place://rules"));
+        final var stor1 = new PlaceImpl(URI.create("place://stored1"));
+        final var stor2 = new PlaceImpl(URI.create("place://stored2"));
+        final var stor3 = new PlaceImpl(URI.create("place://stored3"));
+        final var stor4 = new PlaceImpl(URI.create("place://stored4"));
+        final var end = new PlaceImpl(URI.create("place://end"));
+        final var nodes = new HashSet<Node>(List.of(start, copy, init, dat1, dat2, con1, con2, con3, con4, sample, mean, med, rules, stor1, stor2, stor3, stor4, end));
+        //create transitions with context
+        final var initTrans = new TransitionImpl(URI.create("trans://init"));
+        initTrans.setContextObject(new ContextObject(List.of(), null, null, null, ContextObject.TransType.CONTROL));
+        final var getData = new TransitionImpl(URI.create("trans://getData"));
+        getData.setContextObject(new ContextObject(List.of(), null, "data", null, ContextObject.TransType.APP));
+        final var copyData = new TransitionImpl(URI.create("trans://copyData"));
+        copyData.setContextObject(new ContextObject(List.of(""), "data", "data", null, ContextObject.TransType.APP));
+        final var extract = new TransitionImpl(URI.create("trans://extractSample"));
+        extract.setContextObject(new ContextObject(List.of("france"), "data", "sample", "data", ContextObject.TransType.APP));
+        final var calcMean = new TransitionImpl(URI.create("trans://calcMean"));
+        calcMean.setContextObject(new ContextObject(List.of("france"), "data", "mean", "data", ContextObject.TransType.APP));
+        final var calcMed = new TransitionImpl(URI.create("trans://calcMedian"));
+        calcMed.setContextObject(new ContextObject(List.of("france"), "data", "median", "data", ContextObject.TransType.APP));
+        final var calcRules = new TransitionImpl(URI.create("trans://calcAPrioriRules"));
+        calcRules.setContextObject(new ContextObject(List.of("france", "high_performance"), "data", "rules", "data", ContextObject.TransType.APP));
+        final var store1 = new TransitionImpl(URI.create("trans://storeData1"));
+        store1.setContextObject(new ContextObject(List.of(), "sample", null, "sample", ContextObject.TransType.APP));
+        final var store2 = new TransitionImpl(URI.create("trans://storeData2"));
+        store2.setContextObject(new ContextObject(List.of(), "mean", null, "mean", ContextObject.TransType.APP));
+        final var store3 = new TransitionImpl(URI.create("trans://storeData3"));
+        store3.setContextObject(new ContextObject(List.of(), "median", null, "median", ContextObject.TransType.APP));
+        final var store4 = new TransitionImpl(URI.create("trans://storeData4"));
+        store4.setContextObject(new ContextObject(List.of(), "rules", null, "rules", ContextObject.TransType.APP));
+        final var endTrans = new TransitionImpl(URI.create("trans://end"));
+        endTrans.setContextObject(new ContextObject(List.of(), null, null, null, ContextObject.TransType.CONTROL));
+        nodes.addAll(List.of(initTrans, getData, copyData, extract, calcMean, calcMed, calcRules, store1, store2, store3, store4, endTrans));
+        //create arcs
+        final var arcs = new HashSet<Arc>();
+        arcs.add(new ArcImpl(start, initTrans));
+        arcs.add(new ArcImpl(initTrans, copy));
+        arcs.add(new ArcImpl(initTrans, copy));
+        arcs.add(new ArcImpl(initTrans, init));
+        arcs.add(new ArcImpl(init, getData));
+        arcs.add(new ArcImpl(getData, dat1));
+        arcs.add(new ArcImpl(copy, copyData));
+        arcs.add(new ArcImpl(dat1, copyData));
+        arcs.add(new ArcImpl(copyData, dat1));
+        arcs.add(new ArcImpl(copyData, dat2));
+        arcs.add(new ArcImpl(getData, con1));
+        arcs.add(new ArcImpl(getData, con2));
+        arcs.add(new ArcImpl(getData, con3));
+        arcs.add(new ArcImpl(getData, con4));
+        arcs.add(new ArcImpl(dat2, extract));
+        arcs.add(new ArcImpl(dat2, calcMean));
+        arcs.add(new ArcImpl(dat2, calcMed));
+        arcs.add(new ArcImpl(dat2, calcRules));
+        arcs.add(new ArcImpl(con1, extract));
+        arcs.add(new ArcImpl(con2, calcMean));
+        arcs.add(new ArcImpl(con3, calcMed));
+        arcs.add(new ArcImpl(con4, calcRules));
+        arcs.add(new ArcImpl(extract, sample));
+        arcs.add(new ArcImpl(calcMean, mean));
+        arcs.add(new ArcImpl(calcMed, med));
+        arcs.add(new ArcImpl(calcRules, rules));
+        arcs.add(new ArcImpl(extract, copy));
+        arcs.add(new ArcImpl(calcMean, copy));
+        arcs.add(new ArcImpl(calcMed, copy));
+        arcs.add(new ArcImpl(calcRules, copy));
+        arcs.add(new ArcImpl(sample, store1));
+        arcs.add(new ArcImpl(mean, store2));
+        arcs.add(new ArcImpl(med, store3));
+        arcs.add(new ArcImpl(rules, store4));
+        arcs.add(new ArcImpl(store1, stor1));
+        arcs.add(new ArcImpl(store2, stor2));
+        arcs.add(new ArcImpl(store3, stor3));
+        arcs.add(new ArcImpl(store4, stor4));
+        arcs.add(new ArcImpl(stor1, endTrans));
+        arcs.add(new ArcImpl(stor2, endTrans));
+        arcs.add(new ArcImpl(stor3, endTrans));
+        arcs.add(new ArcImpl(stor4, endTrans));
+        arcs.add(new ArcImpl(endTrans, end));
+        //create petriNet and visualize
+        return new PetriNetImpl(URI.create("https://petrinet"), nodes, arcs);
+    }
+}